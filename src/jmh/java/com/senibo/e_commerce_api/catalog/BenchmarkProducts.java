@@ -0,0 +1,92 @@
+package com.senibo.e_commerce_api.catalog;
+
+import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.model.product.ProductCategory;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Generates a synthetic catalog for the benchmarks and writes it to the Flyway schema.
+ */
+final class BenchmarkProducts {
+
+    private BenchmarkProducts() {
+    }
+
+    // Prices from 1.00 to 999.99 and categories spread evenly, from a fixed seed so runs compare
+    static List<Product> generate(int count) {
+        Random random = new Random(42);
+        ProductCategory[] categories = ProductCategory.values();
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Product> generated = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Product product = Product.builder()
+                                     .name("Product " + i)
+                                     .description("Description " + i)
+                                     .price(BigDecimal.valueOf(100 + random.nextInt(99_900), 2))
+                                     .stockQuantity(random.nextInt(500))
+                                     .category(categories[random.nextInt(categories.length)])
+                                     .sku("SKU-" + i)
+                                     .build();
+            product.setId(new UUID(random.nextLong(), random.nextLong()));
+            product.setCreatedAt(start.plusSeconds(random.nextInt(60 * 60 * 24 * 365)));
+            product.setUpdatedAt(product.getCreatedAt());
+            generated.add(product);
+        }
+        return generated;
+    }
+
+    /**
+     * Inserts the products in batches, then refreshes the table statistics the planner uses.
+     */
+    static void insert(Connection connection, List<Product> products) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement("""
+                INSERT INTO products (id, created_at, updated_at, name, description, price,
+                                      stock_quantity, category, sku)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """)) {
+            int batched = 0;
+            for (Product product : products) {
+                statement.setBytes(1, toBytes(product.getId()));
+                statement.setTimestamp(2, Timestamp.valueOf(product.getCreatedAt()));
+                statement.setTimestamp(3, Timestamp.valueOf(product.getUpdatedAt()));
+                statement.setString(4, product.getName());
+                statement.setString(5, product.getDescription());
+                statement.setBigDecimal(6, product.getPrice());
+                statement.setInt(7, product.getStockQuantity());
+                statement.setString(8, product.getCategory().name());
+                statement.setString(9, product.getSku());
+                statement.addBatch();
+                if (++batched % 10_000 == 0) {
+                    statement.executeBatch();
+                }
+            }
+            statement.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+    }
+
+    // The same layout as the entities' BINARY(16) IDs: most significant bits first
+    private static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                         .putLong(id.getMostSignificantBits())
+                         .putLong(id.getLeastSignificantBits())
+                         .array();
+    }
+}
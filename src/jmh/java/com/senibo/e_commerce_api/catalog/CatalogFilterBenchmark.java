@@ -0,0 +1,113 @@
+package com.senibo.e_commerce_api.catalog;
+
+import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.model.product.ProductCategory;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a listing filtered by category and price, as {@code ProductSpecification.build} would
+ * filter it, answered by the {@link InMemoryCatalog} with its category and price bucket bitmaps and
+ * by the SQL path: the page query plus the count query, against the Flyway schema and its indexes.
+ * <p>
+ * The SQL side runs on an embedded H2 database in MySQL mode, so it measures the shape of the
+ * plan rather than MySQL itself. Run with
+ * {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.include=CatalogFilterBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class CatalogFilterBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:catalog-benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final int PAGE_SIZE = 20;
+    private static final ProductCategory CATEGORY = ProductCategory.ELECTRONICS;
+    private static final BigDecimal MIN_PRICE = new BigDecimal("100");
+    private static final BigDecimal MAX_PRICE = new BigDecimal("250");
+
+    @Param({"100000", "1000000"})
+    public int products;
+
+    private InMemoryCatalog catalog;
+    private ProductFilter filter;
+    private Connection connection;
+    private PreparedStatement pageQuery;
+    private PreparedStatement countQuery;
+
+    @Setup(Level.Trial)
+    public void load() throws SQLException {
+        List<Product> catalogProducts = BenchmarkProducts.generate(products);
+
+        catalog = new InMemoryCatalog(new PriceScanner("bitmap", Integer.MAX_VALUE, 1));
+        catalog.load(catalogProducts, Map.of());
+        filter = new ProductFilter(null, CATEGORY, MIN_PRICE, MAX_PRICE);
+
+        Flyway.configure()
+              .dataSource(URL, "sa", "")
+              .locations("classpath:db/migration")
+              .load()
+              .migrate();
+        connection = DriverManager.getConnection(URL, "sa", "");
+        BenchmarkProducts.insert(connection, catalogProducts);
+
+        pageQuery = connection.prepareStatement("""
+                SELECT p1_0.id FROM products p1_0
+                 WHERE p1_0.category = ? AND p1_0.price >= ? AND p1_0.price <= ?
+                 ORDER BY p1_0.created_at DESC, p1_0.id DESC LIMIT ?
+                """);
+        countQuery = connection.prepareStatement("""
+                SELECT COUNT(p1_0.id) FROM products p1_0
+                 WHERE p1_0.category = ? AND p1_0.price >= ? AND p1_0.price <= ?
+                """);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public InMemoryCatalog.Slice inMemory() {
+        return catalog.query(filter, null, "createdAt", true, 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public void sql(Blackhole blackhole) throws SQLException {
+        bindFilter(pageQuery);
+        pageQuery.setInt(4, PAGE_SIZE);
+        try (ResultSet page = pageQuery.executeQuery()) {
+            while (page.next()) {
+                blackhole.consume(page.getBytes(1));
+            }
+        }
+        bindFilter(countQuery);
+        try (ResultSet count = countQuery.executeQuery()) {
+            count.next();
+            blackhole.consume(count.getLong(1));
+        }
+    }
+
+    private void bindFilter(PreparedStatement statement) throws SQLException {
+        statement.setString(1, CATEGORY.name());
+        statement.setBigDecimal(2, MIN_PRICE);
+        statement.setBigDecimal(3, MAX_PRICE);
+    }
+}
@@ -0,0 +1,67 @@
+package com.senibo.e_commerce_api.catalog;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the scalar and vector {@link PriceScanKernel}s on a single thread, over price and
+ * category columns of one and ten million products, with about a sixth of the prices in range.
+ * <p>
+ * The vector kernel must be compiled in, so run with
+ * {@code mvn -Pbenchmarks,vector test-compile exec:exec -Djmh.include=PriceScanBenchmark}. The
+ * forked JVMs are started with the incubator module; if the kernel still cannot be loaded, the
+ * trial fails rather than measuring the scalar kernel twice.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "--add-modules=jdk.incubator.vector"})
+@State(Scope.Benchmark)
+public class PriceScanBenchmark {
+
+    private static final long MIN_PRICE = 10_000;
+    private static final long MAX_PRICE = 25_000;
+
+    @Param({"1000000", "10000000"})
+    public int products;
+
+    @Param({"scalar", "vector"})
+    public String kernel;
+
+    @Param({"-1", "3"})
+    public int category;
+
+    private PriceScanKernel scanKernel;
+    private long[] prices;
+    private byte[] categories;
+    private long[] mask;
+
+    @Setup(Level.Trial)
+    public void load() throws ReflectiveOperationException {
+        scanKernel = switch (kernel) {
+            case "scalar" -> ScalarPriceScanKernel.INSTANCE;
+            case "vector" -> (PriceScanKernel) Class.forName(getClass().getPackageName() + ".VectorPriceScanKernel")
+                                                    .getDeclaredConstructor()
+                                                    .newInstance();
+            default -> throw new IllegalArgumentException("Unknown kernel: " + kernel);
+        };
+
+        Random random = new Random(42);
+        prices = new long[products];
+        categories = new byte[products];
+        for (int i = 0; i < products; i++) {
+            prices[i] = 100 + random.nextInt(99_900);
+            categories[i] = (byte) random.nextInt(12);
+        }
+        mask = new long[(products + 63) >>> 6];
+    }
+
+    // The kernels only set bits, so reusing the mask leaves every call with the same work
+    @Benchmark
+    public int scan() {
+        return scanKernel.scan(prices, categories, 0, products, MIN_PRICE, MAX_PRICE, category, mask);
+    }
+}
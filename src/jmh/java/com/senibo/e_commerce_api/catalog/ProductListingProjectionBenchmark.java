@@ -0,0 +1,155 @@
+package com.senibo.e_commerce_api.catalog;
+
+import com.senibo.e_commerce_api.dto.product.ProductResponse;
+import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.model.product.ProductCategory;
+import com.senibo.e_commerce_api.repository.ProductRepository;
+import com.senibo.e_commerce_api.util.ProductSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the two ways a filtered listing page can be read through JPA: the constructor
+ * projection {@link ProductRepository#findResponseSlice} that {@code ProductServiceImpl} uses,
+ * and the same Criteria query selecting managed {@link Product} entities that are then mapped
+ * with {@link ProductResponse#fromEntity}. The entity path pays for the persistence context's
+ * snapshots and dirty-checking on top of the row mapping, which shows up as allocation as much
+ * as time.
+ * <p>
+ * Both run against a Spring context holding only the JPA and Flyway auto-configuration, on an
+ * embedded H2 database in MySQL mode. The benchmarks profile adds {@code -prof gc}, so the report
+ * includes the allocation rate per operation. Run with
+ * {@code mvn -Pbenchmarks test-compile exec:exec -Djmh.include=ProductListingProjectionBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ProductListingProjectionBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:projection-benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final int PRODUCTS = 100_000;
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private ProductRepository productRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate readOnly;
+    private Specification<Product> spec;
+    private Pageable pageable;
+
+    @Setup(Level.Trial)
+    public void start() throws SQLException {
+        context = new SpringApplicationBuilder(JpaOnly.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=" + URL,
+                            "spring.datasource.username=sa",
+                            "spring.datasource.password=",
+                            "spring.datasource.driver-class-name=org.h2.Driver",
+                            // The migrations use MySQL column types, which Hibernate would not validate against H2
+                            "spring.jpa.hibernate.ddl-auto=none",
+                            "spring.jpa.open-in-view=false",
+                            "logging.level.root=WARN")
+                .run();
+        productRepository = context.getBean(ProductRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        try (Connection connection = context.getBean(DataSource.class).getConnection()) {
+            BenchmarkProducts.insert(connection, BenchmarkProducts.generate(PRODUCTS));
+        }
+
+        spec = ProductSpecification.build(Optional.empty(),
+                                          Optional.of(ProductCategory.ELECTRONICS),
+                                          Optional.of(new BigDecimal("100")),
+                                          Optional.of(new BigDecimal("250")));
+        pageable = PageRequest.of(0, pageSize, Sort.by(Sort.Direction.DESC, "createdAt"));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws SQLException {
+        try (Connection connection = context.getBean(DataSource.class).getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        context.close();
+    }
+
+    @Benchmark
+    public List<ProductResponse> projection() {
+        // One extra row tells the caller whether there is a next page, as ProductServiceImpl asks
+        return readOnly.execute(status -> productRepository.findResponseSlice(spec, pageable, pageSize + 1));
+    }
+
+    @Benchmark
+    public List<ProductResponse> entities() {
+        return readOnly.execute(status -> {
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            CriteriaQuery<Product> query = cb.createQuery(Product.class);
+            Root<Product> root = query.from(Product.class);
+            Predicate predicate = spec.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+            return entityManager.createQuery(query)
+                                .setFirstResult((int) pageable.getOffset())
+                                .setMaxResults(pageSize + 1)
+                                .getResultList()
+                                .stream()
+                                .map(ProductResponse::fromEntity)
+                                .toList();
+        });
+    }
+
+    /**
+     * Just enough of the application to run the product repository: no web layer, security,
+     * caches or scheduled jobs.
+     */
+    @SpringBootConfiguration
+    @ImportAutoConfiguration({DataSourceAutoConfiguration.class,
+                              FlywayAutoConfiguration.class,
+                              HibernateJpaAutoConfiguration.class,
+                              TransactionAutoConfiguration.class})
+    @EntityScan("com.senibo.e_commerce_api.model")
+    @EnableJpaRepositories(basePackageClasses = ProductRepository.class)
+    static class JpaOnly {
+    }
+}
@@ -0,0 +1,507 @@
+package com.senibo.e_commerce_api.cart;
+
+import com.senibo.e_commerce_api.exception.general.PreconditionFailedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * An optional write-behind store that keeps active shopping carts in memory.
+ * <p>
+ * Each cart is held per user, with its lines keyed by product ID, and guarded by one of a fixed
+ * set of striped locks, so that a user's requests are serialized without a global lock. Mutations
+ * only mark the cart dirty. Dirty carts are written to the {@code carts} and {@code cart_items}
+ * tables in batches every {@code spring.app.cart-store.flush-interval-ms}, and once more on
+ * shutdown, so however many times a cart changed in between it costs one write. A crash loses at
+ * most one flush interval of cart changes.
+ * <p>
+ * A cart is loaded from the database on its first access, or created empty in memory if the user
+ * has none, and evicted once it is clean and has not been used for
+ * {@code spring.app.cart-store.idle-seconds}. Since each node keeps its own copy, the store must
+ * only be enabled when a user's requests are served by a single node. Anything that
+ * reads carts from the database directly, such as checkout, must {@link #flush(UUID)} first, and
+ * anything that changes a cart must do so through {@link #update}, or the next flush would write
+ * the in-memory copy back over it.
+ */
+@Component
+@Slf4j
+public class CartStore implements InitializingBean, DisposableBean {
+
+    private static final String SELECT_CART_SQL = """
+            SELECT c.id, c.created_at, c.version, ci.id, ci.product_id, ci.quantity, ci.created_at
+              FROM carts c
+              LEFT JOIN cart_items ci ON ci.cart_id = c.id
+             WHERE c.user_id = ?
+            """;
+    private static final String INSERT_CART_SQL =
+            "INSERT INTO carts (id, created_at, updated_at, version, user_id) VALUES (?, ?, ?, ?, ?)";
+    private static final String TOUCH_CART_SQL = "UPDATE carts SET updated_at = ?, version = ? WHERE id = ?";
+    private static final String DELETE_ITEMS_SQL = "DELETE FROM cart_items WHERE cart_id = ?";
+    private static final String INSERT_ITEM_SQL = """
+            INSERT INTO cart_items (id, created_at, updated_at, quantity, cart_id, product_id)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate flushTransaction;
+    private final boolean enabled;
+    private final long flushIntervalMs;
+    private final long idleNanos;
+    private final ReentrantLock[] stripes;
+
+    private final Map<UUID, ActiveCart> carts = new ConcurrentHashMap<>();
+    private final Set<UUID> dirtyUsers = ConcurrentHashMap.newKeySet();
+    // Serializes flushes, so that an older copy of a cart is never written over a newer one
+    private final Object flushMonitor = new Object();
+    // A thread of its own, so that long jobs on the shared scheduler cannot delay the flush
+    private ScheduledExecutorService flusher;
+
+    public CartStore(JdbcTemplate jdbcTemplate,
+                     PlatformTransactionManager transactionManager,
+                     @Value("${spring.app.cart-store.enabled:false}") boolean enabled,
+                     @Value("${spring.app.cart-store.flush-interval-ms:2000}") long flushIntervalMs,
+                     @Value("${spring.app.cart-store.stripes:64}") int stripeCount,
+                     @Value("${spring.app.cart-store.idle-seconds:1800}") long idleSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Flushes commit on their own, even when called from inside another transaction
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+        this.idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+        this.stripes = new ReentrantLock[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        if (enabled) {
+            log.info("Write-behind cart store enabled with {} lock stripes", stripes.length);
+        }
+    }
+
+    /**
+     * Whether carts should be read and written through this store instead of the repositories.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reads a user's cart under its lock, loading it from the database if needed.
+     *
+     * @param userId The ID of the user.
+     * @param reader Reads what it needs from the cart. It must not keep a reference to it.
+     * @return What the reader returned.
+     */
+    public <T> T read(UUID userId, Function<ActiveCart, T> reader) {
+        ReentrantLock lock = stripeFor(userId);
+        lock.lock();
+        try {
+            return reader.apply(cartFor(userId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes a user's cart under its lock, moves it on to its next version and schedules it to be
+     * written. If the mutation throws, the cart is neither versioned nor marked dirty, so the
+     * mutation should validate before changing anything.
+     *
+     * @param userId          The ID of the user.
+     * @param expectedVersion The version the caller last saw, if the change is conditional.
+     * @param mutation        Changes the cart. It must not keep a reference to it.
+     * @return What the mutation returned.
+     * @throws PreconditionFailedException if the cart is no longer at the expected version.
+     */
+    public <T> T update(UUID userId, Optional<Long> expectedVersion, Function<ActiveCart, T> mutation) {
+        ReentrantLock lock = stripeFor(userId);
+        lock.lock();
+        try {
+            ActiveCart cart = cartFor(userId);
+            if (expectedVersion.isPresent() && expectedVersion.get() != cart.version) {
+                throw new PreconditionFailedException(
+                        "The cart has changed since version " + expectedVersion.get() + ".");
+            }
+            cart.version++;
+            try {
+                T result = mutation.apply(cart);
+                dirtyUsers.add(userId);
+                return result;
+            } catch (RuntimeException e) {
+                cart.version--;
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes a user's cart to the database now if it has unwritten changes, and waits for any
+     * flush in progress, so that the database holds the cart's latest contents on return.
+     */
+    public void flush(UUID userId) {
+        if (!enabled) {
+            return;
+        }
+        // Checked under the monitor: a scheduled flush that has already taken the cart off the
+        // dirty set may still be writing it, and must finish before the caller reads the database
+        synchronized (flushMonitor) {
+            if (dirtyUsers.contains(userId)) {
+                write(List.of(userId));
+            }
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!enabled) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-store-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flushDirty();
+            } catch (RuntimeException e) {
+                // An exception would cancel every later run
+                log.error("Cart flush failed", e);
+            }
+        }, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes every dirty cart, then evicts the carts that are clean and idle. Runs every
+     * {@code spring.app.cart-store.flush-interval-ms} on the store's own thread.
+     */
+    public void flushDirty() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (flushMonitor) {
+            if (!dirtyUsers.isEmpty()) {
+                write(List.copyOf(dirtyUsers));
+            }
+            // Under the monitor, so that a cart is never evicted while a flush is writing it
+            evictIdle();
+        }
+    }
+
+    /**
+     * The number of carts held in memory.
+     */
+    int size() {
+        return carts.size();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (enabled) {
+            flusher.shutdown();
+            flusher.awaitTermination(30, TimeUnit.SECONDS);
+            flushDirty();
+            if (!dirtyUsers.isEmpty()) {
+                log.error("{} carts could not be written before shutdown", dirtyUsers.size());
+            }
+        }
+    }
+
+    /**
+     * Copies each cart under its lock, then writes the copies in one transaction. A cart that is
+     * changed again after being copied stays dirty for the next flush.
+     */
+    private void write(List<UUID> userIds) {
+        List<CartCopy> copies = new ArrayList<>(userIds.size());
+        for (UUID userId : userIds) {
+            ReentrantLock lock = stripeFor(userId);
+            lock.lock();
+            try {
+                ActiveCart cart = carts.get(userId);
+                dirtyUsers.remove(userId);
+                if (cart != null) {
+                    copies.add(cart.copy());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (copies.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            writeInTransaction(copies);
+            copies.forEach(this::markWritten);
+            log.debug("Flushed {} carts in {} ms", copies.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Could not flush {} carts together, retrying one at a time", copies.size(), e);
+            copies.forEach(this::writeAlone);
+        }
+    }
+
+    private void writeAlone(CartCopy copy) {
+        try {
+            writeInTransaction(List.of(copy));
+            markWritten(copy);
+        } catch (RuntimeException e) {
+            // Leave it dirty so the next flush tries again
+            log.warn("Could not flush the cart of user {}", copy.userId(), e);
+            dirtyUsers.add(copy.userId());
+        }
+    }
+
+    private void writeInTransaction(List<CartCopy> copies) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<CartCopy> created = copies.stream().filter(copy -> !copy.persisted()).toList();
+        List<CartCopy> existing = copies.stream().filter(CartCopy::persisted).toList();
+        List<Object[]> items = new ArrayList<>();
+        for (CartCopy copy : copies) {
+            for (Line line : copy.lines()) {
+                items.add(new Object[]{toBytes(line.itemId()), Timestamp.valueOf(line.createdAt()), now,
+                        line.quantity(), toBytes(copy.cartId()), toBytes(line.productId())});
+            }
+        }
+
+        flushTransaction.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_CART_SQL, created, BATCH_SIZE, (ps, copy) -> {
+                ps.setBytes(1, toBytes(copy.cartId()));
+                ps.setTimestamp(2, Timestamp.valueOf(copy.createdAt()));
+                ps.setTimestamp(3, now);
+                ps.setLong(4, copy.version());
+                ps.setBytes(5, toBytes(copy.userId()));
+            });
+            jdbcTemplate.batchUpdate(TOUCH_CART_SQL, existing, BATCH_SIZE, (ps, copy) -> {
+                ps.setTimestamp(1, now);
+                ps.setLong(2, copy.version());
+                ps.setBytes(3, toBytes(copy.cartId()));
+            });
+            // Replacing the lines outright is simpler than diffing them and costs the same batches
+            jdbcTemplate.batchUpdate(DELETE_ITEMS_SQL, existing, BATCH_SIZE,
+                                     (ps, copy) -> ps.setBytes(1, toBytes(copy.cartId())));
+            jdbcTemplate.batchUpdate(INSERT_ITEM_SQL, items);
+        });
+    }
+
+    private void markWritten(CartCopy copy) {
+        ReentrantLock lock = stripeFor(copy.userId());
+        lock.lock();
+        try {
+            ActiveCart cart = carts.get(copy.userId());
+            if (cart != null && cart.id.equals(copy.cartId())) {
+                cart.persisted = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        for (Map.Entry<UUID, ActiveCart> entry : carts.entrySet()) {
+            UUID userId = entry.getKey();
+            if (now - entry.getValue().lastAccess < idleNanos || dirtyUsers.contains(userId)) {
+                continue;
+            }
+            ReentrantLock lock = stripeFor(userId);
+            lock.lock();
+            try {
+                // A clean cart that was never written is empty, so it is dropped like any other:
+                // it is created afresh if the user comes back
+                ActiveCart cart = carts.get(userId);
+                if (cart != null && !dirtyUsers.contains(userId) && now - cart.lastAccess >= idleNanos) {
+                    carts.remove(userId);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    // Must be called with the user's stripe held
+    private ActiveCart cartFor(UUID userId) {
+        ActiveCart cart = carts.get(userId);
+        if (cart == null) {
+            cart = load(userId);
+            carts.put(userId, cart);
+        }
+        cart.lastAccess = System.nanoTime();
+        return cart;
+    }
+
+    private ActiveCart load(UUID userId) {
+        List<ActiveCart> found = new ArrayList<>(1);
+        jdbcTemplate.query(SELECT_CART_SQL, rs -> {
+            if (found.isEmpty()) {
+                found.add(new ActiveCart(userId, fromBytes(rs.getBytes(1)),
+                                         rs.getTimestamp(2).toLocalDateTime(), rs.getLong(3), true));
+            }
+            byte[] itemId = rs.getBytes(4);
+            if (itemId != null) {
+                UUID productId = fromBytes(rs.getBytes(5));
+                found.get(0).lines.put(productId, new Line(fromBytes(itemId), productId, rs.getInt(6),
+                                                           rs.getTimestamp(7).toLocalDateTime()));
+            }
+        }, toBytes(userId));
+        return found.isEmpty()
+                ? new ActiveCart(userId, UUID.randomUUID(), LocalDateTime.now(), 0, false)
+                : found.get(0);
+    }
+
+    private ReentrantLock stripeFor(UUID userId) {
+        int hash = userId.hashCode();
+        hash ^= (hash >>> 16);
+        return stripes[(hash & 0x7fffffff) % stripes.length];
+    }
+
+    // Hibernate maps UUIDs to BINARY(16) on MySQL, most significant bits first
+    private static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                         .putLong(id.getMostSignificantBits())
+                         .putLong(id.getLeastSignificantBits())
+                         .array();
+    }
+
+    private static UUID fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    /**
+     * A line of a cart.
+     *
+     * @param itemId    The ID of the cart item, stable across flushes.
+     * @param productId The ID of the product.
+     * @param quantity  The quantity in the cart.
+     * @param createdAt When the line was first added.
+     */
+    public record Line(UUID itemId, UUID productId, int quantity, LocalDateTime createdAt) {
+    }
+
+    /**
+     * An immutable copy of a cart's contents, safe to use outside its lock.
+     *
+     * @param cartId  The ID of the cart.
+     * @param version The cart's version.
+     * @param lines   The lines, in the order they were added.
+     */
+    public record Contents(UUID cartId, long version, List<Line> lines) {
+    }
+
+    /**
+     * A user's cart as held in memory. Only accessed under the user's stripe lock.
+     */
+    public static final class ActiveCart {
+
+        private final UUID userId;
+        private final UUID id;
+        private final LocalDateTime createdAt;
+        private final Map<UUID, Line> lines = new LinkedHashMap<>();
+        private long version;
+        private boolean persisted;
+        private long lastAccess;
+
+        private ActiveCart(UUID userId, UUID id, LocalDateTime createdAt, long version, boolean persisted) {
+            this.userId = userId;
+            this.id = id;
+            this.createdAt = createdAt;
+            this.version = version;
+            this.persisted = persisted;
+        }
+
+        /**
+         * The cart's ID, assigned when it is first created in memory.
+         */
+        public UUID id() {
+            return id;
+        }
+
+        /**
+         * The lines, in the order they were added.
+         */
+        public Collection<Line> lines() {
+            return Collections.unmodifiableCollection(lines.values());
+        }
+
+        /**
+         * Copies the cart's current contents.
+         */
+        public Contents contents() {
+            return new Contents(id, version, List.copyOf(lines.values()));
+        }
+
+        /**
+         * The quantity of a product in the cart, or 0 if it is not in it.
+         */
+        public int quantityOf(UUID productId) {
+            Line line = lines.get(productId);
+            return line == null ? 0 : line.quantity();
+        }
+
+        /**
+         * Adds a quantity of a product, creating its line if needed.
+         */
+        public void add(UUID productId, int quantity) {
+            lines.merge(productId,
+                        new Line(UUID.randomUUID(), productId, quantity, LocalDateTime.now()),
+                        (line, added) -> new Line(line.itemId(), productId, line.quantity() + quantity,
+                                                  line.createdAt()));
+        }
+
+        /**
+         * Removes every line.
+         */
+        public void clear() {
+            lines.clear();
+        }
+
+        /**
+         * Removes the line with the given item ID.
+         *
+         * @return The removed line, or empty if the cart has no such item.
+         */
+        public Optional<Line> removeItem(UUID itemId) {
+            Iterator<Line> iterator = lines.values().iterator();
+            while (iterator.hasNext()) {
+                Line line = iterator.next();
+                if (line.itemId().equals(itemId)) {
+                    iterator.remove();
+                    return Optional.of(line);
+                }
+            }
+            return Optional.empty();
+        }
+
+        private CartCopy copy() {
+            return new CartCopy(userId, id, createdAt, version, persisted, List.copyOf(lines.values()));
+        }
+    }
+
+    /**
+     * An immutable copy of a cart taken for a flush.
+     */
+    private record CartCopy(UUID userId, UUID cartId, LocalDateTime createdAt, long version,
+                            boolean persisted, List<Line> lines) {
+    }
+}
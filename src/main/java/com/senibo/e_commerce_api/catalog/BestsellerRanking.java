@@ -0,0 +1,266 @@
+package com.senibo.e_commerce_api.catalog;
+
+import com.senibo.e_commerce_api.dto.product.BestsellerWindow;
+import com.senibo.e_commerce_api.model.order.OrderStatus;
+import com.senibo.e_commerce_api.model.product.ProductCategory;
+import com.senibo.e_commerce_api.repository.OrderItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Units sold per product over rolling windows, maintained incrementally from paid orders.
+ * <p>
+ * Sales are added to hourly buckets covering the longest {@link BestsellerWindow}, and to a running
+ * total per window. When the clock moves into a new hour, the buckets that fall out of each window
+ * are subtracted from that window's totals, so no total is ever recomputed from scratch. Each window
+ * also keeps its products in sorted sets, one overall and one per category, ordered by units sold;
+ * every change re-positions a product in O(log n), and the top k are read off the front of a set
+ * in O(k).
+ * <p>
+ * Counts live in memory and are rebuilt from the paid order history when the application starts.
+ * A product is ranked under the category it had at its latest sale.
+ * <p>
+ * A payment that committed just before a rebuild read the history is announced only afterwards, so
+ * the orders a rebuild replayed are remembered for {@link #REBUILD_OVERLAP} and not counted again.
+ */
+@Component
+@Slf4j
+public class BestsellerRanking {
+
+    private static final BestsellerWindow[] WINDOWS = BestsellerWindow.values();
+    private static final int BUCKETS = BestsellerWindow.LAST_30_DAYS.hours();
+    private static final List<OrderStatus> SOLD_STATUSES = List.of(OrderStatus.PAID, OrderStatus.SHIPPED);
+
+    /**
+     * How long after a rebuild a payment it already replayed may still be announced. Generous, since
+     * the announcement follows the payment's commit directly.
+     */
+    private static final Duration REBUILD_OVERLAP = Duration.ofMinutes(10);
+
+    private final OrderItemRepository orderItemRepository;
+
+    // All state is guarded by this
+    private final List<Map<UUID, Long>> buckets = new ArrayList<>(BUCKETS);
+    private final long[] bucketHours = new long[BUCKETS];
+    private final Map<BestsellerWindow, Ranking> rankings = new EnumMap<>(BestsellerWindow.class);
+    private final Map<UUID, ProductCategory> categories = new HashMap<>();
+    private long currentHour;
+    // Orders paid within REBUILD_OVERLAP of the last rebuild that it replayed, until rebuiltOrdersExpireAt
+    private Set<UUID> rebuiltOrders = Set.of();
+    private Instant rebuiltOrdersExpireAt = Instant.MIN;
+
+    public BestsellerRanking(OrderItemRepository orderItemRepository) {
+        this.orderItemRepository = orderItemRepository;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.add(new HashMap<>());
+        }
+        reset(hourOf(Instant.now()));
+    }
+
+    /**
+     * Rebuilds the counts once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Counts the items of an order once its payment has been committed, unless the last rebuild
+     * already counted them.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onOrderPaid(OrderPaidEvent event) {
+        Instant now = Instant.now();
+        if (now.isAfter(rebuiltOrdersExpireAt)) {
+            rebuiltOrders = Set.of();
+        } else if (rebuiltOrders.contains(event.orderId())) {
+            return;
+        }
+        advanceTo(hourOf(now));
+        event.sales().forEach(this::record);
+    }
+
+    /**
+     * Replaces all counts with ones recomputed from the paid orders of the longest window.
+     * Sales are not recorded while this runs, and the payments it replays are not counted again
+     * when they are announced afterwards.
+     *
+     * @return The number of order items replayed.
+     */
+    public synchronized int rebuild() {
+        long start = System.nanoTime();
+        reset(hourOf(Instant.now()));
+        LocalDateTime now = LocalDateTime.now();
+        List<ProductSale> sales = orderItemRepository.findSalesSince(SOLD_STATUSES, now.minusHours(BUCKETS));
+        sales.forEach(this::record);
+
+        LocalDateTime recent = now.minus(REBUILD_OVERLAP);
+        rebuiltOrders = sales.stream()
+                             .filter(sale -> sale.soldAt().isAfter(recent))
+                             .map(ProductSale::orderId)
+                             .collect(Collectors.toSet());
+        rebuiltOrdersExpireAt = Instant.now().plus(REBUILD_OVERLAP);
+        log.info("Bestseller ranking rebuilt from {} order items in {} ms",
+                 sales.size(), (System.nanoTime() - start) / 1_000_000);
+        return sales.size();
+    }
+
+    /**
+     * Returns the best-selling products of a window.
+     *
+     * @param window   The rolling window.
+     * @param category The category to rank within, or {@code null} for the whole catalog.
+     * @param limit    The maximum number of products.
+     * @return The products with the units they sold, best-selling first; ties are broken by ID.
+     */
+    public synchronized List<Bestseller> top(BestsellerWindow window, ProductCategory category, int limit) {
+        advanceTo(hourOf(Instant.now()));
+        return rankings.get(window).ranked(category).stream()
+                       .limit(Math.max(0, limit))
+                       .toList();
+    }
+
+    /**
+     * A product and the units it sold in a window.
+     */
+    public record Bestseller(UUID productId, long unitsSold) {
+    }
+
+    private void record(ProductSale sale) {
+        long hour = Math.min(hourOf(sale.soldAt()), currentHour);
+        if (hour <= currentHour - BUCKETS || sale.quantity() <= 0) {
+            return;
+        }
+        UUID productId = sale.productId();
+        ProductCategory previous = categories.put(productId, sale.category());
+        if (previous != null && previous != sale.category()) {
+            rankings.values().forEach(ranking -> ranking.move(productId, previous, sale.category()));
+        }
+
+        int slot = slotOf(hour);
+        if (bucketHours[slot] != hour) {
+            // Only reachable for an hour inside the window that has seen no sale yet
+            buckets.get(slot).clear();
+            bucketHours[slot] = hour;
+        }
+        buckets.get(slot).merge(productId, (long) sale.quantity(), Long::sum);
+        for (BestsellerWindow window : WINDOWS) {
+            if (hour > currentHour - window.hours()) {
+                rankings.get(window).add(productId, sale.category(), sale.quantity());
+            }
+        }
+    }
+
+    /**
+     * Moves the clock forward hour by hour, subtracting the buckets that leave each window.
+     */
+    private void advanceTo(long hour) {
+        if (hour <= currentHour) {
+            return;
+        }
+        if (hour - currentHour >= BUCKETS) {
+            reset(hour);
+            return;
+        }
+        for (long next = currentHour + 1; next <= hour; next++) {
+            for (BestsellerWindow window : WINDOWS) {
+                long leaving = next - window.hours();
+                int slot = slotOf(leaving);
+                if (bucketHours[slot] == leaving) {
+                    Ranking ranking = rankings.get(window);
+                    buckets.get(slot).forEach((productId, units) ->
+                            ranking.add(productId, categories.get(productId), -units));
+                }
+            }
+            // The slot held the hour that just left the longest window
+            int slot = slotOf(next);
+            buckets.get(slot).keySet().forEach(this::forgetIfUnsold);
+            buckets.get(slot).clear();
+            bucketHours[slot] = next;
+        }
+        currentHour = hour;
+    }
+
+    private void forgetIfUnsold(UUID productId) {
+        if (!rankings.get(BestsellerWindow.LAST_30_DAYS).units.containsKey(productId)) {
+            categories.remove(productId);
+        }
+    }
+
+    private void reset(long hour) {
+        buckets.forEach(Map::clear);
+        Arrays.fill(bucketHours, Long.MIN_VALUE);
+        for (BestsellerWindow window : WINDOWS) {
+            rankings.put(window, new Ranking());
+        }
+        categories.clear();
+        currentHour = hour;
+    }
+
+    private static int slotOf(long hour) {
+        return (int) Math.floorMod(hour, (long) BUCKETS);
+    }
+
+    private static long hourOf(Instant instant) {
+        return instant.getEpochSecond() / 3600;
+    }
+
+    private static long hourOf(LocalDateTime time) {
+        return hourOf(time.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * The running totals of one window, with the products ordered by units sold.
+     */
+    private static final class Ranking {
+
+        private static final Comparator<Bestseller> BEST_FIRST =
+                Comparator.comparingLong(Bestseller::unitsSold).reversed()
+                          .thenComparing(Bestseller::productId);
+
+        private final Map<UUID, Long> units = new HashMap<>();
+        private final NavigableSet<Bestseller> overall = new TreeSet<>(BEST_FIRST);
+        private final Map<ProductCategory, NavigableSet<Bestseller>> byCategory = new EnumMap<>(ProductCategory.class);
+
+        void add(UUID productId, ProductCategory category, long delta) {
+            long before = units.getOrDefault(productId, 0L);
+            long after = before + delta;
+            if (before > 0) {
+                overall.remove(new Bestseller(productId, before));
+                ranked(category).remove(new Bestseller(productId, before));
+            }
+            if (after > 0) {
+                units.put(productId, after);
+                overall.add(new Bestseller(productId, after));
+                ranked(category).add(new Bestseller(productId, after));
+            } else {
+                units.remove(productId);
+            }
+        }
+
+        void move(UUID productId, ProductCategory from, ProductCategory to) {
+            Long current = units.get(productId);
+            if (current != null && ranked(from).remove(new Bestseller(productId, current))) {
+                ranked(to).add(new Bestseller(productId, current));
+            }
+        }
+
+        NavigableSet<Bestseller> ranked(ProductCategory category) {
+            return category == null
+                    ? overall
+                    : byCategory.computeIfAbsent(category, c -> new TreeSet<>(BEST_FIRST));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.senibo.e_commerce_api.catalog;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A counter that is bumped every time the product catalog changes.
+ * <p>
+ * Anything derived from the catalog as a whole (cached counts, listing responses, ETags) can be
+ * tagged with the generation it was computed at, and is stale as soon as the generation moves on.
+ * This makes invalidation O(1) regardless of how many derived entries exist. The counter starts
+ * from the startup time so that values from before a restart are never reused.
+ */
+@Component
+public class CatalogGeneration {
+
+    private final AtomicLong generation = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * Returns the current generation.
+     */
+    public long current() {
+        return generation.get();
+    }
+
+    /**
+     * Makes sure the generation is past one handed out before a restart, e.g. the generation of a
+     * restored snapshot, so that no value is ever reused.
+     */
+    public void advancePast(long previous) {
+        generation.accumulateAndGet(previous + 1, Math::max);
+    }
+
+    /**
+     * Moves the catalog on to a new generation after any product write.
+     * <p>
+     * Runs after the in-memory read models have applied the write, so that anything computed at
+     * the new generation already reflects it.
+     */
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        generation.incrementAndGet();
+    }
+}
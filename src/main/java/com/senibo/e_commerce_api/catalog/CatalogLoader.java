@@ -0,0 +1,198 @@
+package com.senibo.e_commerce_api.catalog;
+
+import com.senibo.e_commerce_api.dto.product.ProductResponse;
+import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Loads the in-memory read models of the catalog when the application starts, and periodically
+ * saves a {@link CatalogSnapshot} to local disk so that the next start is warm.
+ * <p>
+ * On startup the products are read once, from the snapshot when there is a valid one and from the
+ * database otherwise, and handed to the {@link InMemoryCatalog}, the {@link ProductSearchIndex}
+ * and the {@link ProductAutocomplete}; the most recently updated ones also warm the
+ * {@link ProductCache}. Reads are served from that state straight away. The products written since
+ * the snapshot (or since the cold load started) are then fetched by {@code updatedAt} and applied
+ * as a regular {@link ProductsChangedEvent}, which also covers writes that raced with the load.
+ * <p>
+ * Snapshots are only written when the catalog generation has moved since the last one. A missing,
+ * outdated or corrupt snapshot simply means a cold load.
+ */
+@Component
+@Slf4j
+public class CatalogLoader {
+
+    /**
+     * How far before the snapshot time to reconcile from, to absorb clock skew between nodes and
+     * writes that were in flight while the snapshot was taken. Reapplying a product is harmless.
+     */
+    private static final Duration RECONCILE_OVERLAP = Duration.ofMinutes(1);
+
+    private final ProductRepository productRepository;
+    private final InMemoryCatalog inMemoryCatalog;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductAutocomplete productAutocomplete;
+    private final ProductCache productCache;
+    private final CatalogGeneration catalogGeneration;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean snapshotEnabled;
+    private final Path snapshotPath;
+    private final int cacheWarmSize;
+
+    // The generation of the last snapshot written by this node
+    private volatile long snapshotGeneration = -1;
+
+    public CatalogLoader(ProductRepository productRepository,
+                         InMemoryCatalog inMemoryCatalog,
+                         ProductSearchIndex productSearchIndex,
+                         ProductAutocomplete productAutocomplete,
+                         ProductCache productCache,
+                         CatalogGeneration catalogGeneration,
+                         ApplicationEventPublisher eventPublisher,
+                         EntityManager entityManager,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${spring.app.catalog-snapshot.enabled:false}") boolean snapshotEnabled,
+                         @Value("${spring.app.catalog-snapshot.path:data/catalog.snapshot}") String snapshotPath,
+                         @Value("${spring.app.product-cache.max-size:10000}") int cacheWarmSize) {
+        this.productRepository = productRepository;
+        this.inMemoryCatalog = inMemoryCatalog;
+        this.productSearchIndex = productSearchIndex;
+        this.productAutocomplete = productAutocomplete;
+        this.productCache = productCache;
+        this.catalogGeneration = catalogGeneration;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        // Snapshots are written from a scheduler thread, which needs its own transaction for the cursor
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.snapshotEnabled = snapshotEnabled;
+        this.snapshotPath = Path.of(snapshotPath);
+        this.cacheWarmSize = cacheWarmSize;
+    }
+
+    /**
+     * Loads the read models once the application (and any data seeding) has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        long start = System.nanoTime();
+        Optional<CatalogSnapshot> snapshot = readSnapshot();
+
+        List<Product> products;
+        Map<UUID, Long> versions = new HashMap<>();
+        LocalDateTime loadedAsOf;
+        if (snapshot.isPresent()) {
+            loadedAsOf = snapshot.get().takenAt();
+            products = new ArrayList<>(snapshot.get().rows().size());
+            for (CatalogSnapshot.Row row : snapshot.get().rows()) {
+                products.add(row.toProduct());
+                if (row.version() > 0) {
+                    versions.put(row.product().id(), row.version());
+                }
+            }
+            catalogGeneration.advancePast(snapshot.get().generation());
+            warmCache(snapshot.get().rows());
+        } else {
+            loadedAsOf = LocalDateTime.now();
+            products = productRepository.findAll();
+        }
+
+        inMemoryCatalog.load(products, versions);
+        productSearchIndex.load(products);
+        productAutocomplete.load(products);
+        log.info("Catalog read models loaded from {} with {} products in {} ms",
+                 snapshot.isPresent() ? "snapshot" : "database", products.size(),
+                 (System.nanoTime() - start) / 1_000_000);
+
+        List<Product> changed = productRepository.findAllByUpdatedAtAfter(loadedAsOf.minus(RECONCILE_OVERLAP));
+        if (!changed.isEmpty()) {
+            changed.forEach(product -> productCache.put(ProductResponse.fromEntity(product)));
+            eventPublisher.publishEvent(new ProductsChangedEvent(changed));
+        }
+        log.info("Reconciled {} products written since {}", changed.size(), loadedAsOf);
+    }
+
+    /**
+     * Writes a new snapshot if the catalog has changed since the last one.
+     */
+    @Scheduled(fixedDelayString = "${spring.app.catalog-snapshot.interval-ms:600000}",
+            initialDelayString = "${spring.app.catalog-snapshot.initial-delay-ms:60000}")
+    public void writeSnapshot() {
+        if (!snapshotEnabled || !inMemoryCatalog.isReady()) {
+            return;
+        }
+        // Read before the products, so that anything written during the snapshot is reconciled later
+        long generation = catalogGeneration.current();
+        if (generation == snapshotGeneration) {
+            return;
+        }
+        LocalDateTime takenAt = LocalDateTime.now();
+        long start = System.nanoTime();
+
+        try {
+            Integer written = readOnlyTransaction.execute(status -> {
+                try (Stream<Product> products = productRepository.streamAll();
+                     CatalogSnapshot.Writer writer = CatalogSnapshot.Writer.open(snapshotPath, takenAt, generation)) {
+                    Iterator<Product> iterator = products.iterator();
+                    while (iterator.hasNext()) {
+                        Product product = iterator.next();
+                        long version = inMemoryCatalog.versionOf(product.getId()).orElse(0);
+                        writer.write(CatalogSnapshot.Row.of(product, version));
+                        entityManager.detach(product);
+                    }
+                    return writer.commit();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            snapshotGeneration = generation;
+            log.info("Catalog snapshot of {} products written to {} in {} ms",
+                     written, snapshotPath, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.warn("Could not write the catalog snapshot to {}", snapshotPath, e);
+        }
+    }
+
+    private Optional<CatalogSnapshot> readSnapshot() {
+        if (!snapshotEnabled || !Files.exists(snapshotPath)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(CatalogSnapshot.read(snapshotPath));
+        } catch (IOException e) {
+            log.warn("Ignoring the catalog snapshot at {}, falling back to a cold load: {}",
+                     snapshotPath, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    // The most recently updated products are the likeliest to be read soon
+    private void warmCache(List<CatalogSnapshot.Row> rows) {
+        rows.stream()
+            .sorted(Comparator.comparing(CatalogSnapshot.Row::updatedAt,
+                                         Comparator.nullsFirst(Comparator.naturalOrder())).reversed())
+            .limit(cacheWarmSize)
+            .forEach(row -> productCache.put(row.product()));
+    }
+}
@@ -0,0 +1,270 @@
+package com.senibo.e_commerce_api.catalog;
+
+import com.senibo.e_commerce_api.dto.product.ProductResponse;
+import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.model.product.ProductCategory;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A point-in-time copy of the product catalog in a compact binary file, used to warm a node's
+ * in-memory read models without a full table scan.
+ * <p>
+ * Layout, big-endian:
+ * <pre>
+ * header   int magic ("CSNP"), int format version, long taken-at, long catalog generation
+ * row      byte 1, then the product (see {@link Writer#write(Row)}), repeated
+ * trailer  byte 0, int row count, long CRC32 of every preceding byte
+ * </pre>
+ * Files are written to a temporary sibling and atomically moved into place, so a reader sees
+ * either the previous snapshot or the complete new one. When reading, the whole file is
+ * memory-mapped and the checksum verified before any row is decoded; a file with the wrong magic,
+ * an unknown version or a bad checksum is rejected with an {@link IOException}.
+ *
+ * @param takenAt    When the snapshot was started, in the local time used by the entities'
+ *                   audit timestamps. Writes from this moment on may be missing.
+ * @param generation The {@link CatalogGeneration} at that moment.
+ * @param rows       The products.
+ */
+public record CatalogSnapshot(LocalDateTime takenAt, long generation, List<Row> rows) {
+
+    private static final int MAGIC = 0x43534E50;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8;
+    private static final int TRAILER_BYTES = 1 + 4 + 8;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * One product as stored in the snapshot.
+     *
+     * @param product   The product as returned by the API.
+     * @param createdAt The creation time.
+     * @param updatedAt The time of the last write.
+     * @param version   The product's version in the {@link InMemoryCatalog}, or 0 if unknown.
+     */
+    public record Row(ProductResponse product, LocalDateTime createdAt, LocalDateTime updatedAt, long version) {
+
+        public static Row of(Product product, long version) {
+            return new Row(ProductResponse.fromEntity(product), product.getCreatedAt(),
+                           product.getUpdatedAt(), version);
+        }
+
+        /**
+         * Rebuilds a detached product entity carrying the stored fields, for the in-memory read models.
+         */
+        public Product toProduct() {
+            Product entity = Product.builder()
+                                    .name(product.name())
+                                    .description(product.description())
+                                    .price(product.price())
+                                    .stockQuantity(product.stockQuantity())
+                                    .category(ProductCategory.valueOf(product.category()))
+                                    .imageUrl(product.imageUrl())
+                                    .sku(product.sku())
+                                    .build();
+            entity.setId(product.id());
+            entity.setCreatedAt(createdAt);
+            entity.setUpdatedAt(updatedAt);
+            return entity;
+        }
+    }
+
+    /**
+     * Memory-maps and decodes a snapshot file.
+     *
+     * @throws IOException if the file cannot be read, or is not a valid snapshot of this format version.
+     */
+    public static CatalogSnapshot read(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + TRAILER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Unexpected snapshot size: " + size + " bytes");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a catalog snapshot");
+        }
+        int version = buffer.getInt(4);
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot format version " + version);
+        }
+        int checksummed = buffer.limit() - 8;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, checksummed));
+        if (crc.getValue() != buffer.getLong(checksummed)) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+
+        try {
+            buffer.position(8);
+            LocalDateTime takenAt = fromEpochMillis(buffer.getLong());
+            long generation = buffer.getLong();
+            List<Row> rows = new ArrayList<>();
+            while (buffer.get() == 1) {
+                rows.add(readRow(buffer));
+            }
+            int expected = buffer.getInt();
+            if (expected != rows.size()) {
+                throw new IOException("Snapshot declares " + expected + " rows but holds " + rows.size());
+            }
+            return new CatalogSnapshot(takenAt, generation, rows);
+        } catch (RuntimeException e) {
+            // A valid checksum over a malformed body means a writer bug, but it is still unusable
+            throw new IOException("Malformed snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    private static Row readRow(ByteBuffer buffer) {
+        UUID id = new UUID(buffer.getLong(), buffer.getLong());
+        String name = readString(buffer);
+        String description = readString(buffer);
+        int scale = buffer.getInt();
+        byte[] unscaled = new byte[buffer.get()];
+        buffer.get(unscaled);
+        BigDecimal price = new BigDecimal(new BigInteger(unscaled), scale);
+        int stockQuantity = buffer.getInt();
+        // Fails for a category that no longer exists, which rejects the whole snapshot
+        String category = ProductCategory.valueOf(readString(buffer)).toString();
+        String imageUrl = readString(buffer);
+        String sku = readString(buffer);
+        LocalDateTime createdAt = fromEpochMillis(buffer.getLong());
+        LocalDateTime updatedAt = fromEpochMillis(buffer.getLong());
+        long version = buffer.getLong();
+        return new Row(new ProductResponse(id, name, description, price, stockQuantity, category, imageUrl, sku),
+                       createdAt, updatedAt, version);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time == null ? Long.MIN_VALUE : time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static LocalDateTime fromEpochMillis(long millis) {
+        return millis == Long.MIN_VALUE ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneOffset.UTC);
+    }
+
+    /**
+     * Streams rows into a new snapshot file. Nothing is visible at the target path until
+     * {@link #commit()}; closing an uncommitted writer discards the partial file.
+     */
+    public static final class Writer implements Closeable {
+
+        private final Path target;
+        private final Path temporary;
+        private final CRC32 crc = new CRC32();
+        private final DataOutputStream out;
+        private int count;
+        private boolean committed;
+
+        private Writer(Path target, LocalDateTime takenAt, long generation) throws IOException {
+            this.target = target;
+            this.temporary = target.resolveSibling(target.getFileName() + ".tmp");
+            if (target.getParent() != null) {
+                Files.createDirectories(target.getParent());
+            }
+            this.out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary), BUFFER_SIZE), crc));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(toEpochMillis(takenAt));
+            out.writeLong(generation);
+        }
+
+        /**
+         * Starts a snapshot that will replace the file at {@code target} once committed.
+         */
+        public static Writer open(Path target, LocalDateTime takenAt, long generation) throws IOException {
+            return new Writer(target, takenAt, generation);
+        }
+
+        /**
+         * Appends a product: its ID, name, description, price (scale and unscaled bytes), stock,
+         * category, image URL, SKU, audit timestamps and version. Strings are length-prefixed UTF-8,
+         * with a length of -1 for null.
+         */
+        public void write(Row row) throws IOException {
+            ProductResponse product = row.product();
+            out.writeByte(1);
+            out.writeLong(product.id().getMostSignificantBits());
+            out.writeLong(product.id().getLeastSignificantBits());
+            writeString(product.name());
+            writeString(product.description());
+            byte[] unscaled = product.price().unscaledValue().toByteArray();
+            out.writeInt(product.price().scale());
+            out.writeByte(unscaled.length);
+            out.write(unscaled);
+            out.writeInt(product.stockQuantity());
+            writeString(product.category());
+            writeString(product.imageUrl());
+            writeString(product.sku());
+            out.writeLong(toEpochMillis(row.createdAt()));
+            out.writeLong(toEpochMillis(row.updatedAt()));
+            out.writeLong(row.version());
+            count++;
+        }
+
+        /**
+         * Writes the trailer and atomically moves the file into place.
+         *
+         * @return The number of rows written.
+         */
+        public int commit() throws IOException {
+            out.writeByte(0);
+            out.writeInt(count);
+            // The checksum itself is not part of the checksummed bytes
+            out.writeLong(crc.getValue());
+            out.close();
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                out.close();
+                Files.deleteIfExists(temporary);
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+}
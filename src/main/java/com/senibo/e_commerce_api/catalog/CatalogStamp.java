@@ -0,0 +1,13 @@
+package com.senibo.e_commerce_api.catalog;
+
+import java.time.LocalDateTime;
+
+/**
+ * A summary of the product table that changes with every product write: creating or updating a
+ * product moves the latest write time, and deleting one lowers the count.
+ *
+ * @param lastUpdatedAt The latest {@code updated_at} of any product, or {@code null} if there are none.
+ * @param productCount  The number of products.
+ */
+public record CatalogStamp(LocalDateTime lastUpdatedAt, long productCount) {
+}
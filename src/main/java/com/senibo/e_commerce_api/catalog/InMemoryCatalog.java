@@ -0,0 +1,641 @@
+package com.senibo.e_commerce_api.catalog;
+
+import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.model.product.ProductCategory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * A compact, column-oriented copy of the filterable product attributes.
+ * <p>
+ * Each product is assigned a dense ordinal, and its attributes are stored in parallel primitive
+ * arrays at that position: the category as a byte, the price in minor units (cents) as a long, and
+ * the lower-cased name and SKU, the creation time in epoch milliseconds and the stock quantity.
+ * Aggregates over the catalog can then be computed in a single tight pass over the arrays instead
+ * of a {@code GROUP BY} per request. Per-category totals are maintained incrementally, so the
+ * unfiltered category counts are available without any scan.
+ * <p>
+ * The same columns can answer a whole filtered, sorted and paginated listing: a precomputed sort
+ * permutation per sortable field gives the visiting order, and one pass over it finds both the
+ * page's IDs and the exact total. Permutations are computed lazily and then kept in order as
+ * products are written: a written product is moved to its new position with a binary search and
+ * one array shift, rather than re-sorting the catalog on the next request. Writes of more than
+ * {@link #MAX_SORT_PATCHES} products at once discard the permutations instead.
+ * <p>
+ * Listings are narrowed with compressed {@link OrdinalBitmap}s before sorting: one per category
+ * and one per price bucket, maintained incrementally on every write. A combination of filters
+ * becomes a few bitmap ANDs and ORs, and when the result is selective only its members are sorted
+ * instead of walking the whole permutation. Alternatively, price filters can be answered by a
+ * full scan of the price and category columns with the {@link PriceScanner}.
+ * <p>
+ * The columns are loaded when the application starts and kept current through
+ * {@link ProductsChangedEvent}s. Readers and writers are coordinated by a read/write lock.
+ * <p>
+ * Every write also stamps the row with a new version, which makes a cheap per-product validator
+ * for conditional requests. Versions start from the startup time, so they never repeat across
+ * restarts.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryCatalog {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final ProductCategory[] CATEGORIES = ProductCategory.values();
+
+    /**
+     * The fields {@link #query} can sort by.
+     */
+    public static final Set<String> SORTABLE_FIELDS = Set.of("name", "price", "createdAt", "stockQuantity");
+
+    /**
+     * Price buckets are log-linear: 8 per power of two of the price in minor units, so each bucket
+     * spans at most 12.5% of its lower bound. 488 buckets cover every non-negative long.
+     */
+    private static final int SUB_BUCKETS = 8;
+    private static final int PRICE_BUCKETS = (63 - 2) * SUB_BUCKETS;
+
+    /**
+     * Below this fraction of the catalog, the candidate set is sorted directly instead of walking
+     * the full sort permutation.
+     */
+    private static final int SELECTIVE_DIVISOR = 8;
+
+    /**
+     * Each patched product costs a shift of up to the whole permutation, per cached sort field, so
+     * larger write batches are cheaper to re-sort lazily.
+     */
+    private static final int MAX_SORT_PATCHES = 32;
+
+    // The prices whose minor units are Long.MIN_VALUE and Long.MAX_VALUE
+    private static final BigDecimal MIN_PRICE = BigDecimal.valueOf(Long.MIN_VALUE, 2);
+    private static final BigDecimal MAX_PRICE = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+
+    private final PriceScanner priceScanner;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // --- Columns, guarded by lock ---
+    private UUID[] ids = new UUID[INITIAL_CAPACITY];
+    private byte[] categories = new byte[INITIAL_CAPACITY];
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private String[] names = new String[INITIAL_CAPACITY];
+    private String[] skus = new String[INITIAL_CAPACITY];
+    private long[] versions = new long[INITIAL_CAPACITY];
+    private long[] createdAts = new long[INITIAL_CAPACITY];
+    private int[] stocks = new int[INITIAL_CAPACITY];
+    private long lastVersion = System.currentTimeMillis();
+    private int size;
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final long[] categoryTotals = new long[CATEGORIES.length];
+
+    // Ordinals by category and by price bucket (see priceBucket), guarded by lock
+    private final OrdinalBitmap[] categoryBitmaps = new OrdinalBitmap[CATEGORIES.length];
+    private final OrdinalBitmap[] priceBitmaps = new OrdinalBitmap[PRICE_BUCKETS];
+
+    // Sort permutations by field. Filled under the read lock, patched or cleared under the write lock.
+    private final Map<String, SortOrder> sortOrders = new ConcurrentHashMap<>();
+
+    {
+        for (int i = 0; i < CATEGORIES.length; i++) {
+            categoryBitmaps[i] = new OrdinalBitmap();
+        }
+        for (int i = 0; i < PRICE_BUCKETS; i++) {
+            priceBitmaps[i] = new OrdinalBitmap();
+        }
+    }
+
+    private volatile boolean ready;
+
+    /**
+     * Loads the initial state of the catalog. Called once by the {@link CatalogLoader}.
+     *
+     * @param products         The products, either from the database or from a snapshot.
+     * @param restoredVersions Product versions to carry over from a snapshot, so that validators
+     *                         handed out before a restart stay valid. Other products get a fresh version.
+     */
+    public void load(Collection<Product> products, Map<UUID, Long> restoredVersions) {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            for (Product product : products) {
+                upsert(product);
+                Long restored = restoredVersions.get(product.getId());
+                if (restored != null) {
+                    versions[ordinals.get(product.getId())] = restored;
+                    // Later writes must still move every product past its restored version
+                    lastVersion = Math.max(lastVersion, restored);
+                }
+            }
+            sortOrders.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("In-memory catalog loaded with {} products in {} ms",
+                 products.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Applies product creations and updates to the columns.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            boolean patchSortOrders = event.products().size() <= MAX_SORT_PATCHES;
+            for (Product product : event.products()) {
+                int ordinal = upsert(product);
+                if (patchSortOrders) {
+                    sortOrders.replaceAll((sortBy, sortOrder) -> reposition(sortBy, sortOrder, ordinal));
+                }
+            }
+            if (!patchSortOrders) {
+                sortOrders.clear();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Whether the initial load has completed.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the current version of a product, which changes every time the product is written.
+     *
+     * @return The version, or empty if the catalog is not loaded yet or does not know the product.
+     */
+    public OptionalLong versionOf(UUID productId) {
+        if (!ready) {
+            return OptionalLong.empty();
+        }
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinals.get(productId);
+            return ordinal == null ? OptionalLong.empty() : OptionalLong.of(versions[ordinal]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Converts a price to the minor units (cents) used by the price column. Prices beyond what a
+     * long can hold are clamped to {@link Long#MIN_VALUE} or {@link Long#MAX_VALUE}, which still
+     * compare correctly against every stored price.
+     */
+    public static long toMinorUnits(BigDecimal price) {
+        // Compared before scaling, so that an absurd exponent is never expanded
+        if (price.compareTo(MAX_PRICE) >= 0) {
+            return Long.MAX_VALUE;
+        }
+        if (price.compareTo(MIN_PRICE) <= 0) {
+            return Long.MIN_VALUE;
+        }
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    /**
+     * Converts minor units (cents) back to a price.
+     */
+    public static BigDecimal fromMinorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, 2);
+    }
+
+    /**
+     * Computes category counts and a price histogram for the products matching the filter.
+     * <p>
+     * Facets are disjunctive, as shoppers expect from a sidebar: the category counts ignore the
+     * category filter, and the histogram ignores the price bounds, so that the other options
+     * remain visible once one is selected. Both are computed in the same single pass.
+     *
+     * @param filter         The normalized listing filter.
+     * @param searchMatches  The IDs matching the filter's search term, or {@code null} to match the
+     *                       term against the stored names and SKUs (or if there is no term).
+     * @param priceBoundaries Ascending bucket boundaries in minor units. Bucket {@code i} covers
+     *                       {@code [boundaries[i], boundaries[i + 1])}, and the last is open-ended.
+     * @return The facet counts.
+     */
+    public Facets facets(ProductFilter filter, Collection<UUID> searchMatches, long[] priceBoundaries) {
+        int wantedCategory = filter.category() == null ? -1 : filter.category().ordinal();
+        long minPrice = filter.minPrice() == null ? Long.MIN_VALUE : toMinorUnits(filter.minPrice());
+        long maxPrice = filter.maxPrice() == null ? Long.MAX_VALUE : toMinorUnits(filter.maxPrice());
+        String term = filter.searchTerm();
+
+        long[] categoryCounts = new long[CATEGORIES.length];
+        long[] bucketCounts = new long[priceBoundaries.length];
+        long total = 0;
+
+        lock.readLock().lock();
+        try {
+            if (filter.isEmpty()) {
+                // The unfiltered category counts are maintained incrementally
+                System.arraycopy(categoryTotals, 0, categoryCounts, 0, categoryCounts.length);
+                for (int i = 0; i < size; i++) {
+                    int bucket = bucketOf(prices[i], priceBoundaries);
+                    if (bucket >= 0) {
+                        bucketCounts[bucket]++;
+                    }
+                }
+                return new Facets(size, categoryCounts, bucketCounts);
+            }
+
+            boolean[] searchHits = searchMatches == null ? null : toOrdinalMask(searchMatches);
+
+            for (int i = 0; i < size; i++) {
+                boolean matchesSearch = searchHits != null
+                        ? searchHits[i]
+                        : term == null || names[i].contains(term) || skus[i].contains(term);
+                if (!matchesSearch) {
+                    continue;
+                }
+                long price = prices[i];
+                boolean matchesPrice = price >= minPrice && price <= maxPrice;
+                boolean matchesCategory = wantedCategory < 0 || categories[i] == wantedCategory;
+
+                if (matchesPrice) {
+                    categoryCounts[categories[i]]++;
+                }
+                if (matchesCategory) {
+                    int bucket = bucketOf(price, priceBoundaries);
+                    if (bucket >= 0) {
+                        bucketCounts[bucket]++;
+                    }
+                    if (matchesPrice) {
+                        total++;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return new Facets(total, categoryCounts, bucketCounts);
+    }
+
+    /**
+     * Filters, sorts and paginates the catalog in memory.
+     * <p>
+     * The sort field's permutation is walked in order (or in reverse for a descending sort), and
+     * every product is tested against the filter. Matches inside the requested window are
+     * collected, and all matches are counted, so the total is always exact. Ties are broken by ID.
+     *
+     * @param filter        The normalized listing filter.
+     * @param searchMatches The IDs matching the filter's search term, or {@code null} to match the
+     *                      term against the stored names and SKUs (or if there is no term).
+     * @param sortBy        One of {@link #SORTABLE_FIELDS}.
+     * @param descending    Whether to sort in descending order.
+     * @param offset        The number of matches to skip.
+     * @param limit         The maximum number of IDs to return.
+     * @return The IDs of the requested window, in order, and the total number of matches.
+     */
+    public Slice query(ProductFilter filter, Collection<UUID> searchMatches, String sortBy,
+                       boolean descending, long offset, int limit) {
+        long minPrice = filter.minPrice() == null ? Long.MIN_VALUE : toMinorUnits(filter.minPrice());
+        long maxPrice = filter.maxPrice() == null ? Long.MAX_VALUE : toMinorUnits(filter.maxPrice());
+        // A term the search index could not resolve is matched against the names and SKUs
+        String term = searchMatches == null ? filter.searchTerm() : null;
+
+        lock.readLock().lock();
+        try {
+            SortOrder sortOrder = sortOrder(sortBy);
+
+            // Narrow down with bitmaps; null means every product is a candidate
+            OrdinalBitmap candidates = null;
+            boolean exactPrice = true;
+            boolean hasPriceFilter = filter.minPrice() != null || filter.maxPrice() != null;
+            if (hasPriceFilter && priceScanner.isEnabled()) {
+                // The scan checks the category too, and its result is exact
+                int category = filter.category() == null ? -1 : filter.category().ordinal();
+                candidates = priceScanner.scan(prices, categories, size, minPrice, maxPrice, category);
+            } else {
+                if (filter.category() != null) {
+                    candidates = categoryBitmaps[filter.category().ordinal()];
+                }
+                if (hasPriceFilter) {
+                    int low = priceBucket(Math.max(0, minPrice));
+                    int high = priceBucket(Math.max(0, maxPrice));
+                    candidates = intersect(candidates, priceRange(low, high));
+                    // The edge buckets may hold prices outside the bounds
+                    exactPrice = (filter.minPrice() == null || minPrice == bucketLowerBound(low))
+                            && (filter.maxPrice() == null || maxPrice == bucketLowerBound(high + 1) - 1);
+                }
+            }
+            if (searchMatches != null) {
+                candidates = intersect(candidates, toOrdinalBitmap(searchMatches));
+            }
+
+            boolean needsCheck = !exactPrice || term != null;
+            List<UUID> page = new ArrayList<>(limit);
+            long total;
+
+            if (candidates != null && candidates.cardinality() * SELECTIVE_DIVISOR < size) {
+                // Selective: sort only the candidates, by their rank in the permutation
+                int[] ranks = new int[candidates.cardinality()];
+                int[] count = {0};
+                long finalMin = minPrice;
+                long finalMax = maxPrice;
+                candidates.forEach(i -> {
+                    if (!needsCheck || matchesResidual(i, finalMin, finalMax, term)) {
+                        ranks[count[0]++] = sortOrder.rank()[i];
+                    }
+                });
+                Arrays.sort(ranks, 0, count[0]);
+                total = count[0];
+                for (long position = offset; position < total && page.size() < limit; position++) {
+                    int rank = ranks[(int) (descending ? total - 1 - position : position)];
+                    page.add(ids[sortOrder.order()[rank]]);
+                }
+            } else {
+                // Dense or unfiltered: walk the permutation and test membership
+                total = 0;
+                int[] order = sortOrder.order();
+                for (int position = 0; position < size; position++) {
+                    int i = order[descending ? size - 1 - position : position];
+                    if (candidates != null && !candidates.contains(i)) {
+                        continue;
+                    }
+                    if (needsCheck && !matchesResidual(i, minPrice, maxPrice, term)) {
+                        continue;
+                    }
+                    if (total >= offset && page.size() < limit) {
+                        page.add(ids[i]);
+                    }
+                    total++;
+                }
+            }
+            return new Slice(page, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Whether {@link #query} can sort by the given field.
+     */
+    public static boolean supportsSort(String sortBy) {
+        return SORTABLE_FIELDS.contains(sortBy);
+    }
+
+    /**
+     * One window of a listing, and the total number of matches.
+     */
+    public record Slice(List<UUID> ids, long total) {
+    }
+
+    /**
+     * The raw facet counts, indexed by category ordinal and by price bucket.
+     */
+    public record Facets(long total, long[] categoryCounts, long[] bucketCounts) {
+    }
+
+    /**
+     * Returns the ascending permutation for a field, computing it if a write discarded it.
+     * Must be called with the read lock held, which keeps the columns stable while sorting.
+     */
+    private SortOrder sortOrder(String sortBy) {
+        SortOrder cached = sortOrders.get(sortBy);
+        if (cached != null) {
+            return cached;
+        }
+        if (!SORTABLE_FIELDS.contains(sortBy)) {
+            throw new IllegalArgumentException("Unsupported sort field: " + sortBy);
+        }
+        int[] order = IntStream.range(0, size)
+                               .boxed()
+                               .sorted((a, b) -> compare(sortBy, a, b))
+                               .mapToInt(Integer::intValue)
+                               .toArray();
+        int[] rank = new int[size];
+        for (int position = 0; position < size; position++) {
+            rank[order[position]] = position;
+        }
+        SortOrder sortOrder = new SortOrder(order, rank);
+        sortOrders.put(sortBy, sortOrder);
+        return sortOrder;
+    }
+
+    /**
+     * Moves a product that was just written to its new position in a permutation, appending it if
+     * it is new. Must be called with the write lock held.
+     *
+     * @return The patched permutation: the same one for an update, a longer copy for a new product.
+     */
+    private SortOrder reposition(String sortBy, SortOrder sortOrder, int ordinal) {
+        int[] order = sortOrder.order();
+        int[] rank = sortOrder.rank();
+        boolean added = ordinal >= order.length;
+        // The product's old position, or the end for a new product, so that it is left out of the search
+        int from = added ? order.length : rank[ordinal];
+        if (added) {
+            order = Arrays.copyOf(order, size);
+            rank = Arrays.copyOf(rank, size);
+        }
+
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int other = order[middle < from ? middle : middle + 1];
+            if (compare(sortBy, other, ordinal) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        int to = low;
+
+        if (to < from) {
+            System.arraycopy(order, to, order, to + 1, from - to);
+        } else if (to > from) {
+            System.arraycopy(order, from + 1, order, from, to - from);
+        }
+        order[to] = ordinal;
+        for (int position = Math.min(from, to); position <= Math.max(from, to); position++) {
+            rank[order[position]] = position;
+        }
+        return added ? new SortOrder(order, rank) : sortOrder;
+    }
+
+    /**
+     * Compares two products by a sort field, breaking ties by ID so that every order is total.
+     * <p>
+     * This is the order the database returns for the same sort with its ID tie-breaker. Names
+     * compare case-insensitively, as under MySQL's default {@code utf8mb4_0900_ai_ci} collation;
+     * that collation also ignores accents, so names that differ only in accented letters may
+     * still come out in a different order. IDs compare as the unsigned bytes of their
+     * {@code BINARY(16)} column rather than by {@link UUID#compareTo}, which is signed.
+     */
+    private int compare(String sortBy, int a, int b) {
+        int byField = switch (sortBy) {
+            case "name" -> names[a].compareTo(names[b]);
+            case "price" -> Long.compare(prices[a], prices[b]);
+            case "createdAt" -> Long.compare(createdAts[a], createdAts[b]);
+            case "stockQuantity" -> Integer.compare(stocks[a], stocks[b]);
+            default -> throw new IllegalArgumentException("Unsupported sort field: " + sortBy);
+        };
+        if (byField != 0) {
+            return byField;
+        }
+        int byHighBits = Long.compareUnsigned(ids[a].getMostSignificantBits(), ids[b].getMostSignificantBits());
+        return byHighBits != 0
+                ? byHighBits
+                : Long.compareUnsigned(ids[a].getLeastSignificantBits(), ids[b].getLeastSignificantBits());
+    }
+
+    /**
+     * A sort permutation ({@code order[position] = ordinal}) and its inverse ({@code rank[ordinal] = position}).
+     */
+    private record SortOrder(int[] order, int[] rank) {
+    }
+
+    private boolean matchesResidual(int i, long minPrice, long maxPrice, String term) {
+        return prices[i] >= minPrice && prices[i] <= maxPrice
+                && (term == null || names[i].contains(term) || skus[i].contains(term));
+    }
+
+    private static OrdinalBitmap intersect(OrdinalBitmap current, OrdinalBitmap next) {
+        return current == null ? next : OrdinalBitmap.and(current, next);
+    }
+
+    // Must be called with the read lock held
+    private OrdinalBitmap priceRange(int lowBucket, int highBucket) {
+        OrdinalBitmap range = new OrdinalBitmap();
+        for (int bucket = lowBucket; bucket <= highBucket; bucket++) {
+            range.orInPlace(priceBitmaps[bucket]);
+        }
+        return range;
+    }
+
+    // Must be called with the read lock held
+    private OrdinalBitmap toOrdinalBitmap(Collection<UUID> productIds) {
+        OrdinalBitmap bitmap = new OrdinalBitmap();
+        for (UUID id : productIds) {
+            Integer ordinal = ordinals.get(id);
+            if (ordinal != null) {
+                bitmap.add(ordinal);
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * Maps a non-negative price in minor units to its log-linear bucket. Monotonic in the price.
+     */
+    static int priceBucket(long minorUnits) {
+        if (minorUnits < SUB_BUCKETS) {
+            return (int) minorUnits;
+        }
+        int highestBit = 63 - Long.numberOfLeadingZeros(minorUnits);
+        int subBucket = (int) (minorUnits >>> (highestBit - 3)) & (SUB_BUCKETS - 1);
+        return (highestBit - 2) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the smallest price in minor units that falls into the bucket.
+     */
+    static long bucketLowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        if (bucket >= PRICE_BUCKETS) {
+            return Long.MAX_VALUE; // Past the last bucket; only used as an exclusive upper bound
+        }
+        int highestBit = bucket / SUB_BUCKETS + 2;
+        long subBucket = bucket % SUB_BUCKETS;
+        return (SUB_BUCKETS + subBucket) << (highestBit - 3);
+    }
+
+    // Must be called with the read lock held
+    private boolean[] toOrdinalMask(Collection<UUID> productIds) {
+        boolean[] mask = new boolean[size];
+        for (UUID id : productIds) {
+            Integer ordinal = ordinals.get(id);
+            if (ordinal != null) {
+                mask[ordinal] = true;
+            }
+        }
+        return mask;
+    }
+
+    private static int bucketOf(long price, long[] boundaries) {
+        int index = Arrays.binarySearch(boundaries, price);
+        // An exact hit on a boundary opens that bucket; otherwise take the bucket below the insertion point
+        return index >= 0 ? index : -index - 2;
+    }
+
+    /**
+     * Writes a product's columns and bitmaps. Must be called with the write lock held.
+     *
+     * @return The product's ordinal.
+     */
+    private int upsert(Product product) {
+        Integer existing = ordinals.get(product.getId());
+        int ordinal;
+        if (existing != null) {
+            ordinal = existing;
+            categoryTotals[categories[ordinal]]--;
+            categoryBitmaps[categories[ordinal]].remove(ordinal);
+            priceBitmaps[priceBucket(prices[ordinal])].remove(ordinal);
+        } else {
+            ordinal = size++;
+            ensureCapacity(size);
+            ordinals.put(product.getId(), ordinal);
+            ids[ordinal] = product.getId();
+        }
+
+        categories[ordinal] = (byte) product.getCategory().ordinal();
+        prices[ordinal] = toMinorUnits(product.getPrice());
+        names[ordinal] = product.getName().toLowerCase(Locale.ROOT);
+        skus[ordinal] = product.getSku().toLowerCase(Locale.ROOT);
+        versions[ordinal] = ++lastVersion;
+        createdAts[ordinal] = product.getCreatedAt() == null
+                ? 0
+                : toEpochMicros(product.getCreatedAt());
+        stocks[ordinal] = product.getStockQuantity();
+        categoryTotals[categories[ordinal]]++;
+        categoryBitmaps[categories[ordinal]].add(ordinal);
+        priceBitmaps[priceBucket(prices[ordinal])].add(ordinal);
+        return ordinal;
+    }
+
+    // The created_at column keeps microseconds, so times that tie to the millisecond still order as they do there
+    private static long toEpochMicros(LocalDateTime dateTime) {
+        Instant instant = dateTime.toInstant(ZoneOffset.UTC);
+        return instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        categories = Arrays.copyOf(categories, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        names = Arrays.copyOf(names, capacity);
+        skus = Arrays.copyOf(skus, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        createdAts = Arrays.copyOf(createdAts, capacity);
+        stocks = Arrays.copyOf(stocks, capacity);
+    }
+}
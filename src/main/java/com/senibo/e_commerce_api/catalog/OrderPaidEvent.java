@@ -0,0 +1,16 @@
+package com.senibo.e_commerce_api.catalog;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Published when an order is confirmed as paid, once per order.
+ * <p>
+ * Listeners that aggregate sales should only act after the publishing transaction has committed,
+ * so that a rolled-back payment confirmation is never counted.
+ *
+ * @param orderId The order that was paid.
+ * @param sales   One entry per order item.
+ */
+public record OrderPaidEvent(UUID orderId, List<ProductSale> sales) {
+}
@@ -0,0 +1,32 @@
+package com.senibo.e_commerce_api.catalog;
+
+/**
+ * Tests a range of the catalog's price and category columns against a filter and records the
+ * matches in a bitset.
+ * <p>
+ * Implementations only read the columns and only write the mask words covering their range, so
+ * ranges that start on a multiple of 64 can be scanned concurrently into the same mask.
+ */
+interface PriceScanKernel {
+
+    /**
+     * Scans the ordinals {@code [from, to)}.
+     *
+     * @param prices     The price column, in minor units.
+     * @param categories The category column, as category ordinals.
+     * @param from       The first ordinal to scan.
+     * @param to         The ordinal after the last one to scan.
+     * @param minPrice   The inclusive lower price bound, in minor units.
+     * @param maxPrice   The inclusive upper price bound, in minor units.
+     * @param category   The wanted category ordinal, or -1 for any category.
+     * @param mask       The bitset to set the bits of matching ordinals in.
+     * @return The number of matches in the range.
+     */
+    int scan(long[] prices, byte[] categories, int from, int to,
+             long minPrice, long maxPrice, int category, long[] mask);
+
+    /**
+     * A short name for logging.
+     */
+    String name();
+}
@@ -0,0 +1,162 @@
+package com.senibo.e_commerce_api.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * An experimental full-scan path for price and category filters over the in-memory catalog.
+ * <p>
+ * Instead of OR-ing price bucket bitmaps and re-checking the edge buckets, the whole price and
+ * category columns are compared against the bounds with a {@link PriceScanKernel}, which yields
+ * an exact match mask. Large catalogs are split into chunks of {@link #CHUNK_SIZE} products that
+ * are scanned in parallel on a dedicated {@link ForkJoinPool}.
+ * <p>
+ * The mode is chosen with {@code spring.app.catalog-engine.price-scan}: {@code bitmap} (the default)
+ * leaves the scan off, {@code scalar} uses plain loops, and {@code vector} uses the SIMD kernel. The
+ * vector kernel is only compiled by the {@code vector} Maven profile, and needs the JVM to be started
+ * with {@code --add-modules jdk.incubator.vector}; without either the scanner falls back to the
+ * scalar kernel and logs a warning.
+ */
+@Component
+@Slf4j
+public class PriceScanner implements DisposableBean {
+
+    /**
+     * Products per parallel task. A multiple of 64, so that no two tasks share a mask word.
+     */
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private final PriceScanKernel kernel;
+    private final int parallelThreshold;
+    private final ForkJoinPool pool;
+
+    public PriceScanner(
+            @Value("${spring.app.catalog-engine.price-scan:bitmap}") String mode,
+            @Value("${spring.app.catalog-engine.parallel-scan-threshold:262144}") int parallelThreshold,
+            @Value("${spring.app.catalog-engine.scan-parallelism:0}") int parallelism) {
+        this.kernel = switch (mode) {
+            case "bitmap" -> null;
+            case "scalar" -> ScalarPriceScanKernel.INSTANCE;
+            case "vector" -> loadVectorKernel();
+            default -> throw new IllegalArgumentException(
+                    "Unknown spring.app.catalog-engine.price-scan mode: " + mode);
+        };
+        this.parallelThreshold = parallelThreshold;
+        this.pool = kernel == null
+                ? null
+                : new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        if (kernel != null) {
+            log.info("Price scans use the {} kernel with parallelism {}", kernel.name(), pool.getParallelism());
+        }
+    }
+
+    /**
+     * Whether price filters should be answered by scanning instead of with the bucket bitmaps.
+     */
+    public boolean isEnabled() {
+        return kernel != null;
+    }
+
+    /**
+     * Finds the products whose price is within the bounds and, optionally, in a category.
+     * <p>
+     * The caller must keep the columns stable for the duration of the scan, e.g. by holding a
+     * read lock.
+     *
+     * @param prices     The price column, in minor units.
+     * @param categories The category column, as category ordinals.
+     * @param size       The number of products in the columns.
+     * @param minPrice   The inclusive lower price bound, in minor units.
+     * @param maxPrice   The inclusive upper price bound, in minor units.
+     * @param category   The wanted category ordinal, or -1 for any category.
+     * @return The ordinals of the matching products.
+     */
+    public OrdinalBitmap scan(long[] prices, byte[] categories, int size,
+                              long minPrice, long maxPrice, int category) {
+        if (kernel == null) {
+            throw new IllegalStateException("Price scans are disabled");
+        }
+        long[] mask = new long[(size + 63) >>> 6];
+        if (size < parallelThreshold) {
+            kernel.scan(prices, categories, 0, size, minPrice, maxPrice, category, mask);
+        } else {
+            pool.invoke(new ScanTask(prices, categories, 0, size, minPrice, maxPrice, category, mask));
+        }
+        return OrdinalBitmap.fromWords(mask);
+    }
+
+    @Override
+    public void destroy() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private static PriceScanKernel loadVectorKernel() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            log.warn("The {} module is not available (start the JVM with --add-modules {}); "
+                             + "falling back to the scalar price scan", VECTOR_MODULE, VECTOR_MODULE);
+            return ScalarPriceScanKernel.INSTANCE;
+        }
+        // Loaded by name so that this class never links against the incubator module
+        try {
+            return (PriceScanKernel) Class.forName(PriceScanner.class.getPackageName() + ".VectorPriceScanKernel")
+                                          .getDeclaredConstructor()
+                                          .newInstance();
+        } catch (ClassNotFoundException e) {
+            log.warn("The vector price scan kernel is not part of this build (build with -Pvector); "
+                             + "falling back to the scalar price scan");
+            return ScalarPriceScanKernel.INSTANCE;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("Could not load the vector price scan kernel; falling back to the scalar one", e);
+            return ScalarPriceScanKernel.INSTANCE;
+        }
+    }
+
+    /**
+     * Splits a range in halves, on chunk boundaries, until it is at most one chunk long.
+     */
+    private class ScanTask extends RecursiveAction {
+
+        private final long[] prices;
+        private final byte[] categories;
+        private final int from;
+        private final int to;
+        private final long minPrice;
+        private final long maxPrice;
+        private final int category;
+        private final long[] mask;
+
+        ScanTask(long[] prices, byte[] categories, int from, int to,
+                 long minPrice, long maxPrice, int category, long[] mask) {
+            this.prices = prices;
+            this.categories = categories;
+            this.from = from;
+            this.to = to;
+            this.minPrice = minPrice;
+            this.maxPrice = maxPrice;
+            this.category = category;
+            this.mask = mask;
+        }
+
+        @Override
+        protected void compute() {
+            int chunks = (to - from + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            if (chunks <= 1) {
+                kernel.scan(prices, categories, from, to, minPrice, maxPrice, category, mask);
+                return;
+            }
+            int middle = from + chunks / 2 * CHUNK_SIZE;
+            ScanTask left = new ScanTask(prices, categories, from, middle, minPrice, maxPrice, category, mask);
+            ScanTask right = new ScanTask(prices, categories, middle, to, minPrice, maxPrice, category, mask);
+            invokeAll(left, right);
+        }
+    }
+}
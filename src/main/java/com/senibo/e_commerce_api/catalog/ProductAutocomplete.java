@@ -0,0 +1,411 @@
+package com.senibo.e_commerce_api.catalog;
+
+import com.senibo.e_commerce_api.dto.product.ProductSuggestion;
+import com.senibo.e_commerce_api.model.product.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Typeahead completions over product names and SKUs, backed by an in-memory compressed prefix
+ * (radix) trie.
+ * <p>
+ * Each product is indexed under its lower-cased SKU, its full name and every suffix of its name
+ * that starts a word, so "wal" completes "Classic Leather Wallet". Every trie node stores the
+ * top-k products of its subtree, ranked by {@link ProductPopularity}, so a lookup is a walk down
+ * the typed prefix followed by reading one precomputed list: O(prefix length + k), independent of
+ * the catalog size.
+ * <p>
+ * The trie is built when the application starts and updated in place on
+ * {@link ProductsChangedEvent}s. Since popularity keeps changing between writes, the whole trie is
+ * periodically rebuilt off to the side and swapped in, which re-ranks every node. Writes are not
+ * held up by a rebuild: those that happen while it runs are replayed onto the new trie before the
+ * swap.
+ */
+@Component
+@Slf4j
+public class ProductAutocomplete {
+
+    private final ProductPopularity productPopularity;
+    private final int maxSuggestions;
+
+    // Serializes writers (events and swaps); readers only take the read lock
+    private final Object writeMonitor = new Object();
+    private final Object rebuildLock = new Object();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Replaced and mutated under the write lock; read under the read lock
+    private Trie trie;
+    private volatile boolean ready;
+
+    // Writes received while a rebuild is running; guarded by writeMonitor, null when idle
+    private List<Entry> pendingWrites;
+
+    public ProductAutocomplete(ProductPopularity productPopularity,
+                               @Value("${spring.app.autocomplete.max-suggestions:10}") int maxSuggestions) {
+        this.productPopularity = productPopularity;
+        this.maxSuggestions = maxSuggestions;
+        this.trie = new Trie(new HashMap<>(), maxSuggestions);
+    }
+
+    /**
+     * Builds the initial trie from the given products. Called once by the {@link CatalogLoader}.
+     */
+    public void load(Collection<Product> products) {
+        synchronized (rebuildLock) {
+            long start = System.nanoTime();
+            synchronized (writeMonitor) {
+                pendingWrites = new ArrayList<>();
+            }
+            Map<UUID, Entry> entries = new HashMap<>();
+            for (Product product : products) {
+                entries.put(product.getId(), toEntry(product));
+            }
+            int size = install(entries);
+            ready = true;
+            log.info("Autocomplete trie built with {} products in {} ms",
+                     size, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Applies product creations and updates to the live trie.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        synchronized (writeMonitor) {
+            lock.writeLock().lock();
+            try {
+                for (Product product : event.products()) {
+                    Entry entry = toEntry(product);
+                    trie.put(entry);
+                    if (pendingWrites != null) {
+                        pendingWrites.add(entry);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the trie with the current popularity weights, so that ranking follows demand.
+     * Completions keep being served from, and writes keep being applied to, the previous trie
+     * while the rebuild runs.
+     */
+    @Scheduled(fixedDelayString = "${spring.app.autocomplete.rebuild-interval-ms:300000}",
+            initialDelayString = "${spring.app.autocomplete.rebuild-interval-ms:300000}")
+    public void refreshRanking() {
+        if (!ready) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            long start = System.nanoTime();
+            Map<UUID, Entry> entries;
+            synchronized (writeMonitor) {
+                // Writers hold writeMonitor, so the live entries can be copied without the lock
+                entries = new HashMap<>(trie.entries);
+                pendingWrites = new ArrayList<>();
+            }
+            entries.replaceAll((id, entry) -> entry.withWeight(productPopularity.viewsOf(id)));
+            int size = install(entries);
+            log.debug("Autocomplete trie re-ranked {} products in {} ms",
+                      size, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Returns the most popular products whose SKU, name or a word of the name starts with the prefix.
+     *
+     * @param prefix The typed text. Matching is case-insensitive.
+     * @param limit  The maximum number of suggestions, capped at the configured maximum.
+     * @return The suggestions, most popular first. Empty for a blank prefix.
+     */
+    public List<ProductSuggestion> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            UUID[] top = trie.top(key);
+            int count = Math.min(Math.min(limit, maxSuggestions), top.length);
+            List<ProductSuggestion> suggestions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Entry entry = trie.entries.get(top[i]);
+                suggestions.add(new ProductSuggestion(entry.id(), entry.name(), entry.sku()));
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Builds a trie over the entries off to the side, replays the writes buffered since the
+     * rebuild started, then swaps it in. Must be called holding rebuildLock, after opening
+     * {@code pendingWrites}, and without holding writeMonitor.
+     *
+     * @return The number of products in the new trie.
+     */
+    private int install(Map<UUID, Entry> entries) {
+        Trie fresh = new Trie(entries, maxSuggestions);
+        try {
+            for (Entry entry : entries.values()) {
+                entry.keys().forEach(key -> fresh.insert(key, entry.id()));
+            }
+        } catch (RuntimeException e) {
+            synchronized (writeMonitor) {
+                pendingWrites = null;
+            }
+            throw e;
+        }
+
+        synchronized (writeMonitor) {
+            pendingWrites.forEach(fresh::put);
+            pendingWrites = null;
+            lock.writeLock().lock();
+            try {
+                trie = fresh;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return fresh.entries.size();
+        }
+    }
+
+    private Entry toEntry(Product product) {
+        String name = product.getName();
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add(normalize(product.getSku()));
+        String lowerName = normalize(name);
+        keys.add(lowerName);
+        for (int i = 1; i < lowerName.length(); i++) {
+            if (Character.isWhitespace(lowerName.charAt(i - 1)) && !Character.isWhitespace(lowerName.charAt(i))) {
+                keys.add(lowerName.substring(i));
+            }
+        }
+        return new Entry(product.getId(), name, product.getSku(), List.copyOf(keys),
+                         productPopularity.viewsOf(product.getId()));
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * An indexed product: its display values, the keys it is indexed under and its ranking weight.
+     */
+    private record Entry(UUID id, String name, String sku, List<String> keys, long weight) {
+
+        Entry withWeight(long newWeight) {
+            return new Entry(id, name, sku, keys, newWeight);
+        }
+    }
+
+    /**
+     * A radix trie whose nodes each hold the top-k product IDs of their subtree.
+     * Not thread-safe; guarded by the enclosing lock.
+     */
+    private static final class Trie {
+
+        private static final UUID[] NONE = new UUID[0];
+
+        private final Map<UUID, Entry> entries;
+        private final int k;
+        private final Comparator<UUID> ranking;
+        private final Node root = new Node("");
+
+        Trie(Map<UUID, Entry> entries, int k) {
+            this.entries = entries;
+            this.k = k;
+            // Most popular first, then shorter names, then the ID for a stable order
+            this.ranking = Comparator.<UUID>comparingLong(id -> -entries.get(id).weight())
+                                     .thenComparingInt(id -> entries.get(id).name().length())
+                                     .thenComparing(Comparator.naturalOrder());
+        }
+
+        /**
+         * Indexes a product, replacing its previous keys if it was already indexed.
+         */
+        void put(Entry entry) {
+            Entry previous = entries.get(entry.id());
+            if (previous != null) {
+                // Unindex with the previous entry still in place, since ranking reads it
+                previous.keys().forEach(key -> remove(key, previous.id()));
+            }
+            entries.put(entry.id(), entry);
+            entry.keys().forEach(key -> insert(key, entry.id()));
+        }
+
+        UUID[] top(String prefix) {
+            Node node = root;
+            int i = 0;
+            while (i < prefix.length()) {
+                Node child = node.children.get(prefix.charAt(i));
+                if (child == null) {
+                    return NONE;
+                }
+                int common = commonPrefixLength(child.label, prefix, i);
+                if (i + common == prefix.length()) {
+                    return child.top; // The prefix ends on, or part-way along, this edge
+                }
+                if (common < child.label.length()) {
+                    return NONE;
+                }
+                node = child;
+                i += common;
+            }
+            return node.top;
+        }
+
+        void insert(String key, UUID id) {
+            if (key.isEmpty()) {
+                return;
+            }
+            List<Node> path = new ArrayList<>();
+            path.add(root);
+            Node node = root;
+            int i = 0;
+            while (i < key.length()) {
+                Node child = node.children.get(key.charAt(i));
+                if (child == null) {
+                    child = new Node(key.substring(i));
+                    node.children.put(child.label.charAt(0), child);
+                    i = key.length();
+                } else {
+                    int common = commonPrefixLength(child.label, key, i);
+                    if (common < child.label.length()) {
+                        child = split(node, child, common);
+                    }
+                    i += common;
+                }
+                node = child;
+                path.add(node);
+            }
+            node.terminals.add(id);
+            for (Node onPath : path) {
+                offer(onPath, id);
+            }
+        }
+
+        void remove(String key, UUID id) {
+            List<Node> path = new ArrayList<>();
+            path.add(root);
+            Node node = root;
+            int i = 0;
+            while (i < key.length()) {
+                Node child = node.children.get(key.charAt(i));
+                if (child == null || !key.startsWith(child.label, i)) {
+                    return;
+                }
+                node = child;
+                path.add(node);
+                i += child.label.length();
+            }
+            if (!node.terminals.remove(id)) {
+                return;
+            }
+
+            // Bottom-up: re-rank the nodes that listed the product, and drop or merge emptied nodes
+            for (int depth = path.size() - 1; depth >= 0; depth--) {
+                Node current = path.get(depth);
+                if (depth > 0 && current.terminals.isEmpty()) {
+                    Node parent = path.get(depth - 1);
+                    if (current.children.isEmpty()) {
+                        parent.children.remove(current.label.charAt(0));
+                        continue;
+                    }
+                    if (current.children.size() == 1) {
+                        Node only = current.children.values().iterator().next();
+                        only.label = current.label + only.label;
+                        parent.children.put(only.label.charAt(0), only);
+                        continue;
+                    }
+                }
+                if (contains(current.top, id)) {
+                    recompute(current);
+                }
+            }
+        }
+
+        /**
+         * Splits {@code child} after its first {@code at} characters, returning the new middle node.
+         */
+        private Node split(Node parent, Node child, int at) {
+            Node middle = new Node(child.label.substring(0, at));
+            child.label = child.label.substring(at);
+            middle.children.put(child.label.charAt(0), child);
+            middle.top = child.top.clone();
+            parent.children.put(middle.label.charAt(0), middle);
+            return middle;
+        }
+
+        /**
+         * Adds a product to a node's top-k if it ranks high enough.
+         */
+        private void offer(Node node, UUID id) {
+            UUID[] top = node.top;
+            if (contains(top, id)) {
+                Arrays.sort(top, ranking);
+                return;
+            }
+            if (top.length == k && ranking.compare(id, top[k - 1]) >= 0) {
+                return;
+            }
+            UUID[] updated = Arrays.copyOf(top, Math.min(top.length + 1, k));
+            updated[updated.length - 1] = id;
+            Arrays.sort(updated, ranking);
+            node.top = updated;
+        }
+
+        /**
+         * Rebuilds a node's top-k from its own terminals and its children's top-k lists.
+         */
+        private void recompute(Node node) {
+            Set<UUID> candidates = new HashSet<>(node.terminals);
+            for (Node child : node.children.values()) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            node.top = candidates.stream().sorted(ranking).limit(k).toArray(UUID[]::new);
+        }
+
+        private static boolean contains(UUID[] ids, UUID id) {
+            for (UUID candidate : ids) {
+                if (candidate.equals(id)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static int commonPrefixLength(String label, String key, int offset) {
+            int max = Math.min(label.length(), key.length() - offset);
+            int i = 0;
+            while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+                i++;
+            }
+            return i;
+        }
+    }
+
+    private static final class Node {
+        private String label;
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final Set<UUID> terminals = new HashSet<>(2);
+        private UUID[] top = Trie.NONE;
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+}
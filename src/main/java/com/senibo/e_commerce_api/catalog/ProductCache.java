@@ -0,0 +1,242 @@
+package com.senibo.e_commerce_api.catalog;
+
+import com.senibo.e_commerce_api.dto.product.ProductCacheStats;
+import com.senibo.e_commerce_api.dto.product.ProductResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A bounded, in-process cache of {@link ProductResponse} objects keyed by product ID.
+ * <p>
+ * Entries are evicted when they exceed their time-to-live or when the cache is full, in which case
+ * the least recently used entry goes first. The cache is split into independently locked segments
+ * so that concurrent readers of different products do not contend on a single lock.
+ * Writes made through {@link #put(ProductResponse)} and {@link #invalidate(UUID)} are applied
+ * synchronously, and a load that raced with such a write is never allowed to overwrite it.
+ */
+@Component
+@Slf4j
+public class ProductCache {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment[] segments;
+    private final long ttlNanos;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ProductCache(
+            @Value("${spring.app.product-cache.max-size:10000}") int maxSize,
+            @Value("${spring.app.product-cache.ttl-seconds:600}") long ttlSeconds
+    ) {
+        int segmentCapacity = Math.max(1, maxSize / SEGMENT_COUNT);
+        this.segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        log.info("Product cache initialised with max size {} and TTL {}s", maxSize, ttlSeconds);
+    }
+
+    /**
+     * Returns the cached product for the given ID, loading and caching it on a miss.
+     *
+     * @param id     The ID of the product.
+     * @param loader Loads the product from the database. Any exception it throws is propagated.
+     * @return The cached or freshly loaded product.
+     */
+    public ProductResponse get(UUID id, Function<UUID, ProductResponse> loader) {
+        Segment segment = segmentFor(id);
+        ProductResponse cached = segment.get(id);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        misses.increment();
+        long version = segment.version();
+        ProductResponse loaded = loader.apply(id);
+        segment.putIfUnchanged(loaded, version);
+        return loaded;
+    }
+
+    /**
+     * Returns the cached products for the given IDs, loading all of the misses with one call.
+     * <p>
+     * As with {@link #get(UUID, Function)}, a loaded product is only cached if no write touched
+     * its segment while the batch was loading.
+     *
+     * @param ids    The IDs of the products. Duplicates are looked up once.
+     * @param loader Loads the missing products from the database; IDs it does not return are absent.
+     * @return The products found, by ID.
+     */
+    public Map<UUID, ProductResponse> getAll(Collection<UUID> ids,
+                                             Function<Collection<UUID>, List<ProductResponse>> loader) {
+        Map<UUID, ProductResponse> found = new HashMap<>();
+        // The version of each missing product's segment, read before loading
+        Map<UUID, Long> missing = new LinkedHashMap<>();
+        for (UUID id : ids) {
+            if (found.containsKey(id) || missing.containsKey(id)) {
+                continue;
+            }
+            Segment segment = segmentFor(id);
+            ProductResponse cached = segment.get(id);
+            if (cached != null) {
+                hits.increment();
+                found.put(id, cached);
+            } else {
+                misses.increment();
+                missing.put(id, segment.version());
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (ProductResponse loaded : loader.apply(missing.keySet())) {
+                Long version = missing.get(loaded.id());
+                if (version != null) {
+                    segmentFor(loaded.id()).putIfUnchanged(loaded, version);
+                    found.put(loaded.id(), loaded);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the cached product for the given ID without loading it, or {@code null} on a miss.
+     */
+    public ProductResponse getIfPresent(UUID id) {
+        ProductResponse cached = segmentFor(id).get(id);
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return cached;
+    }
+
+    /**
+     * Stores the latest state of a product, replacing any cached copy.
+     * Used by write paths so that a subsequent read sees the write immediately.
+     */
+    public void put(ProductResponse product) {
+        segmentFor(product.id()).put(product);
+    }
+
+    /**
+     * Removes a product from the cache so that the next read goes to the database.
+     */
+    public void invalidate(UUID id) {
+        segmentFor(id).remove(id);
+    }
+
+    /**
+     * Removes every entry from the cache.
+     */
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Returns a point-in-time snapshot of the cache's size and hit/miss/eviction counters.
+     */
+    public ProductCacheStats stats() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        double hitRate = requests == 0 ? 0.0 : (double) hitCount / requests;
+        return new ProductCacheStats(size, hitCount, missCount, evictions.sum(), hitRate);
+    }
+
+    private Segment segmentFor(UUID id) {
+        int hash = id.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[(hash & 0x7fffffff) % SEGMENT_COUNT];
+    }
+
+    private record Entry(ProductResponse value, long expiresAt) {
+    }
+
+    /**
+     * An access-ordered LRU map guarded by its own monitor. The version counter is bumped
+     * on every explicit write so that in-flight loads can detect they have been superseded.
+     */
+    private final class Segment {
+
+        private final LinkedHashMap<UUID, Entry> map;
+        private long version;
+
+        Segment(int capacity) {
+            this.map = new LinkedHashMap<>(capacity, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized ProductResponse get(UUID id) {
+            Entry entry = map.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt() - System.nanoTime() <= 0) {
+                map.remove(id);
+                evictions.increment();
+                return null;
+            }
+            return entry.value();
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        synchronized void put(ProductResponse product) {
+            version++;
+            map.put(product.id(), newEntry(product));
+        }
+
+        synchronized void putIfUnchanged(ProductResponse product, long expectedVersion) {
+            if (version == expectedVersion) {
+                map.put(product.id(), newEntry(product));
+            }
+        }
+
+        synchronized void remove(UUID id) {
+            version++;
+            map.remove(id);
+        }
+
+        synchronized void clear() {
+            version++;
+            map.clear();
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+
+        private Entry newEntry(ProductResponse product) {
+            return new Entry(product, System.nanoTime() + ttlNanos);
+        }
+    }
+}
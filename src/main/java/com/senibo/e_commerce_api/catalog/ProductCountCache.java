@@ -0,0 +1,117 @@
+package com.senibo.e_commerce_api.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches the total number of products matching each {@link ProductFilter}.
+ * <p>
+ * Entries are tagged with the {@link CatalogGeneration} at which they were counted. An entry from
+ * the current generation is exact. An entry from an older generation can still be served as an
+ * estimate for a bounded time, because the catalog has changed by at most a handful of writes since.
+ */
+@Component
+@Slf4j
+public class ProductCountCache {
+
+    private final Map<ProductFilter, Entry> entries = new ConcurrentHashMap<>();
+    private final CatalogGeneration catalogGeneration;
+    private final int maxEntries;
+    private final long estimateMaxAgeNanos;
+
+    public ProductCountCache(
+            CatalogGeneration catalogGeneration,
+            @Value("${spring.app.count-cache.max-entries:5000}") int maxEntries,
+            @Value("${spring.app.count-cache.estimate-max-age-seconds:300}") long estimateMaxAgeSeconds
+    ) {
+        this.catalogGeneration = catalogGeneration;
+        this.maxEntries = maxEntries;
+        this.estimateMaxAgeNanos = TimeUnit.SECONDS.toNanos(estimateMaxAgeSeconds);
+    }
+
+    /**
+     * A cached count and whether it is exact for the current catalog.
+     */
+    public record Count(long value, boolean exact) {
+    }
+
+    /**
+     * Returns the exact count for the filter, running the counter only if the cached count is
+     * missing or from an older generation.
+     *
+     * @param filter  The normalized filter.
+     * @param counter Counts the matching products in the database.
+     * @return The exact count.
+     */
+    public long getExact(ProductFilter filter, LongSupplier counter) {
+        long generation = catalogGeneration.current();
+        Entry entry = entries.get(filter);
+        if (entry != null && entry.generation() == generation) {
+            return entry.count();
+        }
+        return count(filter, counter, generation);
+    }
+
+    /**
+     * Returns the cached count for the filter even if the catalog has changed since, as long as it
+     * is recent enough. Falls back to an exact count when nothing usable is cached.
+     *
+     * @param filter  The normalized filter.
+     * @param counter Counts the matching products in the database.
+     * @return The count, flagged as exact or estimated.
+     */
+    public Count getEstimate(ProductFilter filter, LongSupplier counter) {
+        long generation = catalogGeneration.current();
+        Entry entry = entries.get(filter);
+        if (entry != null) {
+            if (entry.generation() == generation) {
+                return new Count(entry.count(), true);
+            }
+            if (System.nanoTime() - entry.countedAt() < estimateMaxAgeNanos) {
+                return new Count(entry.count(), false);
+            }
+        }
+        return new Count(count(filter, counter, generation), true);
+    }
+
+    /**
+     * Records a count that was learned without a count query, e.g. from a short last page.
+     *
+     * @param generation The generation read before the page was fetched.
+     */
+    public void record(ProductFilter filter, long count, long generation) {
+        store(filter, count, generation);
+    }
+
+    private long count(ProductFilter filter, LongSupplier counter, long generation) {
+        long count = counter.getAsLong();
+        store(filter, count, generation);
+        return count;
+    }
+
+    private void store(ProductFilter filter, long count, long generation) {
+        if (entries.size() >= maxEntries) {
+            long current = catalogGeneration.current();
+            entries.values().removeIf(entry -> entry.generation() != current);
+            if (entries.size() >= maxEntries) {
+                log.debug("Product count cache full with {} entries; clearing it", entries.size());
+                entries.clear();
+            }
+        }
+        // A write that landed while counting leaves the entry tagged with the older generation
+        entries.merge(filter,
+                      new Entry(count, generation, System.nanoTime()),
+                      (existing, fresh) -> fresh.generation() >= existing.generation()
+                              ? fresh
+                              : existing);
+    }
+
+    private record Entry(long count, long generation, long countedAt) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.senibo.e_commerce_api.catalog;
+
+import com.senibo.e_commerce_api.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds strong ETags for the public product endpoints, so that a conditional GET can be answered
+ * with {@code 304 Not Modified} before any listing query runs or any JSON is serialized.
+ * <p>
+ * The tags are derived from the database, so every node hands out the same tag for the same data.
+ * A single product is tagged with its {@code updated_at}, read by primary key, so it stays
+ * cacheable while other products change. Listing-style responses (pages, facets) are derived from
+ * the whole catalog and are tagged with the latest {@code updated_at} of any product and the
+ * number of products, which together move with every create, update and delete. Since an ETag is
+ * scoped to its URL, the query parameters need not be part of it.
+ * <p>
+ * The catalog tag costs an aggregate query, so it is kept for a short time-to-live
+ * ({@code spring.app.product-etags.catalog-ttl-ms}) and dropped as soon as this node writes a
+ * product. A write made on another node can therefore take up to that long to change the tag here.
+ * <p>
+ * Tags must be computed <em>before</em> the response is built: the body is then at least as new as
+ * its tag, and a write that races the request can only cause one extra full response. Tags can be
+ * turned off with {@code spring.app.product-etags.enabled}, in which case every request is served
+ * normally.
+ */
+@Component
+public class ProductETags {
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final long catalogTtlNanos;
+
+    private volatile CachedTag catalogTag;
+
+    public ProductETags(ProductRepository productRepository,
+                        @Value("${spring.app.product-etags.enabled:true}") boolean enabled,
+                        @Value("${spring.app.product-etags.catalog-ttl-ms:1000}") long catalogTtlMs) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.catalogTtlNanos = TimeUnit.MILLISECONDS.toNanos(catalogTtlMs);
+    }
+
+    /**
+     * Returns the ETag of any response derived from the catalog as a whole.
+     *
+     * @return The ETag, or empty if tags are disabled, in which case the request must be served normally.
+     */
+    public Optional<String> forCatalog() {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        long now = System.nanoTime();
+        CachedTag cached = catalogTag;
+        if (cached == null || cached.expiresAt() - now <= 0) {
+            CatalogStamp stamp = productRepository.findCatalogStamp();
+            long lastUpdatedAt = stamp.lastUpdatedAt() == null ? 0 : toEpochMicros(stamp.lastUpdatedAt());
+            cached = new CachedTag("\"catalog-" + lastUpdatedAt + "-" + stamp.productCount() + "\"",
+                                   now + catalogTtlNanos);
+            catalogTag = cached;
+        }
+        return Optional.of(cached.tag());
+    }
+
+    /**
+     * Returns the ETag of a single product.
+     *
+     * @return The ETag, or empty if tags are disabled or the product does not exist, in which case
+     * the request must be served normally.
+     */
+    public Optional<String> forProduct(UUID productId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return productRepository.findUpdatedAtById(productId)
+                                .map(updatedAt -> "\"product-" + productId + "-" + toEpochMicros(updatedAt) + "\"");
+    }
+
+    /**
+     * Drops the cached catalog tag, so that a write made on this node changes the tag at once.
+     */
+    @EventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        catalogTag = null;
+    }
+
+    // updated_at keeps microseconds, so two writes in the same millisecond still get different tags
+    private static long toEpochMicros(LocalDateTime dateTime) {
+        Instant instant = dateTime.toInstant(ZoneOffset.UTC);
+        return instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000;
+    }
+
+    private record CachedTag(String tag, long expiresAt) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.senibo.e_commerce_api.catalog;
+
+import com.senibo.e_commerce_api.model.product.ProductCategory;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * The normalized form of the filters accepted by the product listing.
+ * <p>
+ * Two requests that select the same products produce equal filters, regardless of the case or
+ * surrounding whitespace of the search term, or the scale of the price bounds. That makes it
+ * suitable as a cache key for anything computed from a filtered listing.
+ *
+ * @param searchTerm The lower-cased, trimmed search term, or {@code null}.
+ * @param category   The category, or {@code null}.
+ * @param minPrice   The minimum price without trailing zeros, or {@code null}.
+ * @param maxPrice   The maximum price without trailing zeros, or {@code null}.
+ */
+public record ProductFilter(
+        String searchTerm,
+        ProductCategory category,
+        BigDecimal minPrice,
+        BigDecimal maxPrice
+) {
+
+    public static ProductFilter of(Optional<String> searchTerm,
+                                   Optional<ProductCategory> category,
+                                   Optional<BigDecimal> minPrice,
+                                   Optional<BigDecimal> maxPrice) {
+        return new ProductFilter(
+                searchTerm.map(term -> term.trim().toLowerCase(Locale.ROOT))
+                          .filter(term -> !term.isEmpty())
+                          .orElse(null),
+                category.orElse(null),
+                minPrice.map(BigDecimal::stripTrailingZeros).orElse(null),
+                maxPrice.map(BigDecimal::stripTrailingZeros).orElse(null)
+        );
+    }
+
+    /**
+     * Whether no filter at all is applied.
+     */
+    public boolean isEmpty() {
+        return searchTerm == null && category == null && minPrice == null && maxPrice == null;
+    }
+}
@@ -0,0 +1,193 @@
+package com.senibo.e_commerce_api.catalog;
+
+import com.senibo.e_commerce_api.dto.CountMode;
+import com.senibo.e_commerce_api.dto.PagedResult;
+import com.senibo.e_commerce_api.dto.product.ProductResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Caches whole product listing pages, keyed by the normalized query that produced them.
+ * <p>
+ * Entries are tagged with the {@link CatalogGeneration} read before the page was computed, and are
+ * only served while the generation is unchanged, so any product write invalidates every page at
+ * once without touching them. Stale pages are dropped lazily when they are next looked up, or
+ * evicted as the cache fills.
+ * <p>
+ * The generation only moves for writes made on this node, so every page also expires after a
+ * fixed time to live, as in {@link ProductCache}. When several nodes share the database, this bounds
+ * how long a page can miss a write made on another node.
+ * <p>
+ * The cache is bounded by an estimate of the memory its pages hold rather than by their number,
+ * since a page of 100 products costs far more than a page of 10. Like {@link ProductCache} it is
+ * split into independently locked segments, each with its own share of the byte budget and its
+ * own least-recently-used eviction order. LRU rather than LFU is used because every page is
+ * invalidated together on each write. Frequency counts would be reset that often, so they would
+ * not outlive the pages they describe, while recency needs no extra state.
+ */
+@Component
+@Slf4j
+public class ProductListingCache {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    // Rough per-object sizes on a 64-bit JVM with compressed pointers
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+    private static final int PRODUCT_OVERHEAD_BYTES = 112;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+
+    private final CatalogGeneration catalogGeneration;
+    private final boolean enabled;
+    private final long ttlNanos;
+    private final Segment[] segments;
+
+    public ProductListingCache(
+            CatalogGeneration catalogGeneration,
+            @Value("${spring.app.listing-cache.enabled:true}") boolean enabled,
+            @Value("${spring.app.listing-cache.max-bytes:33554432}") long maxBytes,
+            @Value("${spring.app.listing-cache.ttl-seconds:30}") long ttlSeconds
+    ) {
+        this.catalogGeneration = catalogGeneration;
+        this.enabled = enabled && maxBytes > 0 && ttlSeconds > 0;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(Math.max(1, maxBytes / SEGMENT_COUNT));
+        }
+        if (this.enabled) {
+            log.info("Product listing cache initialised with a budget of {} bytes and TTL {}s", maxBytes, ttlSeconds);
+        }
+    }
+
+    /**
+     * The normalized listing query a page was computed for.
+     *
+     * @param filter     The normalized filters.
+     * @param page       The validated page number.
+     * @param pageSize   The validated page size.
+     * @param sortBy     The sort actually applied, after any fallback from relevance.
+     * @param descending Whether the sort is descending. Always {@code false} for relevance.
+     * @param countMode  How the total was computed.
+     */
+    public record Key(ProductFilter filter, int page, int pageSize, String sortBy,
+                      boolean descending, CountMode countMode) {
+    }
+
+    /**
+     * Returns the cached page for the query, computing and caching it if it is missing, has
+     * expired, or was computed for an older catalog generation.
+     * <p>
+     * A page is not cached if the catalog changed while it was being computed, nor if its total is
+     * only an estimate, since an estimate is only acceptable for a bounded time.
+     *
+     * @param key    The normalized query.
+     * @param loader Computes the page. Any exception it throws is propagated.
+     * @return The cached or freshly computed page.
+     */
+    public PagedResult<ProductResponse> get(Key key, Supplier<PagedResult<ProductResponse>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        long generation = catalogGeneration.current();
+        Segment segment = segmentFor(key);
+        PagedResult<ProductResponse> cached = segment.get(key, generation);
+        if (cached != null) {
+            return cached;
+        }
+
+        PagedResult<ProductResponse> loaded = loader.get();
+        if (!Boolean.FALSE.equals(loaded.totalCountExact()) && catalogGeneration.current() == generation) {
+            segment.put(key, new Entry(loaded, generation, System.nanoTime() + ttlNanos, estimateBytes(key, loaded)));
+        }
+        return loaded;
+    }
+
+    private Segment segmentFor(Key key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[(hash & 0x7fffffff) % SEGMENT_COUNT];
+    }
+
+    private static long estimateBytes(Key key, PagedResult<ProductResponse> page) {
+        long bytes = ENTRY_OVERHEAD_BYTES + estimateBytes(key.sortBy());
+        if (key.filter().searchTerm() != null) {
+            bytes += estimateBytes(key.filter().searchTerm());
+        }
+        for (ProductResponse product : page.items()) {
+            bytes += PRODUCT_OVERHEAD_BYTES
+                    + estimateBytes(product.name())
+                    + estimateBytes(product.description())
+                    + estimateBytes(product.category())
+                    + estimateBytes(product.imageUrl())
+                    + estimateBytes(product.sku());
+        }
+        return bytes;
+    }
+
+    // Assumes two bytes per character, so that non-Latin-1 text is not undercounted
+    private static long estimateBytes(String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + 2L * value.length();
+    }
+
+    private record Entry(PagedResult<ProductResponse> page, long generation, long expiresAt, long bytes) {
+    }
+
+    /**
+     * An access-ordered LRU map guarded by its own monitor, holding at most {@code maxBytes} of
+     * estimated page memory.
+     */
+    private static final class Segment {
+
+        private final LinkedHashMap<Key, Entry> map = new LinkedHashMap<>(16, 0.75f, true);
+        private final long maxBytes;
+        private long bytes;
+
+        Segment(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized PagedResult<ProductResponse> get(Key key, long generation) {
+            Entry entry = map.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.generation() != generation || entry.expiresAt() - System.nanoTime() <= 0) {
+                remove(key);
+                return null;
+            }
+            return entry.page();
+        }
+
+        synchronized void put(Key key, Entry entry) {
+            if (entry.bytes() > maxBytes) {
+                return;
+            }
+            Entry previous = map.get(key);
+            if (previous != null && previous.generation() > entry.generation()) {
+                return;
+            }
+            remove(key);
+            map.put(key, entry);
+            bytes += entry.bytes();
+
+            Iterator<Entry> eldest = map.values().iterator();
+            while (bytes > maxBytes) {
+                bytes -= eldest.next().bytes();
+                eldest.remove();
+            }
+        }
+
+        private void remove(Key key) {
+            Entry removed = map.remove(key);
+            if (removed != null) {
+                bytes -= removed.bytes();
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.senibo.e_commerce_api.catalog;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts how often each product's detail page is viewed, as a popularity signal for ranking.
+ * <p>
+ * Counts live in memory only and start from zero on every restart; they are meant for relative
+ * ordering, not for reporting.
+ */
+@Component
+public class ProductPopularity {
+
+    private final Map<UUID, LongAdder> views = new ConcurrentHashMap<>();
+
+    /**
+     * Records one view of a product.
+     */
+    public void recordView(UUID productId) {
+        views.computeIfAbsent(productId, id -> new LongAdder()).increment();
+    }
+
+    /**
+     * Returns the number of recorded views of a product.
+     */
+    public long viewsOf(UUID productId) {
+        LongAdder adder = views.get(productId);
+        return adder == null ? 0 : adder.sum();
+    }
+}
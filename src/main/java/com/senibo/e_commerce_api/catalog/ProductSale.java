@@ -0,0 +1,19 @@
+package com.senibo.e_commerce_api.catalog;
+
+import com.senibo.e_commerce_api.model.product.ProductCategory;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Units of one product sold in a paid order.
+ *
+ * @param orderId   The paid order.
+ * @param productId The product sold.
+ * @param category  The product's category at the time of the sale.
+ * @param quantity  The number of units.
+ * @param soldAt    When the order was paid, in the local time used by the audit timestamps.
+ */
+public record ProductSale(UUID orderId, UUID productId, ProductCategory category, int quantity,
+                          LocalDateTime soldAt) {
+}
@@ -0,0 +1,250 @@
+package com.senibo.e_commerce_api.catalog;
+
+import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * An in-memory trigram inverted index over product names and SKUs.
+ * <p>
+ * Every lower-cased name and SKU is broken into overlapping 3-character grams, and each gram maps
+ * to the set of products containing it. A search intersects the posting sets of the term's grams,
+ * verifies each candidate really contains the term, and ranks the matches by relevance. This
+ * answers the same question as a {@code LIKE '%term%'} scan without touching every row.
+ * <p>
+ * The index is loaded when the application starts, kept current through
+ * {@link ProductsChangedEvent}s, and can be rebuilt online: writes that happen during a rebuild
+ * are replayed onto the new index before it is swapped in.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchIndex {
+
+    /**
+     * Terms shorter than this have no trigrams and must be answered by the database.
+     */
+    public static final int MIN_TERM_LENGTH = 3;
+
+    private final ProductRepository productRepository;
+
+    private final Object writeLock = new Object();
+    private final Object rebuildLock = new Object();
+
+    private volatile Index index = new Index();
+    private volatile boolean ready;
+
+    // Writes received while a rebuild is running; guarded by writeLock, null when idle
+    private List<Product> pendingWrites;
+
+    /**
+     * Builds the initial index from the given products. Called once by the {@link CatalogLoader}.
+     *
+     * @return The number of products in the index.
+     */
+    public int load(Collection<Product> products) {
+        return rebuild(() -> products);
+    }
+
+    /**
+     * Applies product creations and updates to the live index.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        synchronized (writeLock) {
+            for (Product product : event.products()) {
+                index.put(product);
+            }
+            if (pendingWrites != null) {
+                pendingWrites.addAll(event.products());
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the index from the database and atomically swaps it in.
+     * Searches keep being served from the previous index while the rebuild runs.
+     *
+     * @return The number of products in the new index.
+     */
+    public int rebuild() {
+        return rebuild(productRepository::findAll);
+    }
+
+    private int rebuild(Supplier<? extends Collection<Product>> source) {
+        synchronized (rebuildLock) {
+            long start = System.nanoTime();
+            synchronized (writeLock) {
+                pendingWrites = new ArrayList<>();
+            }
+
+            Index fresh = new Index();
+            try {
+                source.get().forEach(fresh::put);
+            } catch (RuntimeException e) {
+                synchronized (writeLock) {
+                    pendingWrites = null;
+                }
+                throw e;
+            }
+
+            synchronized (writeLock) {
+                pendingWrites.forEach(fresh::put);
+                pendingWrites = null;
+                index = fresh;
+                ready = true;
+            }
+
+            log.info("Product search index built with {} products in {} ms",
+                     fresh.size(), (System.nanoTime() - start) / 1_000_000);
+            return fresh.size();
+        }
+    }
+
+    /**
+     * Whether the index can answer a search for the given term.
+     * Returns {@code false} before the first build completes and for terms that are too short.
+     */
+    public boolean supports(String searchTerm) {
+        return ready && normalize(searchTerm).length() >= MIN_TERM_LENGTH;
+    }
+
+    /**
+     * Finds every product whose name or SKU contains the term, case-insensitively.
+     *
+     * @param searchTerm The term to search for. Must be {@linkplain #supports(String) supported}.
+     * @return The IDs of matching products, most relevant first.
+     */
+    public List<UUID> search(String searchTerm) {
+        return index.search(normalize(searchTerm));
+    }
+
+    private static String normalize(String term) {
+        return term == null ? "" : term.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + MIN_TERM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + MIN_TERM_LENGTH));
+        }
+        return grams;
+    }
+
+    /**
+     * The indexed, lower-cased text of one product.
+     */
+    private record Document(UUID id, String name, String sku) {
+
+        Set<String> grams() {
+            Set<String> grams = trigrams(name);
+            grams.addAll(trigrams(sku));
+            return grams;
+        }
+
+        boolean contains(String term) {
+            return name.contains(term) || sku.contains(term);
+        }
+
+        /**
+         * Lower is better: exact matches first, then prefixes, then word starts, then any substring.
+         */
+        int rank(String term) {
+            if (name.equals(term)) return 0;
+            if (sku.equals(term)) return 1;
+            if (name.startsWith(term)) return 2;
+            if (sku.startsWith(term)) return 3;
+            if (name.contains(" " + term)) return 4;
+            return 5;
+        }
+    }
+
+    /**
+     * The posting lists and documents. Concurrent maps let searches run while a write is applied;
+     * a search that overlaps a write still verifies every candidate against its current document.
+     */
+    private static final class Index {
+
+        private final Map<String, Set<UUID>> postings = new ConcurrentHashMap<>();
+        private final Map<UUID, Document> documents = new ConcurrentHashMap<>();
+
+        void put(Product product) {
+            Document document = new Document(product.getId(),
+                                             normalize(product.getName()),
+                                             normalize(product.getSku()));
+            Set<String> grams = document.grams();
+            for (String gram : grams) {
+                postings.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet())
+                        .add(document.id());
+            }
+
+            Document previous = documents.put(document.id(), document);
+            if (previous != null) {
+                for (String gram : previous.grams()) {
+                    if (!grams.contains(gram)) {
+                        removePosting(gram, document.id());
+                    }
+                }
+            }
+        }
+
+        private void removePosting(String gram, UUID id) {
+            postings.computeIfPresent(gram, (g, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+
+        List<UUID> search(String term) {
+            List<Set<UUID>> lists = new ArrayList<>();
+            for (String gram : trigrams(term)) {
+                Set<UUID> ids = postings.get(gram);
+                if (ids == null) {
+                    return List.of();
+                }
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+
+            List<Document> matches = new ArrayList<>();
+            Set<UUID> smallest = lists.get(0);
+            for (UUID id : smallest) {
+                if (!containedInAll(id, lists)) {
+                    continue;
+                }
+                Document document = documents.get(id);
+                if (document != null && document.contains(term)) {
+                    matches.add(document);
+                }
+            }
+
+            matches.sort(Comparator.<Document>comparingInt(d -> d.rank(term))
+                                   .thenComparingInt(d -> d.name().length())
+                                   .thenComparing(Document::name));
+            return matches.stream().map(Document::id).toList();
+        }
+
+        private static boolean containedInAll(UUID id, List<Set<UUID>> lists) {
+            for (int i = 1; i < lists.size(); i++) {
+                if (!lists.get(i).contains(id)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int size() {
+            return documents.size();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.senibo.e_commerce_api.catalog;
+
+import com.senibo.e_commerce_api.model.product.Product;
+
+import java.util.List;
+
+/**
+ * Published after one or more products have been created or updated.
+ * <p>
+ * In-memory read models of the catalog (search index, caches, aggregates) listen for this event
+ * to keep themselves in sync with the database. It is published synchronously on the writing
+ * thread, so listeners have been applied by the time the write returns to the caller.
+ *
+ * @param products The saved state of every product touched by the write.
+ */
+public record ProductsChangedEvent(List<Product> products) {
+
+    public static ProductsChangedEvent of(Product product) {
+        return new ProductsChangedEvent(List.of(product));
+    }
+}
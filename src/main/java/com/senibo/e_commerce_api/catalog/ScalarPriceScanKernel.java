@@ -0,0 +1,32 @@
+package com.senibo.e_commerce_api.catalog;
+
+/**
+ * The portable {@link PriceScanKernel}: one comparison per product, which the JIT may or may not
+ * auto-vectorize. Also used for the tail of a range that does not fill a whole vector.
+ */
+final class ScalarPriceScanKernel implements PriceScanKernel {
+
+    static final ScalarPriceScanKernel INSTANCE = new ScalarPriceScanKernel();
+
+    private ScalarPriceScanKernel() {
+    }
+
+    @Override
+    public int scan(long[] prices, byte[] categories, int from, int to,
+                    long minPrice, long maxPrice, int category, long[] mask) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            long price = prices[i];
+            if (price >= minPrice && price <= maxPrice && (category < 0 || categories[i] == category)) {
+                mask[i >>> 6] |= 1L << i;
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
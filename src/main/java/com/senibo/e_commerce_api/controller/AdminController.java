@@ -1,19 +1,29 @@
 package com.senibo.e_commerce_api.controller;
 
 import com.senibo.e_commerce_api.dto.ApiSuccessResponse;
+import com.senibo.e_commerce_api.dto.product.BulkProductUpdateRequest;
+import com.senibo.e_commerce_api.dto.product.BulkProductUpdateResult;
 import com.senibo.e_commerce_api.dto.product.CreateProductRequest;
+import com.senibo.e_commerce_api.dto.product.ProductCacheStats;
+import com.senibo.e_commerce_api.dto.product.ProductImportResult;
 import com.senibo.e_commerce_api.dto.product.ProductResponse;
 import com.senibo.e_commerce_api.dto.product.UpdateProductRequest;
+import com.senibo.e_commerce_api.service.ProductExportService;
+import com.senibo.e_commerce_api.service.ProductImportService;
 import com.senibo.e_commerce_api.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.util.UUID;
 
 @RestController
@@ -24,6 +34,8 @@ import java.util.UUID;
 public class AdminController {
 
     private final ProductService productService;
+    private final ProductImportService productImportService;
+    private final ProductExportService productExportService;
 
     @Operation(summary = "Create a new product",
             description = "Adds a new product to the catalog. Requires ADMIN role.")
@@ -40,6 +52,35 @@ public class AdminController {
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Bulk import products",
+            description = "Creates products from an NDJSON (application/x-ndjson) or CSV " +
+                    "(text/csv, with a header row) upload. The body is streamed and imported in " +
+                    "chunks; invalid or duplicate rows are skipped and reported by line number. " +
+                    "Requires ADMIN role.")
+    @PostMapping(value = "/products/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<ApiSuccessResponse<ProductImportResult>> importProducts(
+            HttpServletRequest request
+    ) throws IOException {
+        // Read the raw stream so the upload is never buffered or bound as a whole
+        var response = productImportService.importProducts(request.getInputStream(),
+                                                           request.getContentType());
+
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Export the whole catalog",
+            description = "Streams every product as NDJSON (one JSON object per line), in a " +
+                    "single response with constant memory use. Intended for search-engine and " +
+                    "marketplace feeds. Requires ADMIN role.")
+    @GetMapping(value = "/products/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = productExportService::exportProducts;
+
+        return ResponseEntity.ok()
+                             .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                             .body(body);
+    }
+
     @Operation(summary = "Update a product",
             description = "Updates an already existing product in the catalog. Requires ADMIN " +
                     "role.")
@@ -55,4 +96,43 @@ public class AdminController {
 
         return ResponseEntity.ok(response);
     }
+
+    @Operation(summary = "Bulk update prices and stock",
+            description = "Applies price and/or stock changes to up to 5000 products, each " +
+                    "identified by id or sku, as batched updates. Returns a result per item; " +
+                    "unknown products are reported rather than failing the batch. Requires ADMIN " +
+                    "role.")
+    @PatchMapping("/products")
+    public ResponseEntity<ApiSuccessResponse<BulkProductUpdateResult>> bulkUpdateProducts(
+            @Valid
+            @RequestBody BulkProductUpdateRequest bulkProductUpdateRequest
+    ) {
+        var response = productService.bulkUpdateProducts(bulkProductUpdateRequest);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Get product cache statistics",
+            description = "Returns the size and hit/miss/eviction counters of the product cache. " +
+                    "Requires ADMIN role.")
+    @GetMapping("/products/cache-stats")
+    public ResponseEntity<ApiSuccessResponse<ProductCacheStats>> getProductCacheStats() {
+        return ResponseEntity.ok(productService.getCacheStats());
+    }
+
+    @Operation(summary = "Rebuild the product search index",
+            description = "Rebuilds the in-memory name/SKU search index from the database while " +
+                    "searches continue to be served. Requires ADMIN role.")
+    @PostMapping("/products/search-index/rebuild")
+    public ResponseEntity<ApiSuccessResponse<Integer>> rebuildSearchIndex() {
+        return ResponseEntity.ok(productService.rebuildSearchIndex());
+    }
+
+    @Operation(summary = "Rebuild the bestseller ranking",
+            description = "Recomputes the in-memory bestseller counts from the paid orders of the " +
+                    "last 30 days. Requires ADMIN role.")
+    @PostMapping("/products/bestsellers/rebuild")
+    public ResponseEntity<ApiSuccessResponse<Integer>> rebuildBestsellers() {
+        return ResponseEntity.ok(productService.rebuildBestsellers());
+    }
 }
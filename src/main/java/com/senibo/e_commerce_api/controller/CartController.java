@@ -2,17 +2,21 @@ package com.senibo.e_commerce_api.controller;
 
 import com.senibo.e_commerce_api.dto.ApiSuccessResponse;
 import com.senibo.e_commerce_api.dto.cart.AddItemToCartRequest;
+import com.senibo.e_commerce_api.dto.cart.AddItemsToCartRequest;
 import com.senibo.e_commerce_api.dto.cart.CartResponse;
+import com.senibo.e_commerce_api.exception.general.PreconditionFailedException;
 import com.senibo.e_commerce_api.security.services.UserDetailsImpl;
 import com.senibo.e_commerce_api.service.CartService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -21,6 +25,9 @@ import java.util.UUID;
 @Tag(name = "cart-controller", description = "Endpoints for managing the user's shopping cart.")
 public class CartController {
 
+    // Responses carry the cart version as an ETag; a mutation sent with If-Match only applies if
+    // the cart is still at that version, and fails with 412 Precondition Failed otherwise.
+
     private final CartService cartService;
 
     @Operation(summary = "Add an item to the current user's cart",
@@ -28,10 +35,12 @@ public class CartController {
     @PostMapping("/items")
     public ResponseEntity<ApiSuccessResponse<CartResponse>> addItemToCart(
             @Valid @RequestBody AddItemToCartRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal UserDetailsImpl userDetails
     ) {
         // 1. Call the service with the current user's ID and the request data
-        CartResponse updatedCart = cartService.addItemToCart(userDetails.getId(), request);
+        CartResponse updatedCart = cartService.addItemToCart(userDetails.getId(), request,
+                                                             expectedVersion(ifMatch));
 
         // 2. Wrap the result in your standard success response
         ApiSuccessResponse<CartResponse> response = new ApiSuccessResponse<>(
@@ -40,8 +49,30 @@ public class CartController {
                 updatedCart
         );
 
-        // 3. Return the final ResponseEntity
-        return ResponseEntity.ok(response);
+        // 3. Return the final ResponseEntity, tagged with the cart version
+        return withETag(response);
+    }
+
+    @Operation(summary = "Add several items to the current user's cart",
+            description = "Adds each product to the cart or updates its quantity if it already exists. " +
+                    "All products are checked before anything changes, so either every item is " +
+                    "added or none is.")
+    @PostMapping("/items/batch")
+    public ResponseEntity<ApiSuccessResponse<CartResponse>> addItemsToCart(
+            @Valid @RequestBody AddItemsToCartRequest request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal UserDetailsImpl userDetails
+    ) {
+        CartResponse updatedCart = cartService.addItemsToCart(userDetails.getId(), request,
+                                                              expectedVersion(ifMatch));
+
+        ApiSuccessResponse<CartResponse> response = new ApiSuccessResponse<>(
+                true,
+                "Items added to cart successfully",
+                updatedCart
+        );
+
+        return withETag(response);
     }
 
     @Operation(summary = "Get the current user's cart")
@@ -57,7 +88,7 @@ public class CartController {
                 cart
         );
 
-        return ResponseEntity.ok(response);
+        return withETag(response);
     }
 
 
@@ -65,9 +96,11 @@ public class CartController {
     @DeleteMapping("/items/{itemId}")
     public ResponseEntity<ApiSuccessResponse<CartResponse>> removeItemFromCart(
             @PathVariable UUID itemId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal UserDetailsImpl userDetails
     ) {
-        CartResponse updatedCart = cartService.removeItemFromCart(userDetails.getId(), itemId);
+        CartResponse updatedCart = cartService.removeItemFromCart(userDetails.getId(), itemId,
+                                                                  expectedVersion(ifMatch));
 
         ApiSuccessResponse<CartResponse> response = new ApiSuccessResponse<>(
                 true,
@@ -75,6 +108,38 @@ public class CartController {
                 updatedCart
         );
 
-        return ResponseEntity.ok(response);
+        return withETag(response);
+    }
+
+    private static ResponseEntity<ApiSuccessResponse<CartResponse>> withETag(
+            ApiSuccessResponse<CartResponse> response
+    ) {
+        Long version = response.data().version();
+        if (version == null) {
+            return ResponseEntity.ok(response);
+        }
+        return ResponseEntity.ok().eTag("\"" + version + "\"").body(response);
+    }
+
+    /**
+     * Reads the cart version from an If-Match header such as {@code "3"} or {@code W/"3"}.
+     * A missing header or {@code *} means the change is unconditional.
+     */
+    private static Optional<Long> expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return Optional.empty();
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Optional.of(Long.parseLong(tag));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not name a cart version: " + ifMatch);
+        }
     }
 }
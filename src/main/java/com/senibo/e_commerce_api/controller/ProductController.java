@@ -1,8 +1,15 @@
 package com.senibo.e_commerce_api.controller;
 
+import com.senibo.e_commerce_api.catalog.ProductETags;
 import com.senibo.e_commerce_api.dto.ApiSuccessResponse;
+import com.senibo.e_commerce_api.dto.CountMode;
 import com.senibo.e_commerce_api.dto.PagedResult;
+import com.senibo.e_commerce_api.dto.product.BestsellerResponse;
+import com.senibo.e_commerce_api.dto.product.BestsellerWindow;
+import com.senibo.e_commerce_api.dto.product.ProductBatchResponse;
+import com.senibo.e_commerce_api.dto.product.ProductFacetsResponse;
 import com.senibo.e_commerce_api.dto.product.ProductResponse;
+import com.senibo.e_commerce_api.dto.product.ProductSuggestion;
 import com.senibo.e_commerce_api.model.product.ProductCategory;
 import com.senibo.e_commerce_api.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,8 +19,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -24,8 +33,17 @@ import java.util.UUID;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductETags productETags;
 
-    @Operation(summary = "Get all products with filtering, pagination, and sorting")
+    @Operation(summary = "Get all products with filtering, pagination, and sorting",
+            description = "Supports two pagination modes. By default pages are addressed by " +
+                    "number and the response includes totals. When the `cursor` parameter is " +
+                    "present (empty for the first page), keyset pagination is used instead: the " +
+                    "response returns `next_cursor` and omits totals, and every page costs the " +
+                    "same regardless of how deep it is. In cursor mode `page` is ignored and " +
+                    "sortBy must be name, price or createdAt. Responses carry an ETag that " +
+                    "changes whenever the catalog does; send it back as If-None-Match to get " +
+                    "304 Not Modified instead of the full page.")
     @GetMapping
     public ResponseEntity<ApiSuccessResponse<PagedResult<ProductResponse>>> getAllProducts(
             // Pagination Parameters
@@ -38,8 +56,8 @@ public class ProductController {
             int pageSize,
 
             // Sorting Parameters
-            @Parameter(description = "Field to sort by",
-                    schema = @Schema(allowableValues = {"name", "price", "createdAt"}))
+            @Parameter(description = "Field to sort by. 'relevance' ranks matches of searchTerm",
+                    schema = @Schema(allowableValues = {"name", "price", "createdAt", "relevance"}))
             @RequestParam(defaultValue = "createdAt")
             String sortBy,
 
@@ -64,24 +82,179 @@ public class ProductController {
 
             @Parameter(description = "Filter by maximum price (inclusive)")
             @RequestParam(required = false)
-            BigDecimal maxPrice
+            BigDecimal maxPrice,
+
+            // --- Keyset Pagination ---
+
+            @Parameter(description = "Cursor returned as `next_cursor` by the previous page. " +
+                    "Pass an empty value to start cursor pagination from the first page.")
+            @RequestParam(required = false)
+            String cursor,
+
+            // --- Total Count ---
+
+            @Parameter(description = "How total_count is computed: `exact` (cached until the " +
+                    "catalog changes), `estimate` (may be a few minutes out of date, flagged by " +
+                    "total_count_exact) or `none`. Ignored in cursor mode.",
+                    schema = @Schema(allowableValues = {"exact", "estimate", "none"}))
+            @RequestParam(defaultValue = "exact")
+            String count,
+
+            WebRequest webRequest
     ) {
+        // Answer revalidations before running the listing query
+        var eTag = productETags.forCatalog();
+        if (eTag.isPresent() && webRequest.checkNotModified(eTag.get())) {
+            return null;
+        }
+
+        if (cursor != null) {
+            var response = productService.findAllProductsByCursor(
+                    cursor, pageSize, sortBy, sortDirection,
+                    Optional.ofNullable(searchTerm),
+                    Optional.ofNullable(category),
+                    Optional.ofNullable(minPrice),
+                    Optional.ofNullable(maxPrice)
+            );
+
+            return ResponseEntity.ok(response);
+        }
+
         // Updated call to the service with all parameters
         var response = productService.findAllProducts(
                 page, pageSize, sortBy, sortDirection,
                 Optional.ofNullable(searchTerm),
                 Optional.ofNullable(category),
                 Optional.ofNullable(minPrice),
-                Optional.ofNullable(maxPrice)
+                Optional.ofNullable(maxPrice),
+                CountMode.fromParameter(count)
         );
 
         return ResponseEntity.ok(response);
     }
 
-    @Operation(summary = "Get a single product by product Id")
+    @Operation(summary = "Get facet counts for the product catalog",
+            description = "Returns the number of matching products per category and per price " +
+                    "bucket for the same filters as the product listing, computed in one pass " +
+                    "over the in-memory catalog. Category counts ignore the category filter and " +
+                    "the histogram ignores the price bounds, so every option stays visible. " +
+                    "Supports If-None-Match like the product listing. Answers 503 while the " +
+                    "catalog is still loading at startup.")
+    @GetMapping("/facets")
+    public ResponseEntity<ApiSuccessResponse<ProductFacetsResponse>> getProductFacets(
+            @Parameter(description = "Search by product name or SKU")
+            @RequestParam(required = false)
+            String searchTerm,
+
+            @Parameter(description = "Filter by category")
+            @RequestParam(required = false)
+            ProductCategory category,
+
+            @Parameter(description = "Filter by minimum price (inclusive)")
+            @RequestParam(required = false)
+            BigDecimal minPrice,
+
+            @Parameter(description = "Filter by maximum price (inclusive)")
+            @RequestParam(required = false)
+            BigDecimal maxPrice,
+
+            @Parameter(description = "Ascending lower bounds of the price buckets, e.g. " +
+                    "0,50,100,500. The last bucket is open-ended. Defaults to the configured buckets.")
+            @RequestParam(required = false)
+            List<BigDecimal> priceBuckets,
+
+            WebRequest webRequest
+    ) {
+        var eTag = productETags.forCatalog();
+        if (eTag.isPresent() && webRequest.checkNotModified(eTag.get())) {
+            return null;
+        }
+
+        var response = productService.getFacets(
+                Optional.ofNullable(searchTerm),
+                Optional.ofNullable(category),
+                Optional.ofNullable(minPrice),
+                Optional.ofNullable(maxPrice),
+                priceBuckets == null ? List.of() : priceBuckets
+        );
+
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Autocomplete product names and SKUs",
+            description = "Returns the most popular products whose name, a word of the name, or " +
+                    "SKU starts with the typed prefix. Served from memory, so it is cheap enough " +
+                    "to call on every keystroke.")
+    @GetMapping("/autocomplete")
+    public ResponseEntity<ApiSuccessResponse<List<ProductSuggestion>>> autocomplete(
+            @Parameter(description = "The text typed so far (case-insensitive)")
+            @RequestParam
+            String q,
+
+            @Parameter(description = "Maximum number of suggestions (max 10)")
+            @RequestParam(defaultValue = "10")
+            int limit
+    ) {
+        var response = productService.autocomplete(q, limit);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Get the best-selling products",
+            description = "Ranks products by units sold in paid orders over a rolling window, " +
+                    "overall or within one category. The ranking is maintained incrementally as " +
+                    "payments are confirmed, so no aggregation runs per request.")
+    @GetMapping("/bestsellers")
+    public ResponseEntity<ApiSuccessResponse<List<BestsellerResponse>>> getBestsellers(
+            @Parameter(description = "Rolling window to rank over",
+                    schema = @Schema(allowableValues = {"24h", "7d", "30d"}))
+            @RequestParam(defaultValue = "7d")
+            String window,
+
+            @Parameter(description = "Rank within this category only")
+            @RequestParam(required = false)
+            ProductCategory category,
+
+            @Parameter(description = "Maximum number of products (max 50)")
+            @RequestParam(defaultValue = "10")
+            int limit
+    ) {
+        var response = productService.findBestsellers(
+                BestsellerWindow.fromParameter(window),
+                Optional.ofNullable(category),
+                limit
+        );
+
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Get several products by Id",
+            description = "Resolves up to 100 product IDs in one request, e.g. for cart and order " +
+                    "pages. Products are returned in the requested order, and IDs that match no " +
+                    "product are listed in missing_ids instead of failing the request.")
+    @GetMapping("/batch")
+    public ResponseEntity<ApiSuccessResponse<ProductBatchResponse>> getProductsByIds(
+            @Parameter(description = "Comma-separated product IDs (max 100)")
+            @RequestParam
+            List<UUID> ids
+    ) {
+        var response = productService.findProductsByIds(ids);
+
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Get a single product by product Id",
+            description = "Responses carry an ETag that changes only when this product does; " +
+                    "send it back as If-None-Match to get 304 Not Modified.")
     @GetMapping("/{id}")
     public ResponseEntity<ApiSuccessResponse<ProductResponse>> getProductById(
-            @PathVariable UUID id) {
+            @PathVariable UUID id,
+            WebRequest webRequest) {
+        var eTag = productETags.forProduct(id);
+        if (eTag.isPresent() && webRequest.checkNotModified(eTag.get())) {
+            return null;
+        }
+
         var response = productService.findProductById(id);
 
         return ResponseEntity.ok(response);
@@ -0,0 +1,43 @@
+package com.senibo.e_commerce_api.dto;
+
+import com.senibo.e_commerce_api.exception.general.InvalidOperationException;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Locale;
+
+/**
+ * How the total number of matching items should be computed for a paged listing.
+ */
+@Schema(
+        name = "CountMode",
+        description = "How total_count is computed",
+        allowableValues = {"exact", "estimate", "none"}
+)
+public enum CountMode {
+    /**
+     * An exact total, served from the count cache when the catalog has not changed since.
+     */
+    EXACT,
+    /**
+     * A recently cached total that may be slightly out of date, or an exact one if none is cached.
+     */
+    ESTIMATE,
+    /**
+     * No total at all. Only whether a next page exists is reported.
+     */
+    NONE;
+
+    /**
+     * Parses a request parameter value, ignoring case.
+     *
+     * @throws InvalidOperationException if the value is not a known mode.
+     */
+    public static CountMode fromParameter(String value) {
+        try {
+            return CountMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidOperationException(
+                    "Invalid count mode '" + value + "'. Use exact, estimate or none.");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.senibo.e_commerce_api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.data.domain.Page;
@@ -9,7 +10,10 @@ import java.util.List;
 /**
  * Clean pagination response that matches your senior's C# approach
  * This creates a simple, easy-to-understand JSON response
+ * <p>
+ * In cursor mode the page number and totals are omitted, and {@code next_cursor} is returned instead.
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Schema(description = "Paged result containing items and pagination info")
 public record PagedResult<T>(
 
@@ -17,29 +21,40 @@ public record PagedResult<T>(
         @JsonProperty("items")
         List<T> items,
 
-        @Schema(description = "Current page number (0-based)")
+        @Schema(description = "Current page number (0-based). Omitted in cursor mode.")
         @JsonProperty("page")
-        int page,
+        Integer page,
 
         @Schema(description = "Number of items per page")
         @JsonProperty("page_size")
         int pageSize,
 
-        @Schema(description = "Total number of items across all pages")
+        @Schema(description = "Total number of items across all pages. Omitted in cursor mode " +
+                "and when no count was requested.")
         @JsonProperty("total_count")
-        long totalCount,
+        Long totalCount,
 
-        @Schema(description = "Total number of pages")
+        @Schema(description = "Whether total_count is exact (true) or a recent estimate (false). " +
+                "Omitted when total_count is.")
+        @JsonProperty("total_count_exact")
+        Boolean totalCountExact,
+
+        @Schema(description = "Total number of pages. Omitted when total_count is.")
         @JsonProperty("total_pages")
-        int totalPages,
+        Integer totalPages,
 
         @Schema(description = "Whether there is a next page available")
         @JsonProperty("has_next")
         boolean hasNext,
 
-        @Schema(description = "Whether there is a previous page available")
+        @Schema(description = "Whether there is a previous page available. Omitted in cursor mode.")
         @JsonProperty("has_prev")
-        boolean hasPrev
+        Boolean hasPrev,
+
+        @Schema(description = "Opaque token to pass as `cursor` to fetch the next page. " +
+                "Only returned in cursor mode when there is a next page.")
+        @JsonProperty("next_cursor")
+        String nextCursor
 
 ) {
 
@@ -53,9 +68,60 @@ public record PagedResult<T>(
                 page.getNumber(),            // Current page number
                 page.getSize(),              // Items per page
                 page.getTotalElements(),     // Total items across all pages
+                true,                        // Spring's total is always exact
                 page.getTotalPages(),        // Total number of pages
                 page.hasNext(),              // Is there a next page?
-                page.hasPrevious()           // Is there a previous page?
+                page.hasPrevious(),          // Is there a previous page?
+                null                         // No cursor in offset mode
+        );
+    }
+
+    /**
+     * Creates an offset-mode result whose total was resolved separately from the page query.
+     *
+     * @param items      The items of the current page.
+     * @param page       The current page number (0-based).
+     * @param pageSize   The number of items per page.
+     * @param totalCount The total, or {@code null} if none was requested.
+     * @param exact      Whether the total is exact. Ignored when there is no total.
+     * @param hasNext    Whether there is a next page, known from the page query itself.
+     */
+    public static <T> PagedResult<T> of(List<T> items, int page, int pageSize,
+                                        Long totalCount, boolean exact, boolean hasNext) {
+        Integer totalPages = totalCount == null
+                ? null
+                : (int) ((totalCount + pageSize - 1) / pageSize);
+        return new PagedResult<>(
+                items,
+                page,
+                pageSize,
+                totalCount,
+                totalCount == null ? null : exact,
+                totalPages,
+                hasNext,
+                page > 0,
+                null
+        );
+    }
+
+    /**
+     * Creates a cursor-mode result. No totals are reported, so no count query is needed.
+     *
+     * @param items      The items of the current page.
+     * @param pageSize   The requested page size.
+     * @param nextCursor The cursor of the next page, or {@code null} if this is the last page.
+     */
+    public static <T> PagedResult<T> fromCursor(List<T> items, int pageSize, String nextCursor) {
+        return new PagedResult<>(
+                items,
+                null,
+                pageSize,
+                null,
+                null,
+                null,
+                nextCursor != null,
+                null,
+                nextCursor
         );
     }
 
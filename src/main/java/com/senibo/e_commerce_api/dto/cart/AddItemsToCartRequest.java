@@ -0,0 +1,21 @@
+package com.senibo.e_commerce_api.dto.cart;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Request to add several items to the shopping cart at once, e.g. to reorder " +
+        "or to buy a bundle.")
+public record AddItemsToCartRequest(
+        @Schema(description = "The products and quantities to add. A product listed more than once " +
+                "is added with the sum of its quantities.",
+                requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotEmpty(message = "At least one item is required.")
+        @Size(max = 100, message = "At most 100 items can be added at once.")
+        List<@Valid @NotNull AddItemToCartRequest> items
+) {
+}
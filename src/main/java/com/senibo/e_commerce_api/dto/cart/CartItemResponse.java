@@ -1,5 +1,6 @@
 package com.senibo.e_commerce_api.dto.cart;
 
+import com.senibo.e_commerce_api.dto.product.ProductResponse;
 import com.senibo.e_commerce_api.model.cartItem.CartItem;
 import io.swagger.v3.oas.annotations.media.Schema;
 
@@ -48,4 +49,34 @@ public record CartItemResponse(
                         .multiply(BigDecimal.valueOf(cartItem.getQuantity()))
         );
     }
+
+    /**
+     * Creates a line item from a row of the flat cart query.
+     */
+    public static CartItemResponse fromRow(CartRow row) {
+        return new CartItemResponse(
+                row.itemId(),
+                row.productId(),
+                row.productName(),
+                row.imageUrl(),
+                row.unitPrice(),
+                row.quantity(),
+                row.unitPrice().multiply(BigDecimal.valueOf(row.quantity()))
+        );
+    }
+
+    /**
+     * Creates a line item from a cached product, for carts held in memory.
+     */
+    public static CartItemResponse of(UUID itemId, ProductResponse product, int quantity) {
+        return new CartItemResponse(
+                itemId,
+                product.id(),
+                product.name(),
+                product.imageUrl(),
+                product.price(),
+                quantity,
+                product.price().multiply(BigDecimal.valueOf(quantity))
+        );
+    }
 }
@@ -21,7 +21,11 @@ public record CartResponse(
         int totalItems,
         @Schema(description = "The calculated subtotal for all items in the cart.",
                 example = "108.99")
-        BigDecimal subtotal
+        BigDecimal subtotal,
+        @Schema(description = "The cart's version, also returned as the ETag. Send it back in an " +
+                "If-Match header to apply a change only if the cart has not changed since.",
+                example = "7")
+        Long version
 ) {
     /**
      * Factory method to create a DTO from a Cart entity.
@@ -34,21 +38,44 @@ public record CartResponse(
                                                .map(CartItemResponse::fromEntity)
                                                .toList();
 
-        // 2. Calculate the subtotal by summing up the lineTotal of each item
+        return of(cart.getId(), cart.getVersion(), cartItems);
+    }
+
+    /**
+     * Creates a cart DTO from the rows of the flat cart query, which all belong to one cart.
+     *
+     * @param rows The rows, in the order the items should be listed. Must not be empty.
+     */
+    public static CartResponse fromRows(List<CartRow> rows) {
+        List<CartItemResponse> cartItems = rows.stream()
+                                               .filter(row -> row.itemId() != null)
+                                               .map(CartItemResponse::fromRow)
+                                               .toList();
+
+        CartRow first = rows.get(0);
+        return of(first.cartId(), first.cartVersion(), cartItems);
+    }
+
+    /**
+     * Creates a cart DTO from line items that have already been converted, calculating the totals.
+     */
+    public static CartResponse of(UUID id, Long version, List<CartItemResponse> cartItems) {
+        // Calculate the subtotal by summing up the lineTotal of each item
         BigDecimal subtotal = cartItems.stream()
                                        .map(CartItemResponse::lineTotal)
                                        .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        // 3. Calculate the total number of items by summing up the quantity of each item
+        // Calculate the total number of items by summing up the quantity of each item
         int totalItems = cartItems.stream()
                                   .mapToInt(CartItemResponse::quantity)
                                   .sum();
 
         return new CartResponse(
-                cart.getId(),
+                id,
                 cartItems,
                 totalItems,
-                subtotal
+                subtotal,
+                version
         );
     }
 }
@@ -0,0 +1,21 @@
+package com.senibo.e_commerce_api.dto.cart;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One row of the flat cart query: the cart joined to one of its items and that item's product.
+ * An empty cart comes back as a single row whose item and product columns are all {@code null}.
+ *
+ * @param cartId      The ID of the cart.
+ * @param cartVersion The cart's version.
+ * @param itemId      The ID of the cart item, or {@code null} for an empty cart.
+ * @param productId   The ID of the item's product.
+ * @param productName The product's name.
+ * @param imageUrl    The product's image URL.
+ * @param unitPrice   The product's current price.
+ * @param quantity    The quantity in the cart.
+ */
+public record CartRow(UUID cartId, Long cartVersion, UUID itemId, UUID productId, String productName,
+                      String imageUrl, BigDecimal unitPrice, Integer quantity) {
+}
@@ -0,0 +1,21 @@
+package com.senibo.e_commerce_api.dto.product;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "A product in the bestseller ranking.")
+public record BestsellerResponse(
+
+        @Schema(description = "1-based position in the ranking", example = "1")
+        @JsonProperty("rank")
+        int rank,
+
+        @Schema(description = "Units sold in paid orders during the window", example = "128")
+        @JsonProperty("units_sold")
+        long unitsSold,
+
+        @Schema(description = "The product")
+        @JsonProperty("product")
+        ProductResponse product
+) {
+}
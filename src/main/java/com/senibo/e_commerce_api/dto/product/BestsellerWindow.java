@@ -0,0 +1,50 @@
+package com.senibo.e_commerce_api.dto.product;
+
+import com.senibo.e_commerce_api.exception.general.InvalidOperationException;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The rolling periods bestsellers are ranked over, at an hourly granularity.
+ */
+@Schema(
+        name = "BestsellerWindow",
+        description = "The rolling period bestsellers are ranked over",
+        allowableValues = {"24h", "7d", "30d"}
+)
+public enum BestsellerWindow {
+    LAST_24_HOURS("24h", 24),
+    LAST_7_DAYS("7d", 7 * 24),
+    LAST_30_DAYS("30d", 30 * 24);
+
+    private final String parameter;
+    private final int hours;
+
+    BestsellerWindow(String parameter, int hours) {
+        this.parameter = parameter;
+        this.hours = hours;
+    }
+
+    /**
+     * The number of hourly buckets in the window, including the current, partial hour.
+     */
+    public int hours() {
+        return hours;
+    }
+
+    /**
+     * Parses a request parameter value such as {@code 7d}, ignoring case.
+     *
+     * @throws InvalidOperationException if the value is not a known window.
+     */
+    public static BestsellerWindow fromParameter(String value) {
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        return Arrays.stream(values())
+                     .filter(window -> window.parameter.equals(normalized))
+                     .findFirst()
+                     .orElseThrow(() -> new InvalidOperationException(
+                             "Invalid window '" + value + "'. Use 24h, 7d or 30d."));
+    }
+}
@@ -0,0 +1,46 @@
+package com.senibo.e_commerce_api.dto.product;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "A batch of price and/or stock changes, applied without loading the products.")
+public record BulkProductUpdateRequest(
+
+        @Schema(description = "The changes to apply, in order. A product listed twice ends up " +
+                "with the values of its last entry.")
+        @NotEmpty(message = "At least one item is required")
+        @Size(max = 5000, message = "At most 5000 items can be updated at once")
+        @JsonProperty("items")
+        List<@Valid @NotNull Item> items
+) {
+
+    @Schema(description = "A change to one product, identified by exactly one of id or sku. " +
+            "Fields left out are not changed.")
+    public record Item(
+
+            @Schema(description = "The product's ID")
+            @JsonProperty("id")
+            UUID id,
+
+            @Schema(description = "The product's SKU", example = "ELE-SMA-10042")
+            @JsonProperty("sku")
+            String sku,
+
+            @Schema(description = "New price (optional)", example = "59.99")
+            @DecimalMin(value = "0.01", message = "Price must be greater than 0")
+            @JsonProperty("price")
+            BigDecimal price,
+
+            @Schema(description = "New stock quantity (optional)", example = "120")
+            @Min(value = 0, message = "Stock quantity cannot be negative")
+            @JsonProperty("stock_quantity")
+            Integer stockQuantity
+    ) {
+    }
+}
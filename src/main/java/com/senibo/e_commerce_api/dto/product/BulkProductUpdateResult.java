@@ -0,0 +1,57 @@
+package com.senibo.e_commerce_api.dto.product;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Outcome of a bulk price/stock update.")
+public record BulkProductUpdateResult(
+
+        @Schema(description = "Number of items applied", example = "998")
+        @JsonProperty("updated_count")
+        int updatedCount,
+
+        @Schema(description = "Number of items not applied", example = "2")
+        @JsonProperty("failed_count")
+        int failedCount,
+
+        @Schema(description = "One result per request item, in request order")
+        @JsonProperty("results")
+        List<ItemResult> results
+) {
+
+    public enum Status {
+        UPDATED,
+        NOT_FOUND,
+        INVALID
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "The outcome of one request item.")
+    public record ItemResult(
+
+            @Schema(description = "Position of the item in the request (0-based)", example = "0")
+            @JsonProperty("index")
+            int index,
+
+            @Schema(description = "The product's ID, when known")
+            @JsonProperty("id")
+            UUID id,
+
+            @Schema(description = "The product's SKU, when known", example = "ELE-SMA-10042")
+            @JsonProperty("sku")
+            String sku,
+
+            @Schema(description = "Whether the item was applied")
+            @JsonProperty("status")
+            Status status,
+
+            @Schema(description = "Why the item was not applied")
+            @JsonProperty("message")
+            String message
+    ) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.senibo.e_commerce_api.dto.product;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.UUID;
+
+@Schema(description = "Products resolved from a list of IDs.")
+public record ProductBatchResponse(
+
+        @Schema(description = "The products found, in the order their IDs were requested")
+        @JsonProperty("items")
+        List<ProductResponse> items,
+
+        @Schema(description = "Requested IDs that do not match any product, in request order")
+        @JsonProperty("missing_ids")
+        List<UUID> missingIds
+) {
+}
@@ -0,0 +1,30 @@
+package com.senibo.e_commerce_api.dto.product;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Point-in-time statistics for the in-process product cache")
+public record ProductCacheStats(
+
+        @Schema(description = "Number of products currently cached", example = "350")
+        @JsonProperty("size")
+        long size,
+
+        @Schema(description = "Number of reads served from the cache", example = "120000")
+        @JsonProperty("hit_count")
+        long hitCount,
+
+        @Schema(description = "Number of reads that had to go to the database", example = "400")
+        @JsonProperty("miss_count")
+        long missCount,
+
+        @Schema(description = "Number of entries removed because the cache was full or they expired",
+                example = "12")
+        @JsonProperty("eviction_count")
+        long evictionCount,
+
+        @Schema(description = "Fraction of reads served from the cache", example = "0.9967")
+        @JsonProperty("hit_rate")
+        double hitRate
+) {
+}
@@ -0,0 +1,54 @@
+package com.senibo.e_commerce_api.dto.product;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Schema(description = "Facet counts for a filtered product listing, used to build the storefront sidebar")
+public record ProductFacetsResponse(
+
+        @Schema(description = "Number of products matching all of the filters", example = "132")
+        @JsonProperty("total_count")
+        long totalCount,
+
+        @Schema(description = "Number of matching products per category. The category filter " +
+                "itself is ignored here, so every category's count stays visible.")
+        @JsonProperty("categories")
+        List<CategoryFacet> categories,
+
+        @Schema(description = "Number of matching products per price bucket. The price bounds " +
+                "themselves are ignored here, so every bucket's count stays visible.")
+        @JsonProperty("price_histogram")
+        List<PriceBucket> priceHistogram
+) {
+
+    @Schema(description = "Number of matching products in one category")
+    public record CategoryFacet(
+            @Schema(description = "Product category", example = "ELECTRONICS")
+            String category,
+
+            @Schema(description = "Number of matching products", example = "42")
+            long count
+    ) {
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Number of matching products in one price range")
+    public record PriceBucket(
+            @Schema(description = "Lower bound of the bucket (inclusive)", example = "50.00")
+            @JsonProperty("min_price")
+            BigDecimal minPrice,
+
+            @Schema(description = "Upper bound of the bucket (exclusive). Omitted for the last bucket.",
+                    example = "100.00")
+            @JsonProperty("max_price")
+            BigDecimal maxPrice,
+
+            @Schema(description = "Number of matching products", example = "17")
+            long count
+    ) {
+    }
+}
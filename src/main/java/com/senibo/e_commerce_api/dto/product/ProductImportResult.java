@@ -0,0 +1,49 @@
+package com.senibo.e_commerce_api.dto.product;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Outcome of a bulk product import.")
+public record ProductImportResult(
+
+        @Schema(description = "Number of data rows read from the upload", example = "10000")
+        @JsonProperty("total_rows")
+        long totalRows,
+
+        @Schema(description = "Number of products created", example = "9985")
+        @JsonProperty("imported_count")
+        long importedCount,
+
+        @Schema(description = "Number of rows rejected", example = "15")
+        @JsonProperty("failed_count")
+        long failedCount,
+
+        @Schema(description = "The rejected rows, in upload order. Capped; see errors_truncated.")
+        @JsonProperty("errors")
+        List<RowError> errors,
+
+        @Schema(description = "Whether more rows failed than are listed in errors")
+        @JsonProperty("errors_truncated")
+        boolean errorsTruncated,
+
+        @Schema(description = "Time taken to process the upload, in milliseconds", example = "812")
+        @JsonProperty("duration_ms")
+        long durationMs
+) {
+
+    @Schema(description = "A row that could not be imported.")
+    public record RowError(
+
+            @Schema(description = "The line of the upload the row starts on (1-based)", example = "42")
+            @JsonProperty("line")
+            long line,
+
+            @Schema(description = "Why the row was rejected",
+                    example = "price: Price must be greater than 0")
+            @JsonProperty("message")
+            String message
+    ) {
+    }
+}
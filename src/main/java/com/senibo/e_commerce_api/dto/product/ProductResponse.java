@@ -1,6 +1,7 @@
 package com.senibo.e_commerce_api.dto.product;
 
 import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.model.product.ProductCategory;
 import io.swagger.v3.oas.annotations.media.Schema;
 
 import java.math.BigDecimal;
@@ -37,6 +38,16 @@ public record ProductResponse(
         String sku
 
 ) {
+
+    /**
+     * Constructor used by JPA projection queries, which select the category as its enum.
+     */
+    public ProductResponse(UUID id, String name, String description, BigDecimal price,
+                           Integer stockQuantity, ProductCategory category, String imageUrl,
+                           String sku) {
+        this(id, name, description, price, stockQuantity, category.toString(), imageUrl, sku);
+    }
+
     public static ProductResponse fromEntity(Product product) {
         return new ProductResponse(
                 product.getId(),
@@ -0,0 +1,23 @@
+package com.senibo.e_commerce_api.dto.product;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.UUID;
+
+@Schema(description = "A typeahead completion for a product name or SKU.")
+public record ProductSuggestion(
+
+        @Schema(description = "The product's ID")
+        @JsonProperty("id")
+        UUID id,
+
+        @Schema(description = "The product's name", example = "Classic Leather Wallet")
+        @JsonProperty("name")
+        String name,
+
+        @Schema(description = "The product's SKU", example = "ACC-CLA-10042")
+        @JsonProperty("sku")
+        String sku
+) {
+}
@@ -5,7 +5,9 @@ import com.senibo.e_commerce_api.exception.auth.AuthenticationException;
 import com.senibo.e_commerce_api.exception.general.InsufficientStockException;
 import com.senibo.e_commerce_api.exception.general.InvalidOperationException;
 import com.senibo.e_commerce_api.exception.general.NotFoundException;
+import com.senibo.e_commerce_api.exception.general.PreconditionFailedException;
 import com.senibo.e_commerce_api.exception.general.ResourceConflictException;
+import com.senibo.e_commerce_api.exception.general.ServiceUnavailableException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
@@ -158,6 +160,19 @@ public class GlobalExceptionHandler {
     }
 
 
+    // =======================================================================================
+    // == 412 PRECONDITION FAILED ============================================================
+    // =======================================================================================
+
+    /**
+     * Handles conditional requests whose If-Match no longer matches the resource's current version.
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ApiErrorResponse handlePreconditionFailedException(PreconditionFailedException ex) {
+        return new ApiErrorResponse(false, ex.getMessage(), null);
+    }
+
     // =======================================================================================
     // == 415 UNSUPPORTED MEDIA TYPE =========================================================
     // =======================================================================================
@@ -191,4 +206,18 @@ public class GlobalExceptionHandler {
         log.error("An unexpected error occurred : ", ex);
         return new ApiErrorResponse(false, "An unexpected internal server error occurred.", null);
     }
+
+    // =======================================================================================
+    // == 503 SERVICE UNAVAILABLE ============================================================
+    // =======================================================================================
+
+    /**
+     * Handles requests that depend on state the application is still building, such as the
+     * in-memory catalog while it loads at startup. The client can retry shortly.
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ApiErrorResponse handleServiceUnavailableException(ServiceUnavailableException ex) {
+        return new ApiErrorResponse(false, ex.getMessage(), null);
+    }
 }
@@ -0,0 +1,7 @@
+package com.senibo.e_commerce_api.exception.general;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
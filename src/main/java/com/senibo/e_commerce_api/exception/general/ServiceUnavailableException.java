@@ -0,0 +1,7 @@
+package com.senibo.e_commerce_api.exception.general;
+
+public class ServiceUnavailableException extends RuntimeException {
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
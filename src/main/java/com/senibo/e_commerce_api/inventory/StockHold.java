@@ -0,0 +1,15 @@
+package com.senibo.e_commerce_api.inventory;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One persisted hold, as read back when the reservation ledger is rebuilt.
+ *
+ * @param orderId   The order the units are held for.
+ * @param productId The product held.
+ * @param quantity  The number of units.
+ * @param expiresAt When the hold lapses if the order is still unpaid.
+ */
+public record StockHold(UUID orderId, UUID productId, int quantity, LocalDateTime expiresAt) {
+}
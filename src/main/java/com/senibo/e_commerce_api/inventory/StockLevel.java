@@ -0,0 +1,12 @@
+package com.senibo.e_commerce_api.inventory;
+
+import java.util.UUID;
+
+/**
+ * The committed stock of a product.
+ *
+ * @param productId     The product.
+ * @param stockQuantity The units in stock, before any holds.
+ */
+public record StockLevel(UUID productId, int stockQuantity) {
+}
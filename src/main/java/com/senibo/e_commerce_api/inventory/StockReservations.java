@@ -0,0 +1,434 @@
+package com.senibo.e_commerce_api.inventory;
+
+import com.senibo.e_commerce_api.catalog.ProductCache;
+import com.senibo.e_commerce_api.catalog.ProductsChangedEvent;
+import com.senibo.e_commerce_api.dto.product.ProductResponse;
+import com.senibo.e_commerce_api.exception.general.InsufficientStockException;
+import com.senibo.e_commerce_api.model.order.Order;
+import com.senibo.e_commerce_api.model.order.OrderStatus;
+import com.senibo.e_commerce_api.model.orderItem.OrderItem;
+import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.model.reservation.StockReservation;
+import com.senibo.e_commerce_api.repository.OrderRepository;
+import com.senibo.e_commerce_api.repository.ProductRepository;
+import com.senibo.e_commerce_api.repository.StockReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A ledger of stock held for unpaid orders, so that only as many buyers as there are units can
+ * check out at once.
+ * <p>
+ * Checkout {@link #reserve(Order) reserves} the units of every order line, or fails with an
+ * {@link InsufficientStockException} if any product has fewer units left than requested once the
+ * holds of other orders are taken into account. When the order is paid its holds are
+ * {@link #commit(Order) committed}: the units are taken out of stock in the database and the holds
+ * dropped. An order that is still unpaid when its hold expires
+ * ({@code spring.app.reservations.ttl-seconds}) is cancelled and its units become available again.
+ * <p>
+ * Each product's stock and held units are kept in memory and guarded by one of a fixed set of
+ * striped locks, so a reservation against a hot product is a short in-memory check rather than a
+ * contended row lock; an order spanning several products takes their stripes in a fixed order.
+ * The stock is cached, and reloaded outside the locks after it changes. Holds are also written to
+ * the {@code stock_reservations} table with the order, and rebuilt from it on startup.
+ * <p>
+ * The ledger only knows the holds taken on this node. Committing a paid order never takes stock
+ * below zero, so with several nodes the worst case is a paid order that cannot be fulfilled, which
+ * is logged as an error.
+ */
+@Component
+@Slf4j
+public class StockReservations {
+
+    private final StockReservationRepository reservationRepository;
+    private final ProductRepository productRepository;
+    private final OrderRepository orderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductCache productCache;
+    private final TransactionTemplate ownTransaction;
+    private final Duration ttl;
+    private final ReentrantLock[] stripes;
+
+    private final Map<UUID, ProductLedger> ledgers = new ConcurrentHashMap<>();
+    private final Map<UUID, Hold> holds = new ConcurrentHashMap<>();
+
+    public StockReservations(StockReservationRepository reservationRepository,
+                             ProductRepository productRepository,
+                             OrderRepository orderRepository,
+                             ApplicationEventPublisher eventPublisher,
+                             ProductCache productCache,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${spring.app.reservations.ttl-seconds:900}") long ttlSeconds,
+                             @Value("${spring.app.reservations.stripes:64}") int stripeCount) {
+        this.reservationRepository = reservationRepository;
+        this.productRepository = productRepository;
+        this.orderRepository = orderRepository;
+        this.eventPublisher = eventPublisher;
+        this.productCache = productCache;
+        // Stock is read, and expired holds released, in transactions of their own, which see the
+        // latest committed state even when called from inside a longer transaction
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.stripes = new ReentrantLock[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Rebuilds the holds from the database once the application has started. Holds that expired
+     * while the application was down are released by the next sweep.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        Map<UUID, Map<UUID, Integer>> quantities = new HashMap<>();
+        Map<UUID, LocalDateTime> expiries = new HashMap<>();
+        for (StockHold hold : reservationRepository.findAllHolds()) {
+            quantities.computeIfAbsent(hold.orderId(), id -> new HashMap<>())
+                      .merge(hold.productId(), hold.quantity(), Integer::sum);
+            expiries.merge(hold.orderId(), hold.expiresAt(), (a, b) -> a.isBefore(b) ? a : b);
+        }
+        quantities.forEach((orderId, lines) -> {
+            List<ReentrantLock> locks = stripesFor(lines.keySet());
+            lockAll(locks);
+            try {
+                if (holds.putIfAbsent(orderId, new Hold(orderId, lines, expiries.get(orderId))) == null) {
+                    lines.forEach((productId, quantity) -> ledgerFor(productId).held += quantity);
+                }
+            } finally {
+                unlockAll(locks);
+            }
+        });
+        log.info("Stock reservations recovered for {} orders", quantities.size());
+    }
+
+    /**
+     * Holds the units of every line of a new order until it is paid or the hold expires. Either
+     * every line is held or none is.
+     * <p>
+     * The holds are written with the order, and dropped again if the calling transaction rolls back.
+     *
+     * @param order The saved order, with its items and their products.
+     * @throws InsufficientStockException if a product does not have enough units left.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Order order) {
+        Hold hold = hold(order);
+
+        order.getOrderItems().forEach(item -> reservationRepository.save(
+                StockReservation.builder()
+                                .order(order)
+                                .product(item.getProduct())
+                                .quantity(item.getQuantity())
+                                .expiresAt(hold.expiresAt())
+                                .build()));
+    }
+
+    /**
+     * Holds the units of an order that was cancelled when its hold expired, but has been paid
+     * since, so that it can be {@link #commit(Order) committed} after all. The units are only held
+     * if every product still has enough left once the holds of other orders are taken into
+     * account; otherwise nothing is held.
+     * <p>
+     * The caller must hold the order's row lock, so that the order cannot change status meanwhile.
+     * The hold is only kept in memory, as the commit that follows drops it again, and is dropped
+     * if the calling transaction rolls back.
+     *
+     * @param order The cancelled order, with its items and their products.
+     * @return {@code true} if the units are held, {@code false} if a product has run short.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean reinstate(Order order) {
+        try {
+            hold(order);
+            return true;
+        } catch (InsufficientStockException e) {
+            log.warn("Cannot reinstate the stock hold of order {}: {}", order.getId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Takes the units of a paid order out of stock and drops its holds. Stock never goes below
+     * zero; if a product has run out, which can only happen when holds taken on other nodes
+     * competed for the same units, the order is logged for follow-up. Once the transaction
+     * commits, the product cache and the in-memory read models are given the new stock.
+     * <p>
+     * Clears the persistence context, so callers should have read everything they need from the
+     * order's associations beforehand.
+     *
+     * @param order The order that was paid, with its items.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void commit(Order order) {
+        UUID orderId = order.getId();
+        Map<UUID, Integer> quantities = quantitiesOf(order);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<UUID> soldOut = new ArrayList<>();
+        quantities.forEach((productId, quantity) -> {
+            if (productRepository.decrementStock(productId, quantity, now) == 0) {
+                soldOut.add(productId);
+            }
+        });
+        if (!soldOut.isEmpty()) {
+            log.error("Order {} was paid but products {} no longer have enough stock to fulfil it",
+                      orderId, soldOut);
+        }
+        reservationRepository.deleteByOrderId(orderId);
+        // Read back inside the transaction, but only shown to the read models once it has committed
+        List<Product> changed = productRepository.findAllById(quantities.keySet());
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                drop(orderId, true);
+                changed.forEach(product -> productCache.put(ProductResponse.fromEntity(product)));
+                eventPublisher.publishEvent(new ProductsChangedEvent(changed));
+            }
+        });
+    }
+
+    /**
+     * Cancels the unpaid orders whose holds have expired and makes their units available again.
+     * An order that was paid in the meantime is left alone; its commit has already taken the
+     * units out of stock.
+     */
+    @Scheduled(fixedDelayString = "${spring.app.reservations.sweep-interval-ms:10000}")
+    public void expire() {
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> expired = holds.values()
+                                  .stream()
+                                  .filter(hold -> hold.expiresAt().isBefore(now))
+                                  .map(Hold::orderId)
+                                  .toList();
+        int cancelled = 0;
+        for (UUID orderId : expired) {
+            try {
+                Boolean wasPending = ownTransaction.execute(status -> {
+                    int updated = orderRepository.transitionStatus(orderId, OrderStatus.PENDING,
+                                                                   OrderStatus.CANCELLED, now);
+                    reservationRepository.deleteByOrderId(orderId);
+                    return updated == 1;
+                });
+                // Committed by now, so the database already reflects whatever happened to the order
+                drop(orderId, true);
+                if (Boolean.TRUE.equals(wasPending)) {
+                    cancelled++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not release the expired stock hold of order {}", orderId, e);
+            }
+        }
+        if (!expired.isEmpty()) {
+            log.info("Released {} expired stock holds, cancelling {} unpaid orders", expired.size(), cancelled);
+        }
+    }
+
+    /**
+     * Forgets the cached stock of products written elsewhere, such as by an admin update or an
+     * import, so that it is reloaded before the next reservation.
+     */
+    @EventListener
+    public void onProductsChanged(ProductsChangedEvent event) {
+        event.products().forEach(product -> forgetStock(product.getId()));
+    }
+
+    /**
+     * Holds every line of the order in memory, or none of them, and drops the hold again if the
+     * calling transaction does not commit.
+     */
+    private Hold hold(Order order) {
+        Map<UUID, Integer> quantities = quantitiesOf(order);
+        Hold hold = new Hold(order.getId(), quantities, LocalDateTime.now().plus(ttl));
+        List<ReentrantLock> locks = stripesFor(quantities.keySet());
+
+        while (true) {
+            Map<UUID, Long> unknown = new HashMap<>();
+            lockAll(locks);
+            try {
+                quantities.keySet().forEach(productId -> {
+                    ProductLedger ledger = ledgerFor(productId);
+                    if (ledger.stock == null) {
+                        unknown.put(productId, ledger.epoch);
+                    }
+                });
+                if (unknown.isEmpty()) {
+                    checkAvailable(order, quantities);
+                    quantities.forEach((productId, quantity) -> ledgerFor(productId).held += quantity);
+                    holds.put(hold.orderId(), hold);
+                    break;
+                }
+            } finally {
+                unlockAll(locks);
+            }
+            loadStock(unknown, locks);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    drop(hold.orderId(), false);
+                }
+            }
+        });
+        return hold;
+    }
+
+    // Must be called with the products' stripes held
+    private void checkAvailable(Order order, Map<UUID, Integer> quantities) {
+        for (OrderItem item : order.getOrderItems()) {
+            Product product = item.getProduct();
+            ProductLedger ledger = ledgerFor(product.getId());
+            if (ledger.stock - ledger.held < quantities.get(product.getId())) {
+                throw new InsufficientStockException("Not enough stock for product: " + product.getName());
+            }
+        }
+    }
+
+    /**
+     * Reads the stock of the given products without holding any stripe, and caches each value
+     * only if nothing invalidated the product while it was being read.
+     */
+    private void loadStock(Map<UUID, Long> epochs, List<ReentrantLock> locks) {
+        Map<UUID, Integer> stock = new HashMap<>();
+        ownTransaction.executeWithoutResult(status -> productRepository
+                .findStockLevels(epochs.keySet())
+                .forEach(level -> stock.put(level.productId(), level.stockQuantity())));
+        lockAll(locks);
+        try {
+            epochs.forEach((productId, epoch) -> {
+                ProductLedger ledger = ledgerFor(productId);
+                if (ledger.epoch == epoch && ledger.stock == null) {
+                    // A product that no longer exists has nothing to sell
+                    ledger.stock = stock.getOrDefault(productId, 0);
+                }
+            });
+        } finally {
+            unlockAll(locks);
+        }
+    }
+
+    /**
+     * Drops an order's holds, if it still has any, and optionally forgets the cached stock of its
+     * products because the stock itself has changed.
+     */
+    private void drop(UUID orderId, boolean stockChanged) {
+        Hold hold = holds.remove(orderId);
+        if (hold == null) {
+            return;
+        }
+        List<ReentrantLock> locks = stripesFor(hold.quantities().keySet());
+        lockAll(locks);
+        try {
+            hold.quantities().forEach((productId, quantity) -> {
+                ProductLedger ledger = ledgerFor(productId);
+                ledger.held -= quantity;
+                if (stockChanged) {
+                    ledger.forgetStock();
+                }
+            });
+        } finally {
+            unlockAll(locks);
+        }
+    }
+
+    private void forgetStock(UUID productId) {
+        ReentrantLock lock = stripeFor(productId);
+        lock.lock();
+        try {
+            ProductLedger ledger = ledgers.get(productId);
+            if (ledger != null) {
+                ledger.forgetStock();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ProductLedger ledgerFor(UUID productId) {
+        return ledgers.computeIfAbsent(productId, id -> new ProductLedger());
+    }
+
+    private static Map<UUID, Integer> quantitiesOf(Order order) {
+        Map<UUID, Integer> quantities = new HashMap<>();
+        order.getOrderItems().forEach(item -> quantities.merge(item.getProduct().getId(),
+                                                                item.getQuantity(), Integer::sum));
+        return quantities;
+    }
+
+    private ReentrantLock stripeFor(UUID productId) {
+        return stripes[stripeIndex(productId)];
+    }
+
+    private int stripeIndex(UUID productId) {
+        int hash = productId.hashCode();
+        hash ^= (hash >>> 16);
+        return (hash & 0x7fffffff) % stripes.length;
+    }
+
+    /**
+     * Returns the distinct stripes of the given products in a fixed order, so that threads locking
+     * overlapping sets of products can never deadlock.
+     */
+    private List<ReentrantLock> stripesFor(Collection<UUID> productIds) {
+        SortedMap<Integer, ReentrantLock> locks = new TreeMap<>();
+        productIds.forEach(productId -> {
+            int index = stripeIndex(productId);
+            locks.put(index, stripes[index]);
+        });
+        return new ArrayList<>(locks.values());
+    }
+
+    private static void lockAll(List<ReentrantLock> locks) {
+        locks.forEach(ReentrantLock::lock);
+    }
+
+    private static void unlockAll(List<ReentrantLock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+
+    /**
+     * The units held for one order, and when the hold lapses.
+     */
+    private record Hold(UUID orderId, Map<UUID, Integer> quantities, LocalDateTime expiresAt) {
+    }
+
+    /**
+     * One product's cached stock and held units. Only accessed under the product's stripe lock.
+     */
+    private static final class ProductLedger {
+
+        // The committed stock, or null until it is loaded or after it changed
+        private Integer stock;
+        private int held;
+        // Bumped whenever the cached stock is forgotten, so that a load that raced with a change is discarded
+        private long epoch;
+
+        void forgetStock() {
+            stock = null;
+            epoch++;
+        }
+    }
+}
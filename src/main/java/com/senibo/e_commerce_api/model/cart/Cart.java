@@ -24,4 +24,8 @@ public class Cart extends BaseEntity {
 
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<CartItem> cartItems = new ArrayList<>(); // <-- THE FIX
+
+    // Bumped by every change to the cart, including its items; clients send it back as If-Match
+    @Version
+    private Long version;
 }
@@ -7,6 +7,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.*;
 
 @Entity
@@ -28,4 +29,7 @@ public class CartItem extends BaseEntity {
 
 
     private Integer quantity;
+
+    @Version
+    private Long version;
 }
@@ -7,6 +7,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -28,6 +29,13 @@ public class Order extends BaseEntity {
 
     private String paymentReference;
 
+    // When the payment was confirmed; null until the order is paid
+    private LocalDateTime paidAt;
+
+    // When a payment arrived for the order after it had been cancelled and could not be honoured,
+    // so the payment must be refunded; null otherwise
+    private LocalDateTime refundDueAt;
+
     // MANY Orders can belong to ONE User
     @ManyToOne // <-- Change to ManyToOne
     @JoinColumn(name = "user_id")
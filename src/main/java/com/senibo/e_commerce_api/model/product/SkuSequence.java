@@ -0,0 +1,33 @@
+package com.senibo.e_commerce_api.model.product;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The persisted counter behind the SKU suffixes of one {@code [CAT]-[NAM]} prefix.
+ * <p>
+ * {@code nextValue} is the first suffix that has not been reserved by any node yet. Nodes reserve
+ * whole blocks of suffixes by advancing it under a row lock, and hand them out from memory.
+ * Unlike the other entities it is keyed by its natural key, so it does not extend BaseEntity.
+ */
+@Entity
+@Table(name = "sku_sequences")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SkuSequence {
+
+    @Id
+    @Column(length = 16)
+    private String prefix;
+
+    @Column(nullable = false)
+    private long nextValue;
+}
@@ -0,0 +1,38 @@
+package com.senibo.e_commerce_api.model.reservation;
+
+import com.senibo.e_commerce_api.model.BaseEntity;
+import com.senibo.e_commerce_api.model.order.Order;
+import com.senibo.e_commerce_api.model.product.Product;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Units of a product held for an unpaid order until it is paid, cancelled or the hold expires.
+ * The live holds are kept in memory by {@code StockReservations}; these rows let it recover them
+ * after a restart.
+ */
+@Entity
+@Table(name = "stock_reservations")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockReservation extends BaseEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    private Order order;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
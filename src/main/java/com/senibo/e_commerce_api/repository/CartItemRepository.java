@@ -2,10 +2,65 @@ package com.senibo.e_commerce_api.repository;
 
 import com.senibo.e_commerce_api.model.cartItem.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, UUID> {
+
+    /**
+     * Adds to the quantity of a product already in the cart, in the database rather than by
+     * reading and writing the line, so concurrent adds are never lost.
+     *
+     * @return 1, or 0 if the product is not in the cart.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            UPDATE CartItem ci
+               SET ci.quantity = ci.quantity + :quantity, ci.version = ci.version + 1, ci.updatedAt = :now
+             WHERE ci.cart.id = :cartId AND ci.product.id = :productId
+            """)
+    int incrementQuantity(@Param("cartId") UUID cartId,
+                          @Param("productId") UUID productId,
+                          @Param("quantity") int quantity,
+                          @Param("now") LocalDateTime now);
+
+    /**
+     * Adds a product to the cart, or adds to its quantity if a concurrent request added it first.
+     * Relies on the unique key on {@code (cart_id, product_id)}.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(nativeQuery = true, value = """
+            INSERT INTO cart_items (id, created_at, updated_at, version, quantity, cart_id, product_id)
+            VALUES (:id, :now, :now, 0, :quantity, :cartId, :productId)
+            ON DUPLICATE KEY UPDATE quantity = quantity + :quantity, version = version + 1, updated_at = :now
+            """)
+    void insertOrIncrement(@Param("id") UUID id,
+                           @Param("cartId") UUID cartId,
+                           @Param("productId") UUID productId,
+                           @Param("quantity") int quantity,
+                           @Param("now") LocalDateTime now);
+
+    /**
+     * Removes an item if it belongs to the given cart.
+     *
+     * @return 1, or 0 if the cart has no such item.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM CartItem ci WHERE ci.id = :itemId AND ci.cart.id = :cartId")
+    int deleteFromCart(@Param("itemId") UUID itemId, @Param("cartId") UUID cartId);
+
+    /**
+     * Removes every item from a cart.
+     *
+     * @return The number of items removed.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM CartItem ci WHERE ci.cart.id = :cartId")
+    int deleteAllFromCart(@Param("cartId") UUID cartId);
 }
@@ -1,9 +1,15 @@
 package com.senibo.e_commerce_api.repository;
 
+import com.senibo.e_commerce_api.dto.cart.CartRow;
 import com.senibo.e_commerce_api.model.cart.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,4 +17,78 @@ import java.util.UUID;
 public interface CartRepository extends JpaRepository<Cart, UUID> {
 
     Optional<Cart> findByUserId(UUID userId);
+
+    /**
+     * Loads everything a {@code CartResponse} needs for the user's cart in one statement, as one
+     * row per item, instead of loading the cart, then its items, then each item's product.
+     *
+     * @return The rows in the order the items were added, or an empty list if the user has no cart.
+     */
+    @Query("""
+            SELECT new com.senibo.e_commerce_api.dto.cart.CartRow(
+                       c.id, c.version, ci.id, p.id, p.name, p.imageUrl, p.price, ci.quantity)
+              FROM Cart c
+              LEFT JOIN c.cartItems ci
+              LEFT JOIN ci.product p
+             WHERE c.user.id = :userId
+             ORDER BY ci.createdAt, ci.id
+            """)
+    List<CartRow> findRowsByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Like {@link #findRowsByUserId(UUID)}, for a cart known by its ID.
+     */
+    @Query("""
+            SELECT new com.senibo.e_commerce_api.dto.cart.CartRow(
+                       c.id, c.version, ci.id, p.id, p.name, p.imageUrl, p.price, ci.quantity)
+              FROM Cart c
+              LEFT JOIN c.cartItems ci
+              LEFT JOIN ci.product p
+             WHERE c.id = :cartId
+             ORDER BY ci.createdAt, ci.id
+            """)
+    List<CartRow> findRowsById(@Param("cartId") UUID cartId);
+
+    /**
+     * Returns the ID of the user's cart without loading it.
+     */
+    @Query("SELECT c.id FROM Cart c WHERE c.user.id = :userId")
+    Optional<UUID> findIdByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Creates an empty cart for the user unless one exists. The unique key on {@code user_id}
+     * makes this safe when concurrent requests race to create the user's first cart.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO carts (id, created_at, updated_at, version, user_id)
+            VALUES (:id, :now, :now, 0, :userId)
+            ON DUPLICATE KEY UPDATE id = id
+            """)
+    void insertIfAbsent(@Param("id") UUID id,
+                        @Param("userId") UUID userId,
+                        @Param("now") LocalDateTime now);
+
+    /**
+     * Moves a cart on to its next version.
+     *
+     * @return The number of carts updated.
+     */
+    @Modifying
+    @Query("UPDATE Cart c SET c.version = c.version + 1, c.updatedAt = :now WHERE c.id = :cartId")
+    int incrementVersion(@Param("cartId") UUID cartId, @Param("now") LocalDateTime now);
+
+    /**
+     * Moves a cart on to its next version if it is still at the expected one.
+     *
+     * @return 1, or 0 if the cart has changed since the caller read it.
+     */
+    @Modifying
+    @Query("""
+            UPDATE Cart c SET c.version = c.version + 1, c.updatedAt = :now
+             WHERE c.id = :cartId AND c.version = :expectedVersion
+            """)
+    int incrementVersionIfMatches(@Param("cartId") UUID cartId,
+                                  @Param("expectedVersion") long expectedVersion,
+                                  @Param("now") LocalDateTime now);
 }
@@ -1,11 +1,36 @@
 package com.senibo.e_commerce_api.repository;
 
+import com.senibo.e_commerce_api.catalog.ProductSale;
+import com.senibo.e_commerce_api.model.order.OrderStatus;
 import com.senibo.e_commerce_api.model.orderItem.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
+
+    /**
+     * Returns the items of orders in the given statuses that were paid after the given time,
+     * oldest sale first. Orders paid before {@code paidAt} was recorded fall back to their last
+     * update time.
+     */
+    @Query("""
+            SELECT new com.senibo.e_commerce_api.catalog.ProductSale(
+                       o.id, p.id, p.category, oi.quantity, COALESCE(o.paidAt, o.updatedAt))
+              FROM OrderItem oi
+              JOIN oi.order o
+              JOIN oi.product p
+             WHERE o.orderStatus IN :statuses
+               AND COALESCE(o.paidAt, o.updatedAt) > :since
+             ORDER BY COALESCE(o.paidAt, o.updatedAt)
+            """)
+    List<ProductSale> findSalesSince(@Param("statuses") Collection<OrderStatus> statuses,
+                                     @Param("since") LocalDateTime since);
 }
@@ -2,10 +2,17 @@ package com.senibo.e_commerce_api.repository;
 
 import com.senibo.e_commerce_api.model.auth.User;
 import com.senibo.e_commerce_api.model.order.Order;
+import com.senibo.e_commerce_api.model.order.OrderStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,4 +23,26 @@ public interface OrderRepository extends JpaRepository<Order, UUID>, JpaSpecific
     List<Order> findByUser(User user);
 
     Optional<Order> findByPaymentReference(String reference);
+
+    /**
+     * Loads an order by its payment reference and locks its row until the transaction ends, so a
+     * payment confirmation and a concurrent cancellation are applied one after the other.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Order> findWithLockByPaymentReference(String reference);
+
+    /**
+     * Moves an order to a new status if it is still in the expected one.
+     *
+     * @return 1, or 0 if the order is no longer in the expected status.
+     */
+    @Modifying
+    @Query("""
+            UPDATE Order o SET o.orderStatus = :status, o.updatedAt = :now
+             WHERE o.id = :orderId AND o.orderStatus = :expected
+            """)
+    int transitionStatus(@Param("orderId") UUID orderId,
+                         @Param("expected") OrderStatus expected,
+                         @Param("status") OrderStatus status,
+                         @Param("now") LocalDateTime now);
 }
@@ -1,15 +1,29 @@
 package com.senibo.e_commerce_api.repository;
 
+import com.senibo.e_commerce_api.catalog.CatalogStamp;
+import com.senibo.e_commerce_api.inventory.StockLevel;
 import com.senibo.e_commerce_api.model.product.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, UUID>,
-        JpaSpecificationExecutor<Product> {
+        JpaSpecificationExecutor<Product>, ProductRepositoryCustom {
 
 
     /**
@@ -22,5 +36,86 @@ public interface ProductRepository extends JpaRepository<Product, UUID>,
      */
     boolean existsByName(String name); // <-- Add this
 
+    /**
+     * Returns which of the given names are already used, in one round trip.
+     */
+    @Query("SELECT p.name FROM Product p WHERE p.name IN :names")
+    Set<String> findExistingNames(@Param("names") Collection<String> names);
 
+    /**
+     * Loads the products with the given SKUs.
+     */
+    List<Product> findAllBySkuIn(Collection<String> skus);
+
+    /**
+     * Returns every SKU that starts with the given prefix.
+     */
+    @Query("SELECT p.sku FROM Product p WHERE p.sku LIKE CONCAT(:prefix, '%')")
+    List<String> findSkusStartingWith(@Param("prefix") String prefix);
+
+    /**
+     * Loads the products written after the given time, to bring a catalog snapshot up to date.
+     */
+    List<Product> findAllByUpdatedAtAfter(LocalDateTime since);
+
+    /**
+     * Returns when the product was last written, without loading it.
+     */
+    @Query("SELECT p.updatedAt FROM Product p WHERE p.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") UUID id);
+
+    /**
+     * Returns the latest write time and the number of products, read from the updated_at index
+     * and the primary key rather than the rows.
+     */
+    @Query("""
+            SELECT new com.senibo.e_commerce_api.catalog.CatalogStamp(MAX(p.updatedAt), COUNT(p))
+              FROM Product p
+            """)
+    CatalogStamp findCatalogStamp();
+
+    /**
+     * Returns the stock of the given products, without loading them. Unknown IDs are skipped.
+     */
+    @Query("""
+            SELECT new com.senibo.e_commerce_api.inventory.StockLevel(p.id, p.stockQuantity)
+              FROM Product p
+             WHERE p.id IN :ids
+            """)
+    List<StockLevel> findStockLevels(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Takes units out of stock, in the database rather than by reading and writing the product, so
+     * concurrent sales are never lost. Stock never goes below zero.
+     * <p>
+     * Pending changes are flushed first and the persistence context is cleared afterwards, so any
+     * product loaded later in the transaction reflects the new stock.
+     *
+     * @return 1, or 0 if the product does not have that many units left.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            UPDATE Product p
+               SET p.stockQuantity = p.stockQuantity - :quantity, p.updatedAt = :now
+             WHERE p.id = :productId AND p.stockQuantity >= :quantity
+            """)
+    int decrementStock(@Param("productId") UUID productId,
+                       @Param("quantity") int quantity,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Streams every product, forward-only and read-only.
+     * <p>
+     * A fetch size of {@link Integer#MIN_VALUE} makes MySQL Connector/J stream rows one at a time
+     * instead of buffering the whole result set. The stream must be consumed and closed inside a
+     * transaction, and callers should detach each product once done with it so the persistence
+     * context stays small.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT p FROM Product p")
+    Stream<Product> streamAll();
 }
@@ -0,0 +1,43 @@
+package com.senibo.e_commerce_api.repository;
+
+import com.senibo.e_commerce_api.dto.product.ProductResponse;
+import com.senibo.e_commerce_api.model.product.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Custom query methods for {@link Product} that Spring Data cannot derive.
+ * <p>
+ * The read methods select only the columns a {@link ProductResponse} needs and construct the
+ * records directly in the query, so no entities, dirty-checking snapshots or lazy collection
+ * proxies are created in the persistence context.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Fetches the rows starting at the pageable's offset, in its sort order, without issuing the
+     * count query that {@code findAll(Specification, Pageable)} runs.
+     *
+     * @param spec     The filters to apply, or {@code null} for none.
+     * @param pageable The offset and sort to apply. Its page size is ignored in favour of {@code limit}.
+     * @param limit    The maximum number of rows to return.
+     * @return The matching rows as DTOs.
+     */
+    List<ProductResponse> findResponseSlice(Specification<Product> spec, Pageable pageable, int limit);
+
+    /**
+     * Fetches the given products as DTOs, in no particular order. Unknown IDs are skipped.
+     */
+    List<ProductResponse> findResponsesByIds(Collection<UUID> ids);
+
+    /**
+     * Selects only the IDs of the products matching the specification.
+     *
+     * @param spec The filters to apply, or {@code null} for none.
+     */
+    List<UUID> findIds(Specification<Product> spec);
+}
@@ -0,0 +1,98 @@
+package com.senibo.e_commerce_api.repository;
+
+import com.senibo.e_commerce_api.dto.product.ProductResponse;
+import com.senibo.e_commerce_api.model.product.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Criteria API implementation of {@link ProductRepositoryCustom}.
+ * Spring Data picks this class up as a repository fragment through its {@code Impl} suffix.
+ */
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductResponse> findResponseSlice(Specification<Product> spec,
+                                                   Pageable pageable,
+                                                   int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductResponse> query = cb.createQuery(ProductResponse.class);
+        Root<Product> root = query.from(Product.class);
+
+        query.select(constructResponse(cb, root));
+        applySpecification(spec, root, query, cb);
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        return entityManager.createQuery(query)
+                            .setFirstResult((int) pageable.getOffset())
+                            .setMaxResults(limit)
+                            .getResultList();
+    }
+
+    @Override
+    public List<ProductResponse> findResponsesByIds(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductResponse> query = cb.createQuery(ProductResponse.class);
+        Root<Product> root = query.from(Product.class);
+
+        query.select(constructResponse(cb, root))
+             .where(root.get("id").in(ids));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<UUID> findIds(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UUID> query = cb.createQuery(UUID.class);
+        Root<Product> root = query.from(Product.class);
+
+        query.select(root.get("id"));
+        applySpecification(spec, root, query, cb);
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    /**
+     * Selects exactly the columns of a {@link ProductResponse}, in its constructor order.
+     */
+    private static CompoundSelection<ProductResponse> constructResponse(CriteriaBuilder cb,
+                                                                        Root<Product> root) {
+        return cb.construct(ProductResponse.class,
+                            root.get("id"),
+                            root.get("name"),
+                            root.get("description"),
+                            root.get("price"),
+                            root.get("stockQuantity"),
+                            root.get("category"),
+                            root.get("imageUrl"),
+                            root.get("sku"));
+    }
+
+    private static void applySpecification(Specification<Product> spec,
+                                           Root<Product> root,
+                                           CriteriaQuery<?> query,
+                                           CriteriaBuilder cb) {
+        if (spec == null) {
+            return;
+        }
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
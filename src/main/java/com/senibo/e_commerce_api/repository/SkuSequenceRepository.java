@@ -0,0 +1,36 @@
+package com.senibo.e_commerce_api.repository;
+
+import com.senibo.e_commerce_api.model.product.SkuSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SkuSequenceRepository extends JpaRepository<SkuSequence, String> {
+
+    /**
+     * Reads a prefix's counter with {@code SELECT ... FOR UPDATE}, so that concurrent
+     * reservations (from any node) are serialized until the surrounding transaction ends.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SkuSequence s WHERE s.prefix = :prefix")
+    Optional<SkuSequence> findForUpdate(@Param("prefix") String prefix);
+
+    /**
+     * Creates a prefix's counter unless one exists. Concurrent creations of the same prefix, from
+     * any node, leave the first counter in place instead of failing on the primary key.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO sku_sequences (prefix, next_value)
+            VALUES (:prefix, :nextValue)
+            ON DUPLICATE KEY UPDATE prefix = prefix
+            """)
+    void insertIfAbsent(@Param("prefix") String prefix, @Param("nextValue") long nextValue);
+}
@@ -0,0 +1,35 @@
+package com.senibo.e_commerce_api.repository;
+
+import com.senibo.e_commerce_api.inventory.StockHold;
+import com.senibo.e_commerce_api.model.reservation.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, UUID> {
+
+    /**
+     * Returns every persisted hold, without loading the orders or products they reference.
+     */
+    @Query("""
+            SELECT new com.senibo.e_commerce_api.inventory.StockHold(
+                       r.order.id, r.product.id, r.quantity, r.expiresAt)
+              FROM StockReservation r
+            """)
+    List<StockHold> findAllHolds();
+
+    /**
+     * Deletes the holds of an order.
+     *
+     * @return The number of holds deleted.
+     */
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.order.id = :orderId")
+    int deleteByOrderId(@Param("orderId") UUID orderId);
+}
@@ -1,14 +1,20 @@
 package com.senibo.e_commerce_api.service;
 
 import com.senibo.e_commerce_api.dto.cart.AddItemToCartRequest;
+import com.senibo.e_commerce_api.dto.cart.AddItemsToCartRequest;
 import com.senibo.e_commerce_api.dto.cart.CartResponse;
 
+import java.util.Optional;
 import java.util.UUID;
 
 public interface CartService {
-    CartResponse addItemToCart(UUID userId, AddItemToCartRequest request);
+    CartResponse addItemToCart(UUID userId, AddItemToCartRequest request, Optional<Long> expectedVersion);
+
+    CartResponse addItemsToCart(UUID userId, AddItemsToCartRequest request, Optional<Long> expectedVersion);
 
     CartResponse getCartForUser(UUID userId);
 
-    CartResponse removeItemFromCart(UUID userId, UUID itemId);
+    CartResponse removeItemFromCart(UUID userId, UUID itemId, Optional<Long> expectedVersion);
+
+    void clearCart(UUID userId);
 }
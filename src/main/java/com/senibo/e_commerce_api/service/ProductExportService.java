@@ -0,0 +1,15 @@
+package com.senibo.e_commerce_api.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ProductExportService {
+
+    /**
+     * Writes every product in the catalog to the stream as NDJSON, one product per line.
+     *
+     * @param out The stream to write to. It is flushed but not closed.
+     * @return The number of products written.
+     */
+    long exportProducts(OutputStream out) throws IOException;
+}
@@ -0,0 +1,20 @@
+package com.senibo.e_commerce_api.service;
+
+import com.senibo.e_commerce_api.dto.ApiSuccessResponse;
+import com.senibo.e_commerce_api.dto.product.ProductImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ProductImportService {
+
+    /**
+     * Creates products from an NDJSON or CSV upload, reading it as a stream.
+     *
+     * @param body        The upload.
+     * @param contentType The upload's Content-Type, which selects the format.
+     * @return A report of how many rows were imported and why the others were rejected.
+     */
+    ApiSuccessResponse<ProductImportResult> importProducts(InputStream body,
+                                                           String contentType) throws IOException;
+}
@@ -1,13 +1,23 @@
 package com.senibo.e_commerce_api.service;
 
 import com.senibo.e_commerce_api.dto.ApiSuccessResponse;
+import com.senibo.e_commerce_api.dto.CountMode;
 import com.senibo.e_commerce_api.dto.PagedResult;
+import com.senibo.e_commerce_api.dto.product.BestsellerResponse;
+import com.senibo.e_commerce_api.dto.product.BestsellerWindow;
+import com.senibo.e_commerce_api.dto.product.BulkProductUpdateRequest;
+import com.senibo.e_commerce_api.dto.product.BulkProductUpdateResult;
 import com.senibo.e_commerce_api.dto.product.CreateProductRequest;
+import com.senibo.e_commerce_api.dto.product.ProductBatchResponse;
+import com.senibo.e_commerce_api.dto.product.ProductCacheStats;
+import com.senibo.e_commerce_api.dto.product.ProductFacetsResponse;
 import com.senibo.e_commerce_api.dto.product.ProductResponse;
+import com.senibo.e_commerce_api.dto.product.ProductSuggestion;
 import com.senibo.e_commerce_api.dto.product.UpdateProductRequest;
 import com.senibo.e_commerce_api.model.product.ProductCategory;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -25,12 +35,34 @@ public interface ProductService {
      */
     ApiSuccessResponse<ProductResponse> updateProduct(UUID id, UpdateProductRequest request);
 
+    /**
+     * Applies price and/or stock changes to many products at once, reporting a result per item.
+     */
+    ApiSuccessResponse<BulkProductUpdateResult> bulkUpdateProducts(BulkProductUpdateRequest request);
+
+    /**
+     * Returns hit/miss/eviction statistics for the in-process product cache.
+     */
+    ApiSuccessResponse<ProductCacheStats> getCacheStats();
+
+    /**
+     * Rebuilds the in-memory product search index online and returns the number of indexed products.
+     */
+    ApiSuccessResponse<Integer> rebuildSearchIndex();
+
+    /**
+     * Recomputes the bestseller ranking from the paid order history and returns the number of
+     * order items replayed.
+     */
+    ApiSuccessResponse<Integer> rebuildBestsellers();
+
 
     // === Public Read Methods ===
 
 
     /**
      * Finds products with optional filters, pagination, and sorting.
+     * The count mode decides whether the total is exact, a cached estimate, or omitted.
      */
     ApiSuccessResponse<PagedResult<ProductResponse>> findAllProducts(
             int page,
@@ -40,9 +72,55 @@ public interface ProductService {
             Optional<String> searchTerm,
             Optional<ProductCategory> category,
             Optional<BigDecimal> minPrice,
+            Optional<BigDecimal> maxPrice,
+            CountMode countMode
+    );
+
+    /**
+     * Finds products with optional filters using keyset (cursor) pagination.
+     * An empty cursor starts at the first page. No total count is computed.
+     */
+    ApiSuccessResponse<PagedResult<ProductResponse>> findAllProductsByCursor(
+            String cursor,
+            int pageSize,
+            String sortBy,
+            String sortDirection,
+            Optional<String> searchTerm,
+            Optional<ProductCategory> category,
+            Optional<BigDecimal> minPrice,
             Optional<BigDecimal> maxPrice
     );
 
     ApiSuccessResponse<ProductResponse> findProductById(UUID id);
 
+    /**
+     * Finds several products by ID at once, preserving the requested order and reporting unknown IDs.
+     */
+    ApiSuccessResponse<ProductBatchResponse> findProductsByIds(List<UUID> ids);
+
+    /**
+     * Returns the most popular products whose name, a word of the name, or SKU starts with the prefix.
+     */
+    ApiSuccessResponse<List<ProductSuggestion>> autocomplete(String prefix, int limit);
+
+    /**
+     * Returns the products with the most units sold over a rolling window, overall or in a category.
+     */
+    ApiSuccessResponse<List<BestsellerResponse>> findBestsellers(BestsellerWindow window,
+                                                                 Optional<ProductCategory> category,
+                                                                 int limit);
+
+    /**
+     * Computes per-category counts and a price histogram for the products matching the filters.
+     *
+     * @param priceBoundaries Ascending bucket boundaries, or empty to use the configured defaults.
+     */
+    ApiSuccessResponse<ProductFacetsResponse> getFacets(
+            Optional<String> searchTerm,
+            Optional<ProductCategory> category,
+            Optional<BigDecimal> minPrice,
+            Optional<BigDecimal> maxPrice,
+            List<BigDecimal> priceBoundaries
+    );
+
 }
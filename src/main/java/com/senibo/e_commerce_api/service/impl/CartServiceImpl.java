@@ -1,144 +1,372 @@
 package com.senibo.e_commerce_api.service.impl;
 
+import com.senibo.e_commerce_api.cart.CartStore;
+import com.senibo.e_commerce_api.catalog.ProductCache;
 import com.senibo.e_commerce_api.dto.cart.AddItemToCartRequest;
+import com.senibo.e_commerce_api.dto.cart.AddItemsToCartRequest;
+import com.senibo.e_commerce_api.dto.cart.CartItemResponse;
 import com.senibo.e_commerce_api.dto.cart.CartResponse;
+import com.senibo.e_commerce_api.dto.cart.CartRow;
+import com.senibo.e_commerce_api.dto.product.ProductResponse;
 import com.senibo.e_commerce_api.exception.general.InsufficientStockException;
 import com.senibo.e_commerce_api.exception.general.NotFoundException;
-import com.senibo.e_commerce_api.model.auth.User;
-import com.senibo.e_commerce_api.model.cart.Cart;
-import com.senibo.e_commerce_api.model.cartItem.CartItem;
+import com.senibo.e_commerce_api.exception.general.PreconditionFailedException;
 import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.repository.CartItemRepository;
 import com.senibo.e_commerce_api.repository.CartRepository;
 import com.senibo.e_commerce_api.repository.ProductRepository;
 import com.senibo.e_commerce_api.repository.UserRepository;
 import com.senibo.e_commerce_api.service.CartService;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Implements the service for managing user shopping carts.
+ * <p>
+ * When the write-behind {@link CartStore} is enabled ({@code spring.app.cart-store.enabled}),
+ * carts are read and changed in memory and written to the database in the background. Only the
+ * database path runs in a transaction, so an in-memory change never checks out a connection.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class CartServiceImpl implements CartService {
 
     private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
     private final ProductRepository productRepository;
     private final UserRepository userRepository;
+    private final CartStore cartStore;
+    private final ProductCache productCache;
+    private final TransactionTemplate cartTransaction;
+
+    public CartServiceImpl(CartRepository cartRepository,
+                           CartItemRepository cartItemRepository,
+                           ProductRepository productRepository,
+                           UserRepository userRepository,
+                           CartStore cartStore,
+                           ProductCache productCache,
+                           PlatformTransactionManager transactionManager) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.cartStore = cartStore;
+        this.productCache = productCache;
+        // Database cart changes run at READ COMMITTED (see findOrCreateCartId), joining the caller's
+        // transaction if there is one
+        this.cartTransaction = new TransactionTemplate(transactionManager);
+        this.cartTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
 
     /**
      * Adds an item to the user's shopping cart or updates its quantity if it already exists.
+     * <p>
+     * The quantity is added in the database rather than read and written back, so concurrent adds
+     * to the same cart are never lost, and the cart then moves on to its next version.
      *
-     * @param userId  The ID of the user.
-     * @param request DTO containing the product ID and quantity to add.
+     * @param userId          The ID of the user.
+     * @param request         DTO containing the product ID and quantity to add.
+     * @param expectedVersion The cart version the client last saw, if the change is conditional.
      * @return The updated state of the cart as a DTO.
-     * @throws NotFoundException          if the user or product is not found.
-     * @throws InsufficientStockException if the requested quantity exceeds available stock.
+     * @throws NotFoundException           if the user or product is not found.
+     * @throws InsufficientStockException  if the requested quantity exceeds available stock.
+     * @throws PreconditionFailedException if the cart is no longer at the expected version.
      */
     @Override
-    @Transactional
-    public CartResponse addItemToCart(UUID userId, AddItemToCartRequest request) {
-        User user = userRepository.findById(userId)
-                                  .orElseThrow(() -> new NotFoundException("User not found"));
+    public CartResponse addItemToCart(UUID userId, AddItemToCartRequest request, Optional<Long> expectedVersion) {
+        if (cartStore.isEnabled()) {
+            ProductResponse product = productCache.get(request.productId(), this::loadProduct);
+            if (product.stockQuantity() < request.quantity()) {
+                throw new InsufficientStockException("Not enough stock for product: " + product.name());
+            }
+            return toResponse(cartStore.update(userId, expectedVersion, cart -> {
+                cart.add(product.id(), request.quantity());
+                return cart.contents();
+            }));
+        }
 
-        Cart cart = cartRepository.findByUserId(userId)
-                                  .orElseGet(() -> createNewCartForUser(user));
+        return cartTransaction.execute(status -> {
+            if (!userRepository.existsById(userId)) {
+                throw new NotFoundException("User not found");
+            }
 
-        Product product = productRepository.findById(request.productId())
-                                           .orElseThrow(() -> new NotFoundException(
-                                                   "Product not found"));
+            Product product = productRepository.findById(request.productId())
+                                               .orElseThrow(() -> new NotFoundException(
+                                                       "Product not found"));
 
-        if (product.getStockQuantity() < request.quantity()) {
-            throw new InsufficientStockException("Not enough stock for product: " + product.getName());
-        }
+            if (product.getStockQuantity() < request.quantity()) {
+                throw new InsufficientStockException("Not enough stock for product: " + product.getName());
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            UUID cartId = findOrCreateCartId(userId, now);
+            addQuantity(cartId, product.getId(), request.quantity(), now);
+            bumpVersion(cartId, expectedVersion, now);
+            return loadCart(cartId);
+        });
+    }
+
+    /**
+     * Adds several items to the user's shopping cart, or updates their quantities if they already
+     * exist, in one transaction.
+     * <p>
+     * All products are loaded with a single query and checked before the cart is touched, so
+     * either every item is applied or none is. A product listed more than once is added with the
+     * sum of its quantities. The cart moves on to its next version once, however many items change.
+     *
+     * @param userId          The ID of the user.
+     * @param request         DTO containing the product IDs and quantities to add.
+     * @param expectedVersion The cart version the client last saw, if the change is conditional.
+     * @return The updated state of the cart as a DTO.
+     * @throws NotFoundException           if the user or any of the products is not found.
+     * @throws InsufficientStockException  if a requested quantity exceeds available stock.
+     * @throws PreconditionFailedException if the cart is no longer at the expected version.
+     */
+    @Override
+    public CartResponse addItemsToCart(UUID userId, AddItemsToCartRequest request, Optional<Long> expectedVersion) {
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        request.items().forEach(item -> quantities.merge(item.productId(), item.quantity(), Integer::sum));
 
-        Optional<CartItem> existingItemOpt = cart.getCartItems().stream()
-                                                 .filter(item -> item.getProduct()
-                                                                     .getId()
-                                                                     .equals(product.getId()))
-                                                 .findFirst();
-
-        if (existingItemOpt.isPresent()) {
-            // If item exists, update its quantity
-            CartItem existingItem = existingItemOpt.get();
-            existingItem.setQuantity(existingItem.getQuantity() + request.quantity());
-        } else {
-            // If item is new, create a new CartItem and add it to the cart
-            CartItem newItem = new CartItem();
-            newItem.setCart(cart);
-            newItem.setProduct(product);
-            newItem.setQuantity(request.quantity());
-            cart.getCartItems().add(newItem);
+        if (cartStore.isEnabled()) {
+            Map<UUID, ProductResponse> products = productCache.getAll(quantities.keySet(),
+                                                                      productRepository::findResponsesByIds);
+            checkAvailable(quantities, products, ProductResponse::stockQuantity, ProductResponse::name);
+            return toResponse(cartStore.update(userId, expectedVersion, cart -> {
+                quantities.forEach(cart::add);
+                return cart.contents();
+            }));
         }
 
-        Cart savedCart = cartRepository.save(cart);
-        return CartResponse.fromEntity(savedCart);
+        return cartTransaction.execute(status -> {
+            if (!userRepository.existsById(userId)) {
+                throw new NotFoundException("User not found");
+            }
+
+            Map<UUID, Product> products = productRepository.findAllById(quantities.keySet())
+                                                            .stream()
+                                                            .collect(Collectors.toMap(Product::getId,
+                                                                                      Function.identity()));
+            checkAvailable(quantities, products, Product::getStockQuantity, Product::getName);
+
+            LocalDateTime now = LocalDateTime.now();
+            UUID cartId = findOrCreateCartId(userId, now);
+            // In ID order, so two requests adding the same products lock their lines in the same order
+            new TreeMap<>(quantities).forEach((productId, quantity) ->
+                                                      addQuantity(cartId, productId, quantity, now));
+            bumpVersion(cartId, expectedVersion, now);
+            return loadCart(cartId);
+        });
     }
 
     /**
-     * Retrieves the cart for a specific user.
+     * Retrieves the cart for a specific user, with its items and their products, in one query.
      *
      * @param userId The ID of the user whose cart is to be retrieved.
      * @return The user's cart as a DTO, or an empty cart DTO if none exists.
      */
     @Override
     public CartResponse getCartForUser(UUID userId) {
-        return cartRepository.findByUserId(userId)
-                             .map(CartResponse::fromEntity)
-                             .orElseGet(() -> new CartResponse(null,
-                                                               Collections.emptyList(),
-                                                               0,
-                                                               BigDecimal.ZERO));
+        if (cartStore.isEnabled()) {
+            return toResponse(cartStore.read(userId, CartStore.ActiveCart::contents));
+        }
+        List<CartRow> rows = cartRepository.findRowsByUserId(userId);
+        if (!rows.isEmpty()) {
+            return CartResponse.fromRows(rows);
+        }
+        return new CartResponse(null,
+                                Collections.emptyList(),
+                                0,
+                                BigDecimal.ZERO,
+                                null);
     }
 
     /**
      * Removes a specific item from a user's cart.
      *
-     * @param userId The ID of the user.
-     * @param itemId The ID of the cart item to be removed.
+     * @param userId          The ID of the user.
+     * @param itemId          The ID of the cart item to be removed.
+     * @param expectedVersion The cart version the client last saw, if the change is conditional.
      * @return The updated state of the cart as a DTO.
-     * @throws NotFoundException if the cart or the item within the cart is not found.
+     * @throws NotFoundException           if the cart or the item within the cart is not found.
+     * @throws PreconditionFailedException if the cart is no longer at the expected version.
      */
     @Override
-    @Transactional
-    public CartResponse removeItemFromCart(UUID userId, UUID itemId) {
-        Cart cart = cartRepository.findByUserId(userId)
-                                  .orElseThrow(() -> new NotFoundException(
-                                          "Cart not found for user."));
+    public CartResponse removeItemFromCart(UUID userId, UUID itemId, Optional<Long> expectedVersion) {
+        if (cartStore.isEnabled()) {
+            return toResponse(cartStore.update(userId, expectedVersion, cart -> {
+                CartStore.Line removed = cart.removeItem(itemId)
+                                             .orElseThrow(() -> new NotFoundException(
+                                                     "Cart item not found in your cart."));
+                log.info("User '{}' removing cart item '{}' (Product: {})",
+                         userId, itemId, removed.productId());
+                return cart.contents();
+            }));
+        }
 
-        CartItem itemToRemove = cart.getCartItems().stream()
-                                    .filter(item -> item.getId().equals(itemId))
-                                    .findFirst()
-                                    .orElseThrow(() -> new NotFoundException(
-                                            "Cart item not found in your cart."));
+        return cartTransaction.execute(status -> {
+            UUID cartId = cartRepository.findIdByUserId(userId)
+                                        .orElseThrow(() -> new NotFoundException(
+                                                "Cart not found for user."));
 
-        log.info("User '{}' removing cart item '{}' (Product: {})",
-                 userId, itemId, itemToRemove.getProduct().getName());
+            if (cartItemRepository.deleteFromCart(itemId, cartId) == 0) {
+                throw new NotFoundException("Cart item not found in your cart.");
+            }
+            bumpVersion(cartId, expectedVersion, LocalDateTime.now());
+            log.info("User '{}' removed cart item '{}'", userId, itemId);
 
-        cart.getCartItems().remove(itemToRemove);
+            return loadCart(cartId);
+        });
+    }
 
-        Cart updatedCart = cartRepository.save(cart);
+    /**
+     * Empties a user's cart, such as once its order has been paid.
+     * <p>
+     * With the {@link CartStore} enabled the in-memory cart is emptied, and written by the next
+     * flush, once the calling transaction commits; clearing only the database would let the next
+     * flush write the purchased lines back.
+     *
+     * @param userId The ID of the user.
+     */
+    @Override
+    public void clearCart(UUID userId) {
+        if (cartStore.isEnabled()) {
+            Runnable clear = () -> cartStore.update(userId, Optional.empty(), cart -> {
+                cart.clear();
+                return null;
+            });
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        clear.run();
+                    }
+                });
+            } else {
+                clear.run();
+            }
+            log.info("Cart for user {} has been cleared in the cart store.", userId);
+            return;
+        }
+
+        cartTransaction.executeWithoutResult(status -> {
+            cartRepository.findIdByUserId(userId).ifPresent(cartId -> {
+                cartItemRepository.deleteAllFromCart(cartId);
+                bumpVersion(cartId, Optional.empty(), LocalDateTime.now());
+            });
+        });
+        log.info("Cart for user {} has been cleared.", userId);
+    }
 
-        return CartResponse.fromEntity(updatedCart);
+    /**
+     * Returns the ID of the user's cart, creating an empty one if needed. Creating the cart is an
+     * upsert against the unique key on {@code user_id}, so concurrent first adds end up sharing one
+     * cart.
+     * <p>
+     * The mutations run at READ COMMITTED: under MySQL's default REPEATABLE READ, the re-read after
+     * losing the race would still see the snapshot taken by the first read of the transaction,
+     * which predates the winner's cart, and the response would miss lines committed since.
+     */
+    private UUID findOrCreateCartId(UUID userId, LocalDateTime now) {
+        return cartRepository.findIdByUserId(userId).orElseGet(() -> {
+            cartRepository.insertIfAbsent(UUID.randomUUID(), userId, now);
+            return cartRepository.findIdByUserId(userId)
+                                 .orElseThrow(() -> new IllegalStateException(
+                                         "Cart for user " + userId + " was not created"));
+        });
     }
 
     /**
-     * A private helper method to create and persist a new, empty cart for a user.
+     * Moves a cart on to its next version, as the last statement of a change. The line changes
+     * before it only lock the lines they touch, so concurrent changes to different lines of one
+     * cart overlap, and wait for each other only on this update, held for the commit alone. A
+     * failed version check rolls the line changes back with the rest of the transaction.
      *
-     * @param user The user for whom to create the cart.
-     * @return The newly created Cart entity.
+     * @throws PreconditionFailedException if the cart is no longer at the expected version.
      */
-    private Cart createNewCartForUser(User user) {
-        Cart newCart = new Cart();
-        newCart.setUser(user);
-        return cartRepository.save(newCart);
+    private void bumpVersion(UUID cartId, Optional<Long> expectedVersion, LocalDateTime now) {
+        if (expectedVersion.isEmpty()) {
+            cartRepository.incrementVersion(cartId, now);
+        } else if (cartRepository.incrementVersionIfMatches(cartId, expectedVersion.get(), now) == 0) {
+            throw new PreconditionFailedException(
+                    "The cart has changed since version " + expectedVersion.get() + ".");
+        }
+    }
+
+    private void addQuantity(UUID cartId, UUID productId, int quantity, LocalDateTime now) {
+        if (cartItemRepository.incrementQuantity(cartId, productId, quantity, now) == 0) {
+            cartItemRepository.insertOrIncrement(UUID.randomUUID(), cartId, productId, quantity, now);
+        }
+    }
+
+    private CartResponse loadCart(UUID cartId) {
+        List<CartRow> rows = cartRepository.findRowsById(cartId);
+        if (rows.isEmpty()) {
+            throw new NotFoundException("Cart not found for user.");
+        }
+        return CartResponse.fromRows(rows);
+    }
+
+    /**
+     * Builds the response for a cart held in the {@link CartStore}, reading its products from the
+     * product cache and loading any misses with one query. Lines whose product no longer exists
+     * are left out.
+     */
+    private CartResponse toResponse(CartStore.Contents contents) {
+        Map<UUID, ProductResponse> products = productCache.getAll(
+                contents.lines().stream().map(CartStore.Line::productId).toList(),
+                productRepository::findResponsesByIds);
+        List<CartItemResponse> items = contents.lines()
+                                               .stream()
+                                               .filter(line -> products.containsKey(line.productId()))
+                                               .map(line -> CartItemResponse.of(line.itemId(),
+                                                                                products.get(line.productId()),
+                                                                                line.quantity()))
+                                               .toList();
+        return CartResponse.of(contents.cartId(), contents.version(), items);
+    }
+
+    /**
+     * Checks that every requested product exists and has enough stock for its quantity.
+     */
+    private static <P> void checkAvailable(Map<UUID, Integer> quantities,
+                                           Map<UUID, P> products,
+                                           Function<P, Integer> stockQuantity,
+                                           Function<P, String> name) {
+        List<UUID> missing = quantities.keySet()
+                                       .stream()
+                                       .filter(productId -> !products.containsKey(productId))
+                                       .toList();
+        if (!missing.isEmpty()) {
+            throw new NotFoundException("Products not found: " + missing);
+        }
+        quantities.forEach((productId, quantity) -> {
+            P product = products.get(productId);
+            if (stockQuantity.apply(product) < quantity) {
+                throw new InsufficientStockException("Not enough stock for product: " + name.apply(product));
+            }
+        });
+    }
+
+    private ProductResponse loadProduct(UUID id) {
+        return productRepository.findById(id)
+                                .map(ProductResponse::fromEntity)
+                                .orElseThrow(() -> new NotFoundException("Product not found"));
     }
 }
@@ -1,8 +1,11 @@
 package com.senibo.e_commerce_api.service.impl;
 
+import com.senibo.e_commerce_api.cart.CartStore;
 import com.senibo.e_commerce_api.dto.ApiSuccessResponse;
 import com.senibo.e_commerce_api.dto.PagedResult;
 import com.senibo.e_commerce_api.dto.order.OrderDTO;
+import com.senibo.e_commerce_api.inventory.StockReservations;
+import com.senibo.e_commerce_api.exception.general.InsufficientStockException;
 import com.senibo.e_commerce_api.exception.general.InvalidOperationException;
 import com.senibo.e_commerce_api.exception.general.NotFoundException;
 import com.senibo.e_commerce_api.model.auth.User;
@@ -39,21 +42,29 @@ public class OrderServiceImpl implements OrderService {
 
     private final OrderRepository orderRepository;
     private final CartRepository cartRepository;
+    private final CartStore cartStore;
+    private final StockReservations stockReservations;
     private final UserRepository userRepository;
     private final PaginationValidator paginationValidator;
 
     /**
-     * Creates a permanent order from a user's current shopping cart.
+     * Creates a permanent order from a user's current shopping cart, and holds its stock until the
+     * order is paid or the hold expires.
      * This operation is transactional: it succeeds completely or not at all.
      *
      * @param userId The ID of the user placing the order.
      * @return The newly created Order entity.
-     * @throws NotFoundException         if the user or their cart is not found.
-     * @throws InvalidOperationException if the cart is empty.
+     * @throws NotFoundException          if the user or their cart is not found.
+     * @throws InvalidOperationException  if the cart is empty.
+     * @throws InsufficientStockException if a product does not have enough units left once other
+     *                                    buyers' holds are taken into account.
      */
     @Override
     @Transactional
     public Order createOrderFromCart(UUID userId) {
+        // Cart changes still held in memory must be in the database before it is read
+        cartStore.flush(userId);
+
         User user = userRepository.findById(userId)
                                   .orElseThrow(() -> new NotFoundException("User not found"));
 
@@ -89,7 +100,9 @@ public class OrderServiceImpl implements OrderService {
 
         order.setTotalAmount(totalAmount);
 
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        stockReservations.reserve(savedOrder);
+        return savedOrder;
     }
 
 
@@ -1,21 +1,24 @@
 package com.senibo.e_commerce_api.service.impl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.senibo.e_commerce_api.catalog.OrderPaidEvent;
+import com.senibo.e_commerce_api.catalog.ProductSale;
 import com.senibo.e_commerce_api.client.PaystackClient;
 import com.senibo.e_commerce_api.client.dto.PaystackInitRequest;
 import com.senibo.e_commerce_api.client.dto.PaystackInitResponse;
 import com.senibo.e_commerce_api.client.dto.PaystackWebhookPayload;
 import com.senibo.e_commerce_api.exception.general.NotFoundException;
-import com.senibo.e_commerce_api.model.cart.Cart;
+import com.senibo.e_commerce_api.inventory.StockReservations;
 import com.senibo.e_commerce_api.model.order.Order;
 import com.senibo.e_commerce_api.model.order.OrderStatus;
-import com.senibo.e_commerce_api.repository.CartRepository;
 import com.senibo.e_commerce_api.repository.OrderRepository;
+import com.senibo.e_commerce_api.service.CartService;
 import com.senibo.e_commerce_api.service.OrderService;
 import com.senibo.e_commerce_api.service.PaymentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,6 +28,8 @@ import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -38,7 +43,9 @@ public class PaymentServiceImpl implements PaymentService {
     private final OrderService orderService;
     private final PaystackClient paystackClient;
     private final ObjectMapper objectMapper;
-    private final CartRepository cartRepository; //Inject the CartRepository
+    private final CartService cartService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StockReservations stockReservations;
 
     @Value("${spring.app.paystack-test-secret-key}")
     private String paystackSecretKey;
@@ -95,24 +102,51 @@ public class PaymentServiceImpl implements PaymentService {
                 log.info("Received successful charge event for reference: {}",
                          payload.data().reference());
 
-                Order order = orderRepository.findByPaymentReference(payload.data().reference())
+                // Locked so that an expiring stock hold cannot cancel the order while it is being paid
+                Order order = orderRepository.findWithLockByPaymentReference(payload.data().reference())
                                              .orElseThrow(() -> new NotFoundException(
                                                      "Order not found for payment reference: " + payload.data()
                                                                                                         .reference()));
 
+                switch (order.getOrderStatus()) {
+                    case PENDING -> {
+                        // Still held, so its units are waiting to be committed
+                    }
+                    case CANCELLED -> {
+                        if (order.getRefundDueAt() != null) {
+                            log.info("Order {} is already due a refund; ignoring repeated webhook.", order.getId());
+                            return;
+                        }
+                        // The hold expired before the payment arrived, and its units may have been
+                        // sold since; the payment is only honoured if they are still available
+                        if (!stockReservations.reinstate(order)) {
+                            order.setRefundDueAt(LocalDateTime.now());
+                            orderRepository.save(order);
+                            log.error("Order {} was paid after it was cancelled and its stock is gone; "
+                                      + "payment {} must be refunded.", order.getId(), payload.data().reference());
+                            return;
+                        }
+                        log.warn("Order {} was paid after it was cancelled; its stock was held again.",
+                                 order.getId());
+                    }
+                    default -> {
+                        // Paystack retries webhooks, so a repeated confirmation must not count the sale twice
+                        log.info("Order {} is already {}; ignoring repeated webhook.", order.getId(),
+                                 order.getOrderStatus());
+                        return;
+                    }
+                }
+
                 order.setOrderStatus(OrderStatus.PAID);
+                order.setPaidAt(LocalDateTime.now());
                 orderRepository.save(order);
                 log.info("Order {} has been updated to PAID.", order.getId());
+                eventPublisher.publishEvent(toPaidEvent(order));
+                // Clears the persistence context, so it comes after everything that reads the order's items
+                stockReservations.commit(order);
 
-                // --- THIS IS THE NEW LOGIC ---
                 // After confirming the order is paid, we now clear the user's cart.
-                Cart cart = cartRepository.findByUserId(order.getUser().getId())
-                                          .orElseThrow(() -> new NotFoundException(
-                                                  "Cart not found for user after successful payment."));
-                cart.getCartItems().clear();
-                cartRepository.save(cart);
-                log.info("Cart for user {} has been cleared.", order.getUser().getId());
-                // -----------------------------
+                cartService.clearCart(order.getUser().getId());
             }
         } catch (Exception e) {
             log.error("Error processing Paystack webhook", e);
@@ -120,6 +154,17 @@ public class PaymentServiceImpl implements PaymentService {
         }
     }
 
+    private static OrderPaidEvent toPaidEvent(Order order) {
+        List<ProductSale> sales = order.getOrderItems().stream()
+                                       .map(item -> new ProductSale(order.getId(),
+                                                                    item.getProduct().getId(),
+                                                                    item.getProduct().getCategory(),
+                                                                    item.getQuantity(),
+                                                                    order.getPaidAt()))
+                                       .toList();
+        return new OrderPaidEvent(order.getId(), sales);
+    }
+
     /**
      * Verifies the webhook signature using an HMAC-SHA512 algorithm.
      *
@@ -0,0 +1,86 @@
+package com.senibo.e_commerce_api.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.senibo.e_commerce_api.dto.product.ProductResponse;
+import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.repository.ProductRepository;
+import com.senibo.e_commerce_api.service.ProductExportService;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Implements the catalog export.
+ * <p>
+ * Products are read through a forward-only database cursor and written out as they arrive, each
+ * one detached as soon as it has been written. Memory use therefore stays constant regardless of
+ * the catalog size, and there are no offset scans or count queries.
+ */
+@Service
+@Slf4j
+public class ProductExportServiceImpl implements ProductExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte NEWLINE = '\n';
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter writer;
+
+    public ProductExportServiceImpl(ProductRepository productRepository,
+                                    EntityManager entityManager,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        // The export usually runs on an async thread, so it opens its own transaction for the cursor
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.writer = objectMapper.writerFor(ProductResponse.class);
+    }
+
+    @Override
+    public long exportProducts(OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        BufferedOutputStream buffered = new BufferedOutputStream(out, BUFFER_SIZE);
+
+        Long written;
+        try {
+            written = readOnlyTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<Product> products = productRepository.streamAll()) {
+                    Iterator<Product> iterator = products.iterator();
+                    while (iterator.hasNext()) {
+                        Product product = iterator.next();
+                        buffered.write(writer.writeValueAsBytes(ProductResponse.fromEntity(product)));
+                        buffered.write(NEWLINE);
+                        entityManager.detach(product);
+                        count++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return count;
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-export
+            log.warn("Product export aborted: {}", e.getCause().getMessage());
+            throw e.getCause();
+        }
+        buffered.flush();
+
+        log.info("Exported {} products in {} ms", written, (System.nanoTime() - start) / 1_000_000);
+        return written == null ? 0 : written;
+    }
+}
@@ -0,0 +1,217 @@
+package com.senibo.e_commerce_api.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.senibo.e_commerce_api.catalog.ProductsChangedEvent;
+import com.senibo.e_commerce_api.dto.ApiSuccessResponse;
+import com.senibo.e_commerce_api.dto.product.CreateProductRequest;
+import com.senibo.e_commerce_api.dto.product.ProductImportResult;
+import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.repository.ProductRepository;
+import com.senibo.e_commerce_api.service.ProductImportService;
+import com.senibo.e_commerce_api.util.ProductImportReader;
+import com.senibo.e_commerce_api.util.SkuGenerator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Implements bulk product imports.
+ * <p>
+ * The upload is read one row at a time and processed in chunks. Each chunk checks its names and
+ * allocates its SKUs with a handful of bulk queries, then inserts all of its products in its own
+ * transaction, which Hibernate sends as JDBC batches (see {@code hibernate.jdbc.batch_size}).
+ * A chunk that fails to commit only rejects its own rows; earlier chunks stay imported.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductImportServiceImpl implements ProductImportService {
+
+    /**
+     * Row errors beyond this many are counted but not listed in the response.
+     */
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final ProductRepository productRepository;
+    private final SkuGenerator skuGenerator;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${spring.app.product-import.chunk-size:1000}")
+    private int chunkSize;
+
+    /**
+     * Creates products from an NDJSON or CSV upload.
+     * <p>
+     * Rows are rejected individually if they cannot be parsed, fail the same validation as a
+     * single product creation, or reuse a name that exists in the catalog or earlier in the upload.
+     *
+     * @param body        The upload, which is never buffered as a whole.
+     * @param contentType {@code application/x-ndjson} or {@code text/csv}.
+     * @return A report of the imported and rejected rows.
+     * @throws IOException if the upload cannot be read. Chunks imported before the failure remain.
+     */
+    @Override
+    public ApiSuccessResponse<ProductImportResult> importProducts(InputStream body,
+                                                                  String contentType) throws IOException {
+        ProductImportReader.Format format = ProductImportReader.Format.fromContentType(contentType);
+        long start = System.nanoTime();
+        Report report = new Report();
+        Set<String> seenNames = new HashSet<>();
+        List<ProductImportReader.Row> chunk = new ArrayList<>(chunkSize);
+
+        try (ProductImportReader reader = ProductImportReader.open(body, format, objectMapper)) {
+            ProductImportReader.Row row;
+            while ((row = reader.next()) != null) {
+                report.totalRows++;
+                String error = row.error() != null ? row.error() : validate(row.request());
+                if (error == null && !seenNames.add(normalizeName(row.request().name()))) {
+                    error = "Duplicate name '" + row.request().name() + "' in this upload";
+                }
+                if (error != null) {
+                    report.reject(row.lineNumber(), error);
+                    continue;
+                }
+
+                chunk.add(row);
+                if (chunk.size() >= chunkSize) {
+                    importChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(chunk, report);
+            }
+        } catch (IOException e) {
+            log.warn("Product import aborted after {} rows ({} imported): {}",
+                     report.totalRows, report.imported, e.getMessage());
+            throw e;
+        }
+
+        long durationMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Imported {} of {} products in {} ms", report.imported, report.totalRows, durationMs);
+
+        ProductImportResult result = new ProductImportResult(report.totalRows,
+                                                             report.imported,
+                                                             report.failed,
+                                                             report.errors,
+                                                             report.failed > report.errors.size(),
+                                                             durationMs);
+        return new ApiSuccessResponse<>(true,
+                                        "Imported " + report.imported + " of " + report.totalRows + " products",
+                                        result);
+    }
+
+    /**
+     * Rejects rows whose name is already taken, allocates SKUs and inserts the rest in one
+     * transaction.
+     */
+    private void importChunk(List<ProductImportReader.Row> chunk, Report report) {
+        Set<String> existingNames = productRepository
+                .findExistingNames(chunk.stream().map(row -> row.request().name()).toList())
+                .stream()
+                .map(ProductImportServiceImpl::normalizeName)
+                .collect(Collectors.toSet());
+
+        List<ProductImportReader.Row> accepted = new ArrayList<>(chunk.size());
+        for (ProductImportReader.Row row : chunk) {
+            if (existingNames.contains(normalizeName(row.request().name()))) {
+                report.reject(row.lineNumber(),
+                              "Product with name " + row.request().name() + " already exists");
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        List<CreateProductRequest> requests = accepted.stream().map(ProductImportReader.Row::request).toList();
+        List<String> skus = skuGenerator.generateUniqueSkus(requests);
+        List<Product> products = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            CreateProductRequest request = requests.get(i);
+            products.add(Product.builder()
+                                .name(request.name())
+                                .description(request.description())
+                                .price(request.price())
+                                .stockQuantity(request.stockQuantity())
+                                .category(request.category())
+                                .imageUrl(request.imageUrl())
+                                .sku(skus.get(i))
+                                .build());
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                products.forEach(entityManager::persist);
+                entityManager.flush();
+                // The request may share one persistence context across chunks; don't let it grow
+                entityManager.clear();
+            });
+        } catch (PersistenceException | DataAccessException | TransactionException e) {
+            String reason = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.warn("Product import chunk of {} rows failed: {}", accepted.size(), reason);
+            accepted.forEach(row -> report.reject(row.lineNumber(), "Could not be saved: " + reason));
+            return;
+        }
+
+        report.imported += products.size();
+        eventPublisher.publishEvent(new ProductsChangedEvent(products));
+    }
+
+    /**
+     * Applies the bean validation constraints of {@link CreateProductRequest}.
+     *
+     * @return The violations joined into one message, or {@code null} if the row is valid.
+     */
+    private String validate(CreateProductRequest request) {
+        Set<ConstraintViolation<CreateProductRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                         .map(v -> v.getPropertyPath() + ": " + v.getMessage().trim())
+                         .sorted()
+                         .collect(Collectors.joining("; "));
+    }
+
+    private static String normalizeName(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Running totals of an import.
+     */
+    private static final class Report {
+        private long totalRows;
+        private long imported;
+        private long failed;
+        private final List<ProductImportResult.RowError> errors = new ArrayList<>();
+
+        void reject(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ProductImportResult.RowError(line, message));
+            }
+        }
+    }
+}
@@ -1,41 +1,147 @@
 package com.senibo.e_commerce_api.service.impl;
 
+import com.senibo.e_commerce_api.catalog.BestsellerRanking;
+import com.senibo.e_commerce_api.catalog.CatalogGeneration;
+import com.senibo.e_commerce_api.catalog.InMemoryCatalog;
+import com.senibo.e_commerce_api.catalog.ProductAutocomplete;
+import com.senibo.e_commerce_api.catalog.ProductCache;
+import com.senibo.e_commerce_api.catalog.ProductCountCache;
+import com.senibo.e_commerce_api.catalog.ProductFilter;
+import com.senibo.e_commerce_api.catalog.ProductListingCache;
+import com.senibo.e_commerce_api.catalog.ProductPopularity;
+import com.senibo.e_commerce_api.catalog.ProductSearchIndex;
+import com.senibo.e_commerce_api.catalog.ProductsChangedEvent;
 import com.senibo.e_commerce_api.dto.ApiSuccessResponse;
+import com.senibo.e_commerce_api.dto.CountMode;
 import com.senibo.e_commerce_api.dto.PagedResult;
+import com.senibo.e_commerce_api.dto.product.BestsellerResponse;
+import com.senibo.e_commerce_api.dto.product.BestsellerWindow;
+import com.senibo.e_commerce_api.dto.product.BulkProductUpdateRequest;
+import com.senibo.e_commerce_api.dto.product.BulkProductUpdateResult;
 import com.senibo.e_commerce_api.dto.product.CreateProductRequest;
+import com.senibo.e_commerce_api.dto.product.ProductBatchResponse;
+import com.senibo.e_commerce_api.dto.product.ProductCacheStats;
+import com.senibo.e_commerce_api.dto.product.ProductFacetsResponse;
 import com.senibo.e_commerce_api.dto.product.ProductResponse;
+import com.senibo.e_commerce_api.dto.product.ProductSuggestion;
 import com.senibo.e_commerce_api.dto.product.UpdateProductRequest;
+import com.senibo.e_commerce_api.exception.general.InvalidOperationException;
 import com.senibo.e_commerce_api.exception.general.NotFoundException;
 import com.senibo.e_commerce_api.exception.general.ResourceConflictException;
+import com.senibo.e_commerce_api.exception.general.ServiceUnavailableException;
 import com.senibo.e_commerce_api.model.product.Product;
 import com.senibo.e_commerce_api.model.product.ProductCategory;
 import com.senibo.e_commerce_api.repository.ProductRepository;
 import com.senibo.e_commerce_api.service.ProductService;
 import com.senibo.e_commerce_api.util.PaginationValidator;
+import com.senibo.e_commerce_api.util.ProductCursor;
 import com.senibo.e_commerce_api.util.ProductSpecification;
 import com.senibo.e_commerce_api.util.SkuGenerator;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.util.Optional;
-import java.util.UUID;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Implements the service for managing the product catalog.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ProductServiceImpl implements ProductService {
 
+    /**
+     * Sort key that orders search results by how well they match the search term.
+     */
+    private static final String SORT_BY_RELEVANCE = "relevance";
+    private static final String DEFAULT_SORT_BY = "createdAt";
+    private static final int MAX_PRICE_BUCKETS = 50;
+    private static final int BULK_UPDATE_BATCH_SIZE = 500;
+    private static final int MAX_BATCH_IDS = 100;
+    private static final int MAX_BESTSELLERS = 50;
+    // Search index matches beyond this are filtered with LIKE rather than bound as an IN list
+    private static final int MAX_CANDIDATE_IDS = 1000;
+
+    /**
+     * Updates a product's price and/or stock by SKU. A {@code NULL} parameter keeps the current value.
+     */
+    private static final String BULK_UPDATE_SQL = """
+            UPDATE products
+               SET price = COALESCE(?, price),
+                   stock_quantity = COALESCE(?, stock_quantity),
+                   updated_at = ?
+             WHERE sku = ?
+            """;
+
     private final ProductRepository productRepository;
     private final SkuGenerator skuGenerator;
     private final PaginationValidator paginationValidator;
+    private final ProductCache productCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductCountCache productCountCache;
+    private final CatalogGeneration catalogGeneration;
+    private final ProductListingCache productListingCache;
+    private final InMemoryCatalog inMemoryCatalog;
+    private final ProductPopularity productPopularity;
+    private final ProductAutocomplete productAutocomplete;
+    private final BestsellerRanking bestsellerRanking;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final List<BigDecimal> defaultPriceBoundaries;
+    private final boolean catalogEngineEnabled;
+
+    public ProductServiceImpl(ProductRepository productRepository,
+                              SkuGenerator skuGenerator,
+                              PaginationValidator paginationValidator,
+                              ProductCache productCache,
+                              ProductSearchIndex productSearchIndex,
+                              ProductCountCache productCountCache,
+                              CatalogGeneration catalogGeneration,
+                              ProductListingCache productListingCache,
+                              InMemoryCatalog inMemoryCatalog,
+                              ProductPopularity productPopularity,
+                              ProductAutocomplete productAutocomplete,
+                              BestsellerRanking bestsellerRanking,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${spring.app.facets.price-boundaries:0,25,50,100,250,500,1000}")
+                              List<BigDecimal> defaultPriceBoundaries,
+                              @Value("${spring.app.catalog-engine.enabled:false}") boolean catalogEngineEnabled) {
+        this.productRepository = productRepository;
+        this.skuGenerator = skuGenerator;
+        this.paginationValidator = paginationValidator;
+        this.productCache = productCache;
+        this.productSearchIndex = productSearchIndex;
+        this.productCountCache = productCountCache;
+        this.catalogGeneration = catalogGeneration;
+        this.productListingCache = productListingCache;
+        this.inMemoryCatalog = inMemoryCatalog;
+        this.productPopularity = productPopularity;
+        this.productAutocomplete = productAutocomplete;
+        this.bestsellerRanking = bestsellerRanking;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.defaultPriceBoundaries = defaultPriceBoundaries;
+        this.catalogEngineEnabled = catalogEngineEnabled;
+    }
 
     /**
      * Creates a new product in the catalog.
@@ -64,6 +170,8 @@ public class ProductServiceImpl implements ProductService {
 
         Product savedProduct = productRepository.save(product);
         ProductResponse response = ProductResponse.fromEntity(savedProduct);
+        productCache.put(response);
+        eventPublisher.publishEvent(ProductsChangedEvent.of(savedProduct));
         return new ApiSuccessResponse<>(true, "Product created successfully", response);
     }
 
@@ -91,46 +199,379 @@ public class ProductServiceImpl implements ProductService {
 
         Product updatedProduct = productRepository.save(product);
         ProductResponse response = ProductResponse.fromEntity(updatedProduct);
+        // Refresh the cached copy so the admin's next read reflects this edit
+        productCache.put(response);
+        eventPublisher.publishEvent(ProductsChangedEvent.of(updatedProduct));
         return new ApiSuccessResponse<>(true, "Product updated successfully", response);
     }
 
+    /**
+     * Applies a batch of price and/or stock changes as batched SQL UPDATEs, without loading or
+     * dirty-checking any entities.
+     * <p>
+     * Items addressed by ID are first resolved to their SKUs with a single query, so every update
+     * can be keyed by the unique SKU column. The updates are then sent as JDBC batches in one
+     * transaction. Afterwards the touched products are read back once to refresh the product cache,
+     * and a single {@link ProductsChangedEvent} covers the whole batch.
+     *
+     * @param request The changes to apply.
+     * @return A success response with one result per item, in request order.
+     */
+    @Override
+    public ApiSuccessResponse<BulkProductUpdateResult> bulkUpdateProducts(
+            BulkProductUpdateRequest request) {
+        List<BulkProductUpdateRequest.Item> items = request.items();
+        BulkProductUpdateResult.ItemResult[] results = new BulkProductUpdateResult.ItemResult[items.size()];
+
+        Set<UUID> ids = items.stream()
+                             .map(BulkProductUpdateRequest.Item::id)
+                             .filter(Objects::nonNull)
+                             .collect(Collectors.toSet());
+        Map<UUID, String> skusById = productRepository.findResponsesByIds(ids)
+                                                      .stream()
+                                                      .collect(Collectors.toMap(ProductResponse::id,
+                                                                                ProductResponse::sku));
+
+        List<PendingUpdate> pending = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BulkProductUpdateRequest.Item item = items.get(i);
+            boolean hasSku = item.sku() != null && !item.sku().isBlank();
+            if ((item.id() == null) == !hasSku) {
+                results[i] = failedItem(i, item, BulkProductUpdateResult.Status.INVALID,
+                                        "Exactly one of id or sku is required");
+            } else if (item.price() == null && item.stockQuantity() == null) {
+                results[i] = failedItem(i, item, BulkProductUpdateResult.Status.INVALID,
+                                        "Nothing to update: give a price and/or stock_quantity");
+            } else {
+                String sku = hasSku ? item.sku().trim() : skusById.get(item.id());
+                if (sku == null) {
+                    results[i] = failedItem(i, item, BulkProductUpdateResult.Status.NOT_FOUND,
+                                            "Product with id " + item.id() + " not found");
+                } else {
+                    pending.add(new PendingUpdate(i, sku, item));
+                }
+            }
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int[][] updateCounts = pending.isEmpty()
+                ? new int[0][]
+                : transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(
+                        BULK_UPDATE_SQL, pending, BULK_UPDATE_BATCH_SIZE, (ps, update) -> {
+                            ps.setObject(1, update.item().price(), Types.DECIMAL);
+                            ps.setObject(2, update.item().stockQuantity(), Types.INTEGER);
+                            ps.setTimestamp(3, now);
+                            ps.setString(4, update.sku());
+                        }));
+
+        List<PendingUpdate> applied = new ArrayList<>(pending.size());
+        int next = 0;
+        for (int[] batch : updateCounts) {
+            for (int count : batch) {
+                PendingUpdate update = pending.get(next++);
+                if (count == 0) {
+                    results[update.index()] = failedItem(update.index(), update.item(),
+                                                         BulkProductUpdateResult.Status.NOT_FOUND,
+                                                         "Product with sku " + update.sku() + " not found");
+                } else {
+                    applied.add(update);
+                }
+            }
+        }
+
+        // Read the new state back once, for the caches, the in-memory read models and the results
+        Map<String, Product> productsBySku = productRepository
+                .findAllBySkuIn(applied.stream().map(PendingUpdate::sku).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(p -> p.getSku().toUpperCase(Locale.ROOT), Function.identity()));
+        int updatedCount = 0;
+        for (PendingUpdate update : applied) {
+            Product product = productsBySku.get(update.sku().toUpperCase(Locale.ROOT));
+            if (product == null) {
+                // Only possible if the driver reported no row count for the statement
+                results[update.index()] = failedItem(update.index(), update.item(),
+                                                     BulkProductUpdateResult.Status.NOT_FOUND,
+                                                     "Product with sku " + update.sku() + " not found");
+                continue;
+            }
+            results[update.index()] = new BulkProductUpdateResult.ItemResult(
+                    update.index(), product.getId(), product.getSku(),
+                    BulkProductUpdateResult.Status.UPDATED, null);
+            updatedCount++;
+        }
+
+        List<Product> updatedProducts = List.copyOf(productsBySku.values());
+        if (!updatedProducts.isEmpty()) {
+            updatedProducts.forEach(product -> productCache.put(ProductResponse.fromEntity(product)));
+            eventPublisher.publishEvent(new ProductsChangedEvent(updatedProducts));
+        }
+
+        BulkProductUpdateResult result = new BulkProductUpdateResult(updatedCount,
+                                                                     items.size() - updatedCount,
+                                                                     Arrays.asList(results));
+        return new ApiSuccessResponse<>(true,
+                                        "Updated " + updatedCount + " of " + items.size() + " products",
+                                        result);
+    }
+
+    /**
+     * A bulk update item that passed validation, with the SKU it will be applied to.
+     */
+    private record PendingUpdate(int index, String sku, BulkProductUpdateRequest.Item item) {
+    }
+
+    private static BulkProductUpdateResult.ItemResult failedItem(int index,
+                                                                 BulkProductUpdateRequest.Item item,
+                                                                 BulkProductUpdateResult.Status status,
+                                                                 String message) {
+        return new BulkProductUpdateResult.ItemResult(index, item.id(), item.sku(), status, message);
+    }
+
     /**
      * Finds and returns a paginated and filtered list of all products.
+     * <p>
+     * When a search term is given and the in-memory search index can answer it, the index
+     * resolves the matching product IDs and the database only applies the remaining filters.
+     * Shorter terms, and terms matching too many products to list by ID, fall back to a
+     * {@code LIKE} query.
+     * <p>
+     * When the in-memory catalog engine is enabled ({@code spring.app.catalog-engine.enabled}),
+     * filtering, sorting and paging all happen in memory, and only the page's rows are fetched.
+     * <p>
+     * Whole pages are cached by their normalized query in the {@link ProductListingCache} until
+     * the catalog next changes.
      *
      * @param page          The page number to retrieve.
      * @param pageSize      The number of products per page.
-     * @param sortBy        The field to sort by.
-     * @param sortDirection The direction of the sort (ASC or DESC).
-     * @param searchTerm    Optional search term to filter by product name or description.
+     * @param sortBy        The field to sort by, or "relevance" to rank search matches.
+     * @param sortDirection The direction of the sort (ASC or DESC). Ignored for relevance.
+     * @param searchTerm    Optional search term to filter by product name or SKU.
      * @param category      Optional category to filter by.
      * @param minPrice      Optional minimum price to filter by.
      * @param maxPrice      Optional maximum price to filter by.
+     * @param countMode     How the total count should be computed.
      * @return A success response containing the paginated list of product DTOs.
      */
     @Override
     public ApiSuccessResponse<PagedResult<ProductResponse>> findAllProducts(
             int page, int pageSize, String sortBy, String sortDirection,
             Optional<String> searchTerm, Optional<ProductCategory> category,
+            Optional<BigDecimal> minPrice, Optional<BigDecimal> maxPrice,
+            CountMode countMode
+    ) {
+        ProductFilter filter = ProductFilter.of(searchTerm, category, minPrice, maxPrice);
+        boolean indexedSearch = searchTerm.isPresent() && productSearchIndex.supports(searchTerm.get());
+        boolean byRelevance = SORT_BY_RELEVANCE.equalsIgnoreCase(sortBy);
+
+        // Normalize the query the same way the page is computed, so that equivalent requests share an entry
+        PageRequest pageRequest = paginationValidator.createPageable(page, pageSize);
+        boolean rankedByRelevance = indexedSearch && byRelevance;
+        ProductListingCache.Key key = new ProductListingCache.Key(
+                filter,
+                pageRequest.getPageNumber(),
+                pageRequest.getPageSize(),
+                rankedByRelevance ? SORT_BY_RELEVANCE : byRelevance ? DEFAULT_SORT_BY : sortBy,
+                !rankedByRelevance && sortDirection.equalsIgnoreCase("desc"),
+                countMode);
+
+        PagedResult<ProductResponse> pagedResult = productListingCache.get(key, () -> findProductPage(
+                page, pageSize, sortBy, sortDirection, searchTerm, category, minPrice, maxPrice,
+                countMode, filter, indexedSearch, byRelevance));
+        return new ApiSuccessResponse<>(true, "Products retrieved successfully", pagedResult);
+    }
+
+    /**
+     * Computes a listing page for {@link #findAllProducts}, bypassing the listing cache.
+     */
+    private PagedResult<ProductResponse> findProductPage(
+            int page, int pageSize, String sortBy, String sortDirection,
+            Optional<String> searchTerm, Optional<ProductCategory> category,
+            Optional<BigDecimal> minPrice, Optional<BigDecimal> maxPrice,
+            CountMode countMode, ProductFilter filter, boolean indexedSearch, boolean byRelevance
+    ) {
+        PagedResult<ProductResponse> pagedResult;
+
+        if (indexedSearch && byRelevance) {
+            List<UUID> rankedIds = productSearchIndex.search(searchTerm.get());
+            Specification<Product> filters = ProductSpecification.build(Optional.empty(),
+                                                                        category,
+                                                                        minPrice,
+                                                                        maxPrice);
+            pagedResult = PagedResult.from(findByRelevance(page, pageSize, searchTerm.get(),
+                                                           rankedIds, filters));
+        } else {
+            // Relevance is only meaningful for indexed searches
+            String validSortBy = byRelevance ? DEFAULT_SORT_BY : sortBy;
+            // Ties are broken by ID, as the in-memory catalog breaks them, so both answer alike
+            Pageable pageable = paginationValidator.createPageable(page,
+                                                                   pageSize,
+                                                                   validSortBy,
+                                                                   sortDirection,
+                                                                   "id");
+
+            if (catalogEngineEnabled && inMemoryCatalog.isReady()
+                    && InMemoryCatalog.supportsSort(validSortBy)) {
+                List<UUID> searchMatches = indexedSearch
+                        ? productSearchIndex.search(searchTerm.get())
+                        : null;
+                pagedResult = findPageInMemory(filter, searchMatches, pageable, countMode);
+            } else if (indexedSearch) {
+                List<UUID> rankedIds = productSearchIndex.search(searchTerm.get());
+                Specification<Product> filters = ProductSpecification.build(Optional.empty(),
+                                                                            category,
+                                                                            minPrice,
+                                                                            maxPrice);
+                pagedResult = rankedIds.isEmpty()
+                        ? PagedResult.from(Page.empty(pageable))
+                        : findPage(restrictToMatches(filters, searchTerm.get(), rankedIds),
+                                   filter, pageable, countMode);
+            } else {
+                Specification<Product> spec = ProductSpecification.build(searchTerm,
+                                                                         category,
+                                                                         minPrice,
+                                                                         maxPrice);
+                pagedResult = findPage(spec, filter, pageable, countMode);
+            }
+        }
+
+        return pagedResult;
+    }
+
+    /**
+     * Answers a listing page from the in-memory catalog, then fetches only that page's products,
+     * from the product cache where possible and otherwise with a single {@code IN} query.
+     * The catalog counts every match while paging, so the total is always exact and free.
+     */
+    private PagedResult<ProductResponse> findPageInMemory(ProductFilter filter,
+                                                          List<UUID> searchMatches,
+                                                          Pageable pageable,
+                                                          CountMode countMode) {
+        Sort.Order order = pageable.getSort().iterator().next();
+        InMemoryCatalog.Slice slice = inMemoryCatalog.query(filter,
+                                                            searchMatches,
+                                                            order.getProperty(),
+                                                            order.isDescending(),
+                                                            pageable.getOffset(),
+                                                            pageable.getPageSize());
+
+        Map<UUID, ProductResponse> found = productCache.getAll(slice.ids(),
+                                                               productRepository::findResponsesByIds);
+        List<ProductResponse> items = slice.ids()
+                                           .stream()
+                                           .map(found::get)
+                                           .filter(Objects::nonNull)
+                                           .toList();
+        boolean hasNext = pageable.getOffset() + pageable.getPageSize() < slice.total();
+        Long totalCount = countMode == CountMode.NONE ? null : slice.total();
+
+        return PagedResult.of(items, pageable.getPageNumber(), pageable.getPageSize(),
+                              totalCount, true, hasNext);
+    }
+
+    /**
+     * Finds a page of products using keyset (cursor) pagination.
+     * <p>
+     * Instead of an {@code OFFSET}, the query seeks directly past the last row of the previous
+     * page using its sort value and ID, and fetches one extra row to learn whether another page
+     * follows. No count query is issued, so every page costs the same regardless of its depth.
+     *
+     * @param cursor        The cursor returned with the previous page, or blank for the first page.
+     * @param pageSize      The number of products per page.
+     * @param sortBy        The field to sort by: createdAt, price or name.
+     * @param sortDirection The direction of the sort (ASC or DESC).
+     * @param searchTerm    Optional search term to filter by product name or SKU.
+     * @param category      Optional category to filter by.
+     * @param minPrice      Optional minimum price to filter by.
+     * @param maxPrice      Optional maximum price to filter by.
+     * @return A success response containing the page of product DTOs and the next cursor.
+     * @throws InvalidOperationException if the cursor is malformed or does not match the requested sort.
+     */
+    @Override
+    public ApiSuccessResponse<PagedResult<ProductResponse>> findAllProductsByCursor(
+            String cursor, int pageSize, String sortBy, String sortDirection,
+            Optional<String> searchTerm, Optional<ProductCategory> category,
             Optional<BigDecimal> minPrice, Optional<BigDecimal> maxPrice
     ) {
-        Pageable pageable = paginationValidator.createPageable(page,
-                                                               pageSize,
-                                                               sortBy,
-                                                               sortDirection);
-        Specification<Product> spec = ProductSpecification.build(searchTerm,
-                                                                 category,
-                                                                 minPrice,
-                                                                 maxPrice);
-        Page<Product> productPage = productRepository.findAll(spec, pageable);
-
-        Page<ProductResponse> productResponsePage = productPage.map(ProductResponse::fromEntity);
-        PagedResult<ProductResponse> pagedResult = PagedResult.from(productResponsePage);
+        if (!ProductCursor.SORTABLE_FIELDS.contains(sortBy)) {
+            throw ProductCursor.unsupportedSort(sortBy);
+        }
+        Pageable pageable = paginationValidator.createPageable(0, pageSize, sortBy, sortDirection);
+        Sort.Direction direction = pageable.getSort().getOrderFor(sortBy).getDirection();
+        int validPageSize = pageable.getPageSize();
+
+        Specification<Product> spec;
+        if (searchTerm.isPresent() && productSearchIndex.supports(searchTerm.get())) {
+            List<UUID> candidateIds = productSearchIndex.search(searchTerm.get());
+            if (candidateIds.isEmpty()) {
+                return new ApiSuccessResponse<>(true, "Products retrieved successfully",
+                                                PagedResult.fromCursor(List.of(),
+                                                                       validPageSize,
+                                                                       null));
+            }
+            spec = restrictToMatches(
+                    ProductSpecification.build(Optional.empty(), category, minPrice, maxPrice),
+                    searchTerm.get(),
+                    candidateIds);
+        } else {
+            spec = ProductSpecification.build(searchTerm, category, minPrice, maxPrice);
+        }
+
+        if (cursor != null && !cursor.isBlank()) {
+            ProductCursor position = ProductCursor.decode(cursor);
+            if (!position.sortBy().equals(sortBy) || position.direction() != direction) {
+                throw new InvalidOperationException(
+                        "The cursor was issued for a different sort order.");
+            }
+            spec = ProductSpecification.seekAfter(spec, position);
+        }
+        if (spec == null) {
+            spec = ProductSpecification.matchAll();
+        }
+
+        // Order by the sort field and then by ID, so that rows with equal sort values stay stable
+        Sort sort = Sort.by(direction, sortBy).and(Sort.by(direction, "id"));
+        List<Product> rows = productRepository.findBy(spec, query -> query.sortBy(sort)
+                                                                          .limit(validPageSize + 1)
+                                                                          .all());
+
+        boolean hasNext = rows.size() > validPageSize;
+        List<Product> pageRows = hasNext ? rows.subList(0, validPageSize) : rows;
+        String nextCursor = hasNext
+                ? ProductCursor.after(pageRows.get(pageRows.size() - 1), sortBy, direction).encode()
+                : null;
+
+        List<ProductResponse> items = pageRows.stream().map(ProductResponse::fromEntity).toList();
+        PagedResult<ProductResponse> pagedResult = PagedResult.fromCursor(items,
+                                                                          validPageSize,
+                                                                          nextCursor);
 
         return new ApiSuccessResponse<>(true, "Products retrieved successfully", pagedResult);
     }
 
     /**
-     * Gets a single product by its ID.
+     * Rebuilds the in-memory product search index from the database.
+     *
+     * @return A success response containing the number of indexed products.
+     */
+    @Override
+    public ApiSuccessResponse<Integer> rebuildSearchIndex() {
+        int indexed = productSearchIndex.rebuild();
+        return new ApiSuccessResponse<>(true, "Search index rebuilt successfully", indexed);
+    }
+
+    /**
+     * Recomputes the in-memory bestseller ranking from the paid order history.
+     *
+     * @return A success response containing the number of order items replayed.
+     */
+    @Override
+    public ApiSuccessResponse<Integer> rebuildBestsellers() {
+        int replayed = bestsellerRanking.rebuild();
+        return new ApiSuccessResponse<>(true, "Bestseller ranking rebuilt successfully", replayed);
+    }
+
+    /**
+     * Gets a single product by its ID, serving it from the product cache when possible.
      *
      * @param id The ID of the product to get.
      * @return A success response containing the single product's DTO.
@@ -138,14 +579,301 @@ public class ProductServiceImpl implements ProductService {
      */
     @Override
     public ApiSuccessResponse<ProductResponse> findProductById(UUID id) {
+        ProductResponse response = productCache.get(id, this::loadProduct);
+        productPopularity.recordView(id);
+
+        return new ApiSuccessResponse<>(true, "Product found successfully", response);
+    }
+
+    /**
+     * Finds several products by ID in one round trip.
+     * <p>
+     * Products in the product cache are served from it; all of the others are loaded with a single
+     * {@code IN} query and cached. Duplicate IDs are returned once.
+     *
+     * @param ids The IDs to look up, in the order the products should be returned.
+     * @return A success response containing the products found and the IDs that were not.
+     * @throws InvalidOperationException if no IDs or more than 100 are requested.
+     */
+    @Override
+    public ApiSuccessResponse<ProductBatchResponse> findProductsByIds(List<UUID> ids) {
+        List<UUID> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.isEmpty()) {
+            throw new InvalidOperationException("At least one product ID is required.");
+        }
+        if (distinctIds.size() > MAX_BATCH_IDS) {
+            throw new InvalidOperationException(
+                    "At most " + MAX_BATCH_IDS + " products can be requested at once.");
+        }
+
+        Map<UUID, ProductResponse> found = productCache.getAll(distinctIds,
+                                                               productRepository::findResponsesByIds);
+
+        List<ProductResponse> items = new ArrayList<>(found.size());
+        List<UUID> missingIds = new ArrayList<>();
+        for (UUID id : distinctIds) {
+            ProductResponse product = found.get(id);
+            if (product != null) {
+                items.add(product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+
+        return new ApiSuccessResponse<>(true,
+                                        "Found " + items.size() + " of " + distinctIds.size() + " products",
+                                        new ProductBatchResponse(items, missingIds));
+    }
+
+    /**
+     * Returns typeahead completions from the in-memory autocomplete trie, without touching the
+     * database.
+     *
+     * @param prefix The text typed so far.
+     * @param limit  The maximum number of suggestions.
+     * @return A success response containing the suggestions, most popular first.
+     */
+    @Override
+    public ApiSuccessResponse<List<ProductSuggestion>> autocomplete(String prefix, int limit) {
+        List<ProductSuggestion> suggestions = productAutocomplete.complete(prefix, limit);
+
+        return new ApiSuccessResponse<>(true, "Suggestions retrieved successfully", suggestions);
+    }
+
+    /**
+     * Returns the bestsellers of a rolling window from the incrementally maintained ranking.
+     * <p>
+     * The ranking itself is read in O(limit) without any aggregation query; the products are then
+     * resolved through the product cache, with the misses loaded in one query.
+     *
+     * @param window   The rolling window to rank over.
+     * @param category The category to rank within, or empty for the whole catalog.
+     * @param limit    The maximum number of products, capped at 50.
+     * @return A success response containing the ranked products and their units sold.
+     */
+    @Override
+    public ApiSuccessResponse<List<BestsellerResponse>> findBestsellers(BestsellerWindow window,
+                                                                        Optional<ProductCategory> category,
+                                                                        int limit) {
+        List<BestsellerRanking.Bestseller> ranked = bestsellerRanking.top(
+                window, category.orElse(null), Math.min(limit, MAX_BESTSELLERS));
+
+        Map<UUID, ProductResponse> found = productCache.getAll(
+                ranked.stream().map(BestsellerRanking.Bestseller::productId).toList(),
+                productRepository::findResponsesByIds);
+
+        List<BestsellerResponse> bestsellers = new ArrayList<>(ranked.size());
+        for (BestsellerRanking.Bestseller bestseller : ranked) {
+            ProductResponse product = found.get(bestseller.productId());
+            if (product != null) {
+                bestsellers.add(new BestsellerResponse(bestsellers.size() + 1, bestseller.unitsSold(), product));
+            }
+        }
+
+        return new ApiSuccessResponse<>(true, "Bestsellers retrieved successfully", bestsellers);
+    }
+
+    /**
+     * Computes facet counts for the storefront sidebar from the in-memory catalog.
+     * <p>
+     * Category counts and the price histogram are produced in a single pass over the catalog's
+     * columns, so no {@code GROUP BY} query is issued. The search term is resolved through the
+     * search index when it can answer it.
+     *
+     * @param searchTerm      Optional search term to filter by product name or SKU.
+     * @param category        Optional category to filter by.
+     * @param minPrice        Optional minimum price to filter by.
+     * @param maxPrice        Optional maximum price to filter by.
+     * @param priceBoundaries Ascending price bucket boundaries, or empty for the configured defaults.
+     * @return A success response containing the category counts and price histogram.
+     * @throws InvalidOperationException   if the boundaries are not ascending and non-negative.
+     * @throws ServiceUnavailableException if the in-memory catalog has not finished loading, when
+     *                                     every count would still read zero.
+     */
+    @Override
+    public ApiSuccessResponse<ProductFacetsResponse> getFacets(
+            Optional<String> searchTerm, Optional<ProductCategory> category,
+            Optional<BigDecimal> minPrice, Optional<BigDecimal> maxPrice,
+            List<BigDecimal> priceBoundaries
+    ) {
+        List<BigDecimal> boundaries = priceBoundaries.isEmpty()
+                ? defaultPriceBoundaries
+                : priceBoundaries;
+        long[] boundariesInMinorUnits = validatePriceBoundaries(boundaries);
+        if (!inMemoryCatalog.isReady()) {
+            throw new ServiceUnavailableException(
+                    "Product facets are not available yet. Please retry shortly.");
+        }
+
+        ProductFilter filter = ProductFilter.of(searchTerm, category, minPrice, maxPrice);
+        List<UUID> searchMatches = filter.searchTerm() != null
+                && productSearchIndex.supports(filter.searchTerm())
+                ? productSearchIndex.search(filter.searchTerm())
+                : null;
+
+        InMemoryCatalog.Facets facets = inMemoryCatalog.facets(filter,
+                                                               searchMatches,
+                                                               boundariesInMinorUnits);
+
+        ProductCategory[] categories = ProductCategory.values();
+        List<ProductFacetsResponse.CategoryFacet> categoryFacets = new ArrayList<>();
+        for (ProductCategory productCategory : categories) {
+            categoryFacets.add(new ProductFacetsResponse.CategoryFacet(
+                    productCategory.toString(),
+                    facets.categoryCounts()[productCategory.ordinal()]));
+        }
+
+        List<ProductFacetsResponse.PriceBucket> histogram = new ArrayList<>();
+        for (int i = 0; i < boundariesInMinorUnits.length; i++) {
+            BigDecimal upper = i + 1 < boundariesInMinorUnits.length
+                    ? InMemoryCatalog.fromMinorUnits(boundariesInMinorUnits[i + 1])
+                    : null;
+            histogram.add(new ProductFacetsResponse.PriceBucket(
+                    InMemoryCatalog.fromMinorUnits(boundariesInMinorUnits[i]),
+                    upper,
+                    facets.bucketCounts()[i]));
+        }
+
+        ProductFacetsResponse response = new ProductFacetsResponse(facets.total(),
+                                                                   categoryFacets,
+                                                                   histogram);
+        return new ApiSuccessResponse<>(true, "Product facets retrieved successfully", response);
+    }
+
+    /**
+     * Checks that price bucket boundaries are non-negative and strictly ascending, and converts
+     * them to minor units.
+     */
+    private long[] validatePriceBoundaries(List<BigDecimal> boundaries) {
+        if (boundaries.size() > MAX_PRICE_BUCKETS) {
+            throw new InvalidOperationException(
+                    "At most " + MAX_PRICE_BUCKETS + " price buckets can be requested.");
+        }
+        long[] minorUnits = new long[boundaries.size()];
+        for (int i = 0; i < minorUnits.length; i++) {
+            minorUnits[i] = InMemoryCatalog.toMinorUnits(boundaries.get(i));
+            if (minorUnits[i] < 0 || (i > 0 && minorUnits[i] <= minorUnits[i - 1])) {
+                throw new InvalidOperationException(
+                        "Price bucket boundaries must be non-negative and strictly ascending.");
+            }
+        }
+        return minorUnits;
+    }
+
+    /**
+     * Returns the current statistics of the product cache.
+     *
+     * @return A success response containing the cache statistics.
+     */
+    @Override
+    public ApiSuccessResponse<ProductCacheStats> getCacheStats() {
+        return new ApiSuccessResponse<>(true,
+                                        "Product cache statistics retrieved successfully",
+                                        productCache.stats());
+    }
+
+    /**
+     * Fetches one page of products and resolves its total according to the count mode.
+     * <p>
+     * The page query fetches one extra row to learn whether a next page exists, and never runs a
+     * count of its own. When the page turns out to be the last one, the total follows from its
+     * offset and size. Otherwise the total comes from the count cache, which only goes to the
+     * database when the filter has not been counted since the catalog last changed.
+     */
+    private PagedResult<ProductResponse> findPage(Specification<Product> spec,
+                                                  ProductFilter filter,
+                                                  Pageable pageable,
+                                                  CountMode countMode) {
+        long generation = catalogGeneration.current();
+        int size = pageable.getPageSize();
+
+        // Project straight into DTOs; no entities are loaded into the persistence context
+        List<ProductResponse> rows = productRepository.findResponseSlice(spec, pageable, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<ProductResponse> items = hasNext ? rows.subList(0, size) : rows;
+
+        boolean isLastPage = !hasNext && (!items.isEmpty() || pageable.getOffset() == 0);
+        if (isLastPage) {
+            productCountCache.record(filter, pageable.getOffset() + items.size(), generation);
+        }
+
+        Long total = null;
+        boolean exact = true;
+        if (countMode != CountMode.NONE && isLastPage) {
+            total = pageable.getOffset() + items.size();
+        } else if (countMode == CountMode.EXACT) {
+            total = productCountCache.getExact(filter, () -> productRepository.count(spec));
+        } else if (countMode == CountMode.ESTIMATE) {
+            ProductCountCache.Count count = productCountCache.getEstimate(
+                    filter, () -> productRepository.count(spec));
+            total = count.value();
+            exact = count.exact();
+        }
+
+        return PagedResult.of(items, pageable.getPageNumber(), size, total, exact, hasNext);
+    }
+
+    /**
+     * Answers a relevance-sorted search using the ranked IDs resolved by the search index.
+     * <p>
+     * The index order is kept: the remaining filters are applied to the candidates, and only the
+     * rows of the requested page are loaded. The total is known from the candidates themselves.
+     */
+    private Page<ProductResponse> findByRelevance(int page, int pageSize,
+                                                  String searchTerm,
+                                                  List<UUID> rankedIds,
+                                                  Specification<Product> filters) {
+        Pageable pageable = paginationValidator.createPageable(page, pageSize);
+        List<UUID> matchingIds = rankedIds;
+        if (filters != null && !rankedIds.isEmpty()) {
+            Set<UUID> filteredIds = new HashSet<>(productRepository.findIds(
+                    restrictToMatches(filters, searchTerm, rankedIds)));
+            matchingIds = rankedIds.stream().filter(filteredIds::contains).toList();
+        }
+
+        int from = (int) Math.min(pageable.getOffset(), matchingIds.size());
+        int to = Math.min(from + pageable.getPageSize(), matchingIds.size());
+        List<UUID> pageIds = matchingIds.subList(from, to);
+
+        Map<UUID, ProductResponse> productsById = productRepository
+                .findResponsesByIds(pageIds)
+                .stream()
+                .collect(Collectors.toMap(ProductResponse::id, Function.identity()));
+        List<ProductResponse> content = pageIds.stream()
+                                               .map(productsById::get)
+                                               .filter(Objects::nonNull)
+                                               .toList();
+
+        return new PageImpl<>(content, pageable, matchingIds.size());
+    }
+
+    /**
+     * Restricts the filters to the products the search index matched. Up to
+     * {@value #MAX_CANDIDATE_IDS} matches are bound as an {@code IN} list of their IDs. Beyond that
+     * the term is matched with {@code LIKE} instead: a longer list costs more to bind and probe
+     * than the scan it replaces, and could exceed MySQL's limit of 65,535 placeholders per statement.
+     */
+    private static Specification<Product> restrictToMatches(Specification<Product> filters,
+                                                            String searchTerm,
+                                                            List<UUID> candidateIds) {
+        return candidateIds.size() > MAX_CANDIDATE_IDS
+                ? ProductSpecification.restrictToSearchTerm(filters, searchTerm)
+                : ProductSpecification.restrictToIds(filters, candidateIds);
+    }
+
+    /**
+     * Loads a product from the database and maps it to its DTO. Used on a cache miss.
+     *
+     * @param id The ID of the product to load.
+     * @return The product's DTO.
+     * @throws NotFoundException if no product with the given ID is found.
+     */
+    private ProductResponse loadProduct(UUID id) {
         Product product = productRepository.findById(id)
                                            .orElseThrow(() -> new NotFoundException(
                                                    "Product not found"));
 
-        ProductResponse response = ProductResponse.fromEntity(product);
-
-        return new ApiSuccessResponse<>(true, "Product found successfully", response);
+        return ProductResponse.fromEntity(product);
     }
 
-
 }
@@ -27,11 +27,6 @@ public class PaginationValidator {
      * @return A configured {@link Pageable} instance.
      */
     public Pageable createPageable(int page, int pageSize, String sortBy, String sortDirection) {
-        // Ensure page number is not negative
-        int validPage = Math.max(0, page);
-        // Clamp page size to be between 1 and 100
-        int validPageSize = Math.min(Math.max(1, pageSize), 100);
-
         // Determine sort direction, defaulting to ASC
         Sort.Direction direction = sortDirection.equalsIgnoreCase("desc")
                 ? Sort.Direction.DESC
@@ -39,6 +34,46 @@ public class PaginationValidator {
 
         Sort sort = Sort.by(direction, sortBy);
 
-        return PageRequest.of(validPage, validPageSize, sort);
+        return createPageable(page, pageSize).withSort(sort);
+    }
+
+    /**
+     * Like {@link #createPageable(int, int, String, String)}, then breaks ties on the sort
+     * property by a unique property, in the same direction. Without it, the database may return
+     * rows with equal sort values in any order, and a row can move between pages.
+     *
+     * @param page          The requested page number (0-indexed).
+     * @param pageSize      The requested number of items per page.
+     * @param sortBy        The property to sort the results by.
+     * @param sortDirection The direction of the sort ("asc" or "desc").
+     * @param tieBreaker    A unique property, such as the ID.
+     * @return A configured {@link Pageable} instance with a total order.
+     */
+    public Pageable createPageable(int page, int pageSize, String sortBy, String sortDirection,
+                                   String tieBreaker) {
+        Pageable pageable = createPageable(page, pageSize, sortBy, sortDirection);
+        if (sortBy.equals(tieBreaker)) {
+            return pageable;
+        }
+        Sort.Direction direction = pageable.getSort().getOrderFor(sortBy).getDirection();
+        return pageable.withSort(pageable.getSort().and(Sort.by(direction, tieBreaker)));
+    }
+
+    /**
+     * Creates an unsorted {@link PageRequest}, applying the same validation as
+     * {@link #createPageable(int, int, String, String)}.
+     * Used when the ordering is decided in memory rather than by the database.
+     *
+     * @param page     The requested page number (0-indexed).
+     * @param pageSize The requested number of items per page.
+     * @return A configured, unsorted {@link PageRequest} instance.
+     */
+    public PageRequest createPageable(int page, int pageSize) {
+        // Ensure page number is not negative
+        int validPage = Math.max(0, page);
+        // Clamp page size to be between 1 and 100
+        int validPageSize = Math.min(Math.max(1, pageSize), 100);
+
+        return PageRequest.of(validPage, validPageSize);
     }
 }
@@ -0,0 +1,110 @@
+package com.senibo.e_commerce_api.util;
+
+import com.senibo.e_commerce_api.exception.general.InvalidOperationException;
+import com.senibo.e_commerce_api.model.product.Product;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The position of the last row of a page in a keyset-paginated product listing.
+ * <p>
+ * A cursor records the sort field and direction it was issued for, the last row's value of that
+ * field and the row's ID as a tie-breaker. It is handed to clients as an opaque, URL-safe token.
+ *
+ * @param sortBy    The field the listing is sorted by.
+ * @param direction The sort direction.
+ * @param sortValue The last row's value of {@code sortBy}, in its string form.
+ * @param id        The last row's ID.
+ */
+public record ProductCursor(String sortBy, Sort.Direction direction, String sortValue, UUID id) {
+
+    /**
+     * The fields a cursor can be issued for.
+     */
+    public static final Set<String> SORTABLE_FIELDS = Set.of("createdAt", "price", "name");
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Creates the cursor that continues after the given product.
+     */
+    public static ProductCursor after(Product product, String sortBy, Sort.Direction direction) {
+        String sortValue = switch (sortBy) {
+            case "createdAt" -> product.getCreatedAt().toString();
+            case "price" -> product.getPrice().toPlainString();
+            case "name" -> product.getName();
+            default -> throw unsupportedSort(sortBy);
+        };
+        return new ProductCursor(sortBy, direction, sortValue, product.getId());
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @throws InvalidOperationException if the token is malformed.
+     */
+    public static ProductCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token),
+                                        StandardCharsets.UTF_8);
+            // The sort value goes last so that it may itself contain the separator
+            String[] parts = decoded.split("\\" + SEPARATOR, 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0])
+                    || !SORTABLE_FIELDS.contains(parts[1])) {
+                throw new InvalidOperationException("Invalid cursor.");
+            }
+            ProductCursor cursor = new ProductCursor(parts[1],
+                                                     Sort.Direction.fromString(parts[2]),
+                                                     parts[4],
+                                                     UUID.fromString(parts[3]));
+            cursor.typedSortValue(); // Validates the value parses for its field
+            return cursor;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidOperationException("Invalid cursor.");
+        }
+    }
+
+    /**
+     * Encodes this cursor as an opaque, URL-safe token.
+     */
+    public String encode() {
+        String raw = String.join(SEPARATOR,
+                                 VERSION,
+                                 sortBy,
+                                 direction.name(),
+                                 id.toString(),
+                                 sortValue);
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the sort value converted to the Java type of its field.
+     */
+    public Comparable<?> typedSortValue() {
+        return switch (sortBy) {
+            case "createdAt" -> LocalDateTime.parse(sortValue);
+            case "price" -> new BigDecimal(sortValue);
+            case "name" -> sortValue;
+            default -> throw unsupportedSort(sortBy);
+        };
+    }
+
+    /**
+     * Builds the exception thrown when a cursor is requested for a field it does not support.
+     */
+    public static InvalidOperationException unsupportedSort(String sortBy) {
+        return new InvalidOperationException(
+                "Cursor pagination is not supported when sorting by '" + sortBy
+                        + "'. Use one of " + SORTABLE_FIELDS + ".");
+    }
+}
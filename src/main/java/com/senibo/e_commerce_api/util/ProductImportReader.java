@@ -0,0 +1,281 @@
+package com.senibo.e_commerce_api.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.senibo.e_commerce_api.dto.product.CreateProductRequest;
+import com.senibo.e_commerce_api.exception.general.InvalidOperationException;
+import com.senibo.e_commerce_api.model.product.ProductCategory;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Reads product rows one at a time from an NDJSON or CSV upload, so that an import never holds
+ * more than a single row of the body in memory.
+ * <p>
+ * NDJSON rows use the same fields as {@link CreateProductRequest}. CSV uploads must start with a
+ * header row naming the columns: {@code name}, {@code description}, {@code price},
+ * {@code stock_quantity}, {@code category} and optionally {@code image_url}, in any order. Quoted
+ * fields may contain commas, doubled quotes and line breaks.
+ * <p>
+ * A row that cannot be parsed is returned with an error instead of failing the whole upload.
+ */
+public final class ProductImportReader implements Closeable {
+
+    /**
+     * The supported upload formats.
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+
+        private final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public String mediaType() {
+            return mediaType;
+        }
+
+        /**
+         * Resolves the format from a Content-Type header, ignoring any parameters.
+         *
+         * @throws InvalidOperationException if the content type is not supported.
+         */
+        public static Format fromContentType(String contentType) {
+            String mediaType = contentType == null
+                    ? ""
+                    : contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+            for (Format format : values()) {
+                if (format.mediaType.equals(mediaType)) {
+                    return format;
+                }
+            }
+            throw new InvalidOperationException(
+                    "Unsupported import format '" + contentType + "'. Use application/x-ndjson or text/csv.");
+        }
+    }
+
+    /**
+     * One row of the upload: either a parsed request or the reason it could not be parsed.
+     *
+     * @param lineNumber The 1-based line the row starts on.
+     * @param request    The parsed row, or {@code null} if it is malformed.
+     * @param error      Why the row is malformed, or {@code null}.
+     */
+    public record Row(long lineNumber, CreateProductRequest request, String error) {
+    }
+
+    private static final List<String> REQUIRED_COLUMNS =
+            List.of("name", "description", "price", "stockquantity", "category");
+
+    private final BufferedReader reader;
+    private final Format format;
+    private final ObjectMapper objectMapper;
+
+    private long lineNumber;
+    private Map<String, Integer> csvColumns;
+
+    private ProductImportReader(InputStream body, Format format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Opens a reader over an upload. For CSV the header row is read immediately.
+     *
+     * @throws InvalidOperationException if the CSV header is missing or incomplete.
+     */
+    public static ProductImportReader open(InputStream body, Format format,
+                                           ObjectMapper objectMapper) throws IOException {
+        ProductImportReader importReader = new ProductImportReader(body, format, objectMapper);
+        if (format == Format.CSV) {
+            importReader.readCsvHeader();
+        }
+        return importReader;
+    }
+
+    /**
+     * Reads the next row, skipping blank lines.
+     *
+     * @return The row, or {@code null} at the end of the upload.
+     */
+    public Row next() throws IOException {
+        return format == Format.NDJSON ? nextJsonRow() : nextCsvRow();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // --- NDJSON ---
+
+    private Row nextJsonRow() throws IOException {
+        String line;
+        do {
+            line = readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        try {
+            return new Row(lineNumber, objectMapper.readValue(line, CreateProductRequest.class), null);
+        } catch (JsonProcessingException e) {
+            return new Row(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    // --- CSV ---
+
+    private void readCsvHeader() throws IOException {
+        CsvRecord header = readCsvRecord();
+        if (header == null || header.fields() == null) {
+            throw new InvalidOperationException("The CSV upload must start with a header row.");
+        }
+
+        csvColumns = new HashMap<>();
+        for (int i = 0; i < header.fields().size(); i++) {
+            csvColumns.put(normalizeColumn(header.fields().get(i)), i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream()
+                                                .filter(column -> !csvColumns.containsKey(column))
+                                                .toList();
+        if (!missing.isEmpty()) {
+            throw new InvalidOperationException("The CSV header is missing required columns: " + missing);
+        }
+    }
+
+    private Row nextCsvRow() throws IOException {
+        CsvRecord record;
+        do {
+            record = readCsvRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.fields() != null && record.fields().size() == 1
+                && record.fields().get(0).isBlank());
+
+        if (record.fields() == null) {
+            return new Row(record.lineNumber(), null, "Unterminated quoted field");
+        }
+
+        List<String> fields = record.fields();
+        try {
+            String price = field(fields, "price");
+            String stockQuantity = field(fields, "stockquantity");
+            String category = field(fields, "category");
+            CreateProductRequest request = new CreateProductRequest(
+                    field(fields, "name"),
+                    field(fields, "description"),
+                    price == null ? null : parseNumber(price, "price", BigDecimal::new),
+                    stockQuantity == null ? null
+                            : parseNumber(stockQuantity, "stock_quantity", Integer::valueOf),
+                    category == null ? null : parseCategory(category),
+                    field(fields, "imageurl"));
+            return new Row(record.lineNumber(), request, null);
+        } catch (IllegalArgumentException e) {
+            return new Row(record.lineNumber(), null, e.getMessage());
+        }
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = csvColumns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static <T> T parseNumber(String value, String column,
+                                     Function<String, T> parser) {
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + " '" + value + "'");
+        }
+    }
+
+    private static ProductCategory parseCategory(String value) {
+        try {
+            return ProductCategory.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown category '" + value + "'");
+        }
+    }
+
+    private static String normalizeColumn(String column) {
+        return column.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * A CSV record and the line it starts on. {@code fields} is {@code null} if a quoted field
+     * was still open at the end of the upload.
+     */
+    private record CsvRecord(long lineNumber, List<String> fields) {
+    }
+
+    private CsvRecord readCsvRecord() throws IOException {
+        String line = readLine();
+        if (line == null) {
+            return null;
+        }
+        long startLine = lineNumber;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (!quoted) {
+                break;
+            }
+            // A quoted field continues onto the next line
+            line = readLine();
+            if (line == null) {
+                return new CsvRecord(startLine, null);
+            }
+            field.append('\n');
+        }
+        fields.add(field.toString());
+        return new CsvRecord(startLine, fields);
+    }
+
+    private String readLine() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        if (lineNumber++ == 0 && line.startsWith("\uFEFF")) {
+            line = line.substring(1); // Byte order mark
+        }
+        return line;
+    }
+}
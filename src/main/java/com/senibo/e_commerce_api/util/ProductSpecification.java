@@ -3,12 +3,16 @@ package com.senibo.e_commerce_api.util;
 
 import com.senibo.e_commerce_api.model.product.Product;
 import com.senibo.e_commerce_api.model.product.ProductCategory;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 public class ProductSpecification {
 
@@ -36,6 +40,47 @@ public class ProductSpecification {
         return specs.stream().reduce(Specification::and).orElse(null);
     }
 
+    /**
+     * Restricts an existing specification (which may be {@code null}) to the given product IDs.
+     * Used when the candidate set has already been resolved by the in-memory search index.
+     */
+    public static Specification<Product> restrictToIds(Specification<Product> spec,
+                                                       Collection<UUID> ids) {
+        Specification<Product> idSpec = idIn(ids);
+        return spec == null ? idSpec : spec.and(idSpec);
+    }
+
+    /**
+     * Restricts an existing specification (which may be {@code null}) to the products whose name
+     * or SKU contains the search term. Used instead of {@link #restrictToIds} when the search index
+     * matched too many products to bind as an {@code IN} list.
+     */
+    public static Specification<Product> restrictToSearchTerm(Specification<Product> spec,
+                                                              String searchTerm) {
+        Specification<Product> termSpec = nameOrSkuContains(searchTerm);
+        return spec == null ? termSpec : spec.and(termSpec);
+    }
+
+    /**
+     * Restricts an existing specification (which may be {@code null}) to the rows that come after
+     * the cursor in its sort order, using the row ID to break ties between equal sort values.
+     */
+    public static Specification<Product> seekAfter(Specification<Product> spec,
+                                                   ProductCursor cursor) {
+        Specification<Product> seekSpec = keysetAfter(cursor.sortBy(),
+                                                      cursor.typedSortValue(),
+                                                      cursor.id(),
+                                                      cursor.direction().isDescending());
+        return spec == null ? seekSpec : spec.and(seekSpec);
+    }
+
+    /**
+     * A specification that matches every product. Useful where a non-null specification is required.
+     */
+    public static Specification<Product> matchAll() {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.conjunction();
+    }
+
     // --- Private "Lego Brick" Methods ---
 
     private static Specification<Product> nameOrSkuContains(String searchTerm) {
@@ -52,6 +97,31 @@ public class ProductSpecification {
                 );
     }
 
+    private static Specification<Product> idIn(Collection<UUID> ids) {
+        // Creates a criteria: WHERE product.id IN (:ids)
+        return (root, query, criteriaBuilder) -> root.get("id").in(ids);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Specification<Product> keysetAfter(String sortBy, Comparable sortValue,
+                                                      UUID id, boolean descending) {
+        // Creates a criteria: WHERE (key > :value) OR (key = :value AND id > :id)
+        // with the comparisons flipped for a descending sort
+        return (root, query, cb) -> {
+            Expression<Comparable> key = root.get(sortBy);
+            Expression<UUID> idPath = root.get("id");
+
+            Predicate beyondKey = descending
+                    ? cb.lessThan(key, sortValue)
+                    : cb.greaterThan(key, sortValue);
+            Predicate beyondId = descending
+                    ? cb.lessThan(idPath, id)
+                    : cb.greaterThan(idPath, id);
+
+            return cb.or(beyondKey, cb.and(cb.equal(key, sortValue), beyondId));
+        };
+    }
+
     private static Specification<Product> hasCategory(ProductCategory category) {
         // Creates a criteria: WHERE product.category = :category
         return (root, query, criteriaBuilder) ->
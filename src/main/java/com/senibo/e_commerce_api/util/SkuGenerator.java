@@ -1,40 +1,155 @@
 package com.senibo.e_commerce_api.util;
 
+import com.senibo.e_commerce_api.dto.product.CreateProductRequest;
+import com.senibo.e_commerce_api.model.product.SkuSequence;
 import com.senibo.e_commerce_api.repository.ProductRepository;
-import lombok.RequiredArgsConstructor;
+import com.senibo.e_commerce_api.repository.SkuSequenceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A utility component for generating unique Stock Keeping Units (SKUs) for products.
  * <p>
- * It creates a formatted SKU and ensures its uniqueness by checking against the database.
+ * SKUs have the format [CAT]-[NAM]-[SUFFIX], where the suffix is a number that is unique per
+ * prefix. Suffixes come from a persisted counter per prefix ({@link SkuSequence}): each node
+ * reserves a block of them at a time under a row lock, then hands them out from memory. This keeps
+ * SKUs unique across threads and nodes without checking each one against the products table.
+ * Suffixes left over in a block when the application stops are simply never used.
  */
 @Component
-@RequiredArgsConstructor
+@Slf4j
 public class SkuGenerator {
 
+    /**
+     * The smallest suffix, which keeps suffixes at least 5 digits long as they always were.
+     */
+    private static final long MIN_SUFFIX = 10000;
+
     private final ProductRepository productRepository;
+    private final SkuSequenceRepository skuSequenceRepository;
+    private final TransactionTemplate reservationTransaction;
+    private final int blockSize;
+
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public SkuGenerator(ProductRepository productRepository,
+                        SkuSequenceRepository skuSequenceRepository,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${spring.app.sku.block-size:100}") int blockSize) {
+        this.productRepository = productRepository;
+        this.skuSequenceRepository = skuSequenceRepository;
+        // Reservations commit on their own, so the row lock is never held by a caller's transaction
+        this.reservationTransaction = new TransactionTemplate(transactionManager);
+        this.reservationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
 
     /**
      * Generates a unique SKU for a product based on its name and category.
-     * The format is [CAT]-[NAM]-[RANDOM_NUM]. It repeatedly generates a new SKU
-     * until it finds one that does not already exist in the database.
+     * The format is [CAT]-[NAM]-[SUFFIX]. Only a block reservation, once every
+     * {@code spring.app.sku.block-size} SKUs per prefix, touches the database.
      *
      * @param productName  The name of the product.
      * @param categoryName The name of the product's category.
      * @return A unique, formatted SKU string.
      */
     public String generateUniqueSku(String productName, String categoryName) {
-        String sku;
-        do {
-            String namePrefix = createPrefix(productName);
-            String categoryPrefix = createPrefix(categoryName);
-            int randomNumber = ThreadLocalRandom.current().nextInt(10000, 100000);
-            sku = categoryPrefix + "-" + namePrefix + "-" + randomNumber;
-        } while (productRepository.existsBySku(sku));
-        return sku;
+        String prefix = createPrefix(categoryName) + "-" + createPrefix(productName);
+        return prefix + "-" + nextSuffix(prefix);
+    }
+
+    /**
+     * Generates unique SKUs for a batch of new products.
+     *
+     * @param requests The products to generate SKUs for.
+     * @return The SKUs, in the same order as the requests.
+     */
+    public List<String> generateUniqueSkus(List<CreateProductRequest> requests) {
+        return requests.stream()
+                       .map(request -> generateUniqueSku(request.name(), request.category().toString()))
+                       .toList();
+    }
+
+    /**
+     * Hands out the next suffix of the prefix's current block, reserving a new block when it runs out.
+     */
+    private long nextSuffix(String prefix) {
+        Block block = blocks.computeIfAbsent(prefix, p -> new Block());
+        synchronized (block) {
+            if (block.next >= block.end) {
+                block.next = reserveBlock(prefix);
+                block.end = block.next + blockSize;
+            }
+            return block.next++;
+        }
+    }
+
+    /**
+     * Advances the prefix's persisted counter by one block and returns the block's first suffix.
+     * <p>
+     * A rolled-back reservation reserved nothing, so one that lost a deadlock or timed out waiting
+     * for the row lock is simply retried once.
+     */
+    private long reserveBlock(String prefix) {
+        try {
+            return reserveBlockOnce(prefix);
+        } catch (ConcurrencyFailureException e) {
+            log.debug("Retrying the SKU block reservation for {}: {}", prefix, e.getMessage());
+            return reserveBlockOnce(prefix);
+        }
+    }
+
+    private long reserveBlockOnce(String prefix) {
+        Long start = reservationTransaction.execute(status -> advanceLocked(prefix));
+        if (start != null) {
+            return start;
+        }
+        // A new prefix. The counter is created in a transaction of its own that takes no lock before
+        // inserting: inserting after the locking read, whose gap lock concurrent creators share,
+        // would deadlock them.
+        long firstSuffix = initialSuffix(prefix);
+        reservationTransaction.executeWithoutResult(status -> skuSequenceRepository.insertIfAbsent(prefix, firstSuffix));
+        return reservationTransaction.execute(status -> advanceLocked(prefix));
+    }
+
+    /**
+     * Advances the counter under its row lock, or returns {@code null} if the prefix has none yet.
+     */
+    private Long advanceLocked(String prefix) {
+        return skuSequenceRepository.findForUpdate(prefix)
+                                    .map(sequence -> {
+                                        long start = sequence.getNextValue();
+                                        sequence.setNextValue(start + blockSize);
+                                        return start;
+                                    })
+                                    .orElse(null);
+    }
+
+    /**
+     * Starts a new prefix's counter after the highest suffix already in use, so that SKUs issued
+     * before the counters existed are never reissued. This is only ever done once per prefix.
+     */
+    private long initialSuffix(String prefix) {
+        long highest = MIN_SUFFIX - 1;
+        for (String sku : productRepository.findSkusStartingWith(prefix + "-")) {
+            String suffix = sku.substring(prefix.length() + 1);
+            try {
+                highest = Math.max(highest, Long.parseLong(suffix));
+            } catch (NumberFormatException e) {
+                // Not a [CAT]-[NAM]-[SUFFIX] SKU of this prefix (e.g. a longer prefix); ignore it
+            }
+        }
+        log.debug("Starting SKU sequence {} at {}", prefix, highest + 1);
+        return highest + 1;
     }
 
     /**
@@ -50,4 +165,12 @@ public class SkuGenerator {
         int length = Math.min(sanitized.length(), 3);
         return sanitized.substring(0, length).toUpperCase();
     }
+
+    /**
+     * The range of suffixes this node has reserved for one prefix: {@code [next, end)}.
+     */
+    private static final class Block {
+        private long next;
+        private long end;
+    }
 }
@@ -0,0 +1,90 @@
+-- The schema as Hibernate generated it before migrations were introduced. Databases created that
+-- way are baselined at this version (spring.flyway.baseline-on-migrate) and only run what follows,
+-- so nothing may be added here: later tables and columns belong in a new version.
+
+CREATE TABLE users
+(
+    id         BINARY(16)                          NOT NULL,
+    created_at DATETIME(6)                         NOT NULL,
+    updated_at DATETIME(6)                         NOT NULL,
+    firstname  VARCHAR(255)                        NOT NULL,
+    lastname   VARCHAR(255)                        NOT NULL,
+    username   VARCHAR(255)                        NOT NULL,
+    email      VARCHAR(255)                        NOT NULL,
+    password   VARCHAR(255),
+    role       ENUM ('CUSTOMER','ADMIN')           NOT NULL,
+    provider   ENUM ('LOCAL','GOOGLE','FACEBOOK')  NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE products
+(
+    id             BINARY(16)     NOT NULL,
+    created_at     DATETIME(6)    NOT NULL,
+    updated_at     DATETIME(6)    NOT NULL,
+    name           VARCHAR(255)   NOT NULL,
+    description    VARCHAR(255)   NOT NULL,
+    price          DECIMAL(38, 2) NOT NULL,
+    stock_quantity INTEGER        NOT NULL,
+    category       ENUM ('ELECTRONICS','CLOTHING','HOME_GARDEN','BOOKS_MEDIA','SPORTS_OUTDOORS',
+                         'HEALTH_BEAUTY','AUTOMOTIVE','TOYS_GAMES','FOOD_BEVERAGES','ACCESSORIES',
+                         'PET_SUPPLIES','OFFICE_SUPPLIES') NOT NULL,
+    image_url      VARCHAR(255),
+    sku            VARCHAR(255)   NOT NULL,
+    CONSTRAINT pk_products PRIMARY KEY (id),
+    CONSTRAINT uk_products_sku UNIQUE (sku)
+);
+
+CREATE TABLE carts
+(
+    id         BINARY(16)  NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    user_id    BINARY(16)  NOT NULL,
+    CONSTRAINT pk_carts PRIMARY KEY (id),
+    -- One cart per user; also the index behind CartRepository.findByUserId
+    CONSTRAINT uk_carts_user_id UNIQUE (user_id),
+    CONSTRAINT fk_carts_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE cart_items
+(
+    id         BINARY(16)  NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    quantity   INTEGER,
+    cart_id    BINARY(16),
+    product_id BINARY(16),
+    CONSTRAINT pk_cart_items PRIMARY KEY (id),
+    CONSTRAINT fk_cart_items_cart FOREIGN KEY (cart_id) REFERENCES carts (id),
+    CONSTRAINT fk_cart_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE TABLE orders
+(
+    id                BINARY(16)                                  NOT NULL,
+    created_at        DATETIME(6)                                 NOT NULL,
+    updated_at        DATETIME(6)                                 NOT NULL,
+    total_amount      DECIMAL(38, 2),
+    order_status      ENUM ('PENDING','PAID','SHIPPED','CANCELLED') NOT NULL,
+    payment_reference VARCHAR(255),
+    user_id           BINARY(16),
+    CONSTRAINT pk_orders PRIMARY KEY (id),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE order_items
+(
+    id             BINARY(16)  NOT NULL,
+    created_at     DATETIME(6) NOT NULL,
+    updated_at     DATETIME(6) NOT NULL,
+    quantity       INTEGER,
+    price_per_unit DECIMAL(38, 2),
+    order_id       BINARY(16),
+    product_id     BINARY(16),
+    CONSTRAINT pk_order_items PRIMARY KEY (id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
@@ -0,0 +1,19 @@
+-- Indexes for the queries the API runs on every request, named so that plans are easy to read.
+-- Each one serves a single access path; keep this list in step with AccessPathIndexTest.
+
+-- Product listings filtered by category, optionally within a price range
+-- (ProductSpecification.hasCategory + priceGreaterThanOrEqual/priceLessThanOrEqual)
+CREATE INDEX idx_products_category_price ON products (category, price);
+
+-- Product listings in the default order, newest first, and their keyset cursors, which break
+-- ties on the ID in the same direction (ProductServiceImpl)
+CREATE INDEX idx_products_created_at ON products (created_at DESC, id DESC);
+
+-- Products written since a point in time (ProductRepository.findAllByUpdatedAtAfter)
+CREATE INDEX idx_products_updated_at ON products (updated_at);
+
+-- A user's order history, newest first, optionally filtered by status (OrderSpecification)
+CREATE INDEX idx_orders_user_created_at ON orders (user_id, created_at DESC);
+
+-- Payment webhooks and verification (OrderRepository.findByPaymentReference)
+CREATE INDEX idx_orders_payment_reference ON orders (payment_reference);
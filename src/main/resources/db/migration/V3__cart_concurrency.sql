@@ -0,0 +1,31 @@
+-- Optimistic concurrency for carts: every change bumps the cart's version, which clients can send
+-- back as If-Match, and a product appears at most once per cart so that concurrent first adds
+-- upsert one line instead of creating two.
+
+ALTER TABLE carts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE cart_items ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+
+-- Lines duplicated by earlier races are merged into the one with the lowest ID. The derived tables
+-- are materialized, which lets MySQL read the table being changed.
+UPDATE cart_items
+   SET quantity = (SELECT t.total
+                     FROM (SELECT cart_id, product_id, SUM(quantity) AS total
+                             FROM cart_items
+                            GROUP BY cart_id, product_id) t
+                    WHERE t.cart_id = cart_items.cart_id
+                      AND t.product_id = cart_items.product_id)
+ WHERE id IN (SELECT k.keep_id
+                FROM (SELECT MIN(id) AS keep_id
+                        FROM cart_items
+                       GROUP BY cart_id, product_id
+                      HAVING COUNT(*) > 1) k);
+
+DELETE FROM cart_items
+ WHERE id IN (SELECT d.id
+                FROM (SELECT DISTINCT ci.id
+                        FROM cart_items ci
+                        JOIN cart_items kept ON kept.cart_id = ci.cart_id
+                                            AND kept.product_id = ci.product_id
+                                            AND kept.id < ci.id) d);
+
+ALTER TABLE cart_items ADD CONSTRAINT uk_cart_items_cart_product UNIQUE (cart_id, product_id);
@@ -0,0 +1,20 @@
+-- Stock held for unpaid orders, so the in-memory reservation ledger can be rebuilt after a restart.
+-- Rows are written with the order at checkout and deleted when the order is paid or cancelled, or
+-- its hold expires.
+
+CREATE TABLE stock_reservations
+(
+    id         BINARY(16)  NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    quantity   INTEGER     NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    order_id   BINARY(16)  NOT NULL,
+    product_id BINARY(16)  NOT NULL,
+    CONSTRAINT pk_stock_reservations PRIMARY KEY (id),
+    CONSTRAINT fk_stock_reservations_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_stock_reservations_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+-- Releasing or committing an order's holds (StockReservationRepository.deleteByOrderId)
+CREATE INDEX idx_stock_reservations_order ON stock_reservations (order_id);
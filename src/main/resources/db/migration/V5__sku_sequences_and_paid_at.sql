@@ -0,0 +1,13 @@
+-- Objects that entities gained after the baseline schema. Databases baselined at V1 were created
+-- by Hibernate before these existed, so they must be created here rather than in V1.
+
+-- Per-prefix counters behind block-reserved SKU suffixes (SkuSequence)
+CREATE TABLE sku_sequences
+(
+    prefix     VARCHAR(16) NOT NULL,
+    next_value BIGINT      NOT NULL,
+    CONSTRAINT pk_sku_sequences PRIMARY KEY (prefix)
+);
+
+-- When an order's payment was confirmed; older paid orders fall back to updated_at (Order.paidAt)
+ALTER TABLE orders ADD COLUMN paid_at DATETIME(6);
@@ -0,0 +1,3 @@
+-- When a payment arrived for an order that had been cancelled because its stock hold expired, and
+-- the stock was no longer available to honour it, so the payment must be refunded (Order.refundDueAt)
+ALTER TABLE orders ADD COLUMN refund_due_at DATETIME(6);
@@ -0,0 +1,197 @@
+package com.senibo.e_commerce_api.cart;
+
+import com.senibo.e_commerce_api.exception.general.NotFoundException;
+import com.senibo.e_commerce_api.exception.general.PreconditionFailedException;
+import com.senibo.e_commerce_api.model.auth.User;
+import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.model.product.ProductCategory;
+import com.senibo.e_commerce_api.repository.ProductRepository;
+import com.senibo.e_commerce_api.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks the write-behind {@link CartStore} against the Flyway schema on an embedded H2 database
+ * in MySQL mode. Flushes commit their own transactions, so the tests run outside one.
+ * <p>
+ * The store is built without its flush thread and with no idle time, so every clean cart is
+ * evicted by the next {@link CartStore#flushDirty()}.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cart-store;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        // The migrations use MySQL column types, which Hibernate would not validate against H2
+        "spring.jpa.hibernate.ddl-auto=none"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartStoreTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private CartStore store;
+
+    @BeforeEach
+    void createStore() {
+        store = new CartStore(jdbcTemplate, transactionManager, true, 60_000, 4, 0);
+    }
+
+    @AfterEach
+    void deleteEverything() {
+        jdbcTemplate.execute("DELETE FROM cart_items");
+        jdbcTemplate.execute("DELETE FROM carts");
+        jdbcTemplate.execute("DELETE FROM products");
+        jdbcTemplate.execute("DELETE FROM users");
+    }
+
+    @Test
+    void changesAreWrittenOnlyWhenFlushedAndSurviveEviction() {
+        UUID userId = createUser().getId();
+        UUID productId = createProduct("SKU-PEN").getId();
+
+        store.update(userId, Optional.empty(), cart -> {
+            cart.add(productId, 1);
+            return null;
+        });
+        CartStore.Contents written = store.update(userId, Optional.empty(), cart -> {
+            cart.add(productId, 2);
+            return cart.contents();
+        });
+        assertEquals(2, written.version());
+        assertEquals(0, countCarts());
+
+        store.flushDirty();
+
+        // Both changes cost one write, after which the clean cart was evicted
+        assertEquals(0, store.size());
+        assertEquals(2L, jdbcTemplate.queryForObject("SELECT version FROM carts", Long.class));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT quantity FROM cart_items", Integer.class));
+
+        CartStore.Contents reloaded = store.read(userId, CartStore.ActiveCart::contents);
+        assertEquals(written.cartId(), reloaded.cartId());
+        assertEquals(2, reloaded.version());
+        assertEquals(written.lines().get(0).itemId(), reloaded.lines().get(0).itemId());
+        assertEquals(3, reloaded.lines().get(0).quantity());
+    }
+
+    @Test
+    void flushOfOneCartReplacesItsLines() {
+        UUID userId = createUser().getId();
+        UUID penId = createProduct("SKU-PEN").getId();
+        UUID inkId = createProduct("SKU-INK").getId();
+
+        UUID penItemId = store.update(userId, Optional.empty(), cart -> {
+            cart.add(penId, 1);
+            return cart.contents().lines().get(0).itemId();
+        });
+        store.flush(userId);
+        assertEquals(1, countCarts());
+
+        store.update(userId, Optional.empty(), cart -> {
+            cart.add(inkId, 4);
+            return cart.removeItem(penItemId);
+        });
+        store.flush(userId);
+
+        assertEquals(3L, jdbcTemplate.queryForObject("SELECT version FROM carts", Long.class));
+        assertEquals(List.of(4),
+                     jdbcTemplate.queryForList("SELECT quantity FROM cart_items", Integer.class));
+    }
+
+    @Test
+    void changeAtAStaleVersionIsRefusedAndLeavesTheCartAsItWas() {
+        UUID userId = createUser().getId();
+        UUID productId = createProduct("SKU-PEN").getId();
+        store.update(userId, Optional.empty(), cart -> {
+            cart.add(productId, 1);
+            return null;
+        });
+
+        assertThrows(PreconditionFailedException.class, () -> store.update(userId, Optional.of(0L), cart -> {
+            cart.add(productId, 1);
+            return null;
+        }));
+
+        CartStore.Contents contents = store.read(userId, CartStore.ActiveCart::contents);
+        assertEquals(1, contents.version());
+        assertEquals(1, contents.lines().get(0).quantity());
+    }
+
+    @Test
+    void cartThatWasOnlyReadIsEvictedOnceIdle() {
+        UUID userId = UUID.randomUUID();
+        store.read(userId, CartStore.ActiveCart::contents);
+        assertEquals(1, store.size());
+
+        store.flushDirty();
+
+        assertEquals(0, store.size());
+        assertEquals(0, countCarts());
+    }
+
+    @Test
+    void cartWhoseOnlyChangeFailedIsEvictedOnceIdle() {
+        UUID userId = UUID.randomUUID();
+        assertThrows(NotFoundException.class, () -> store.update(userId, Optional.empty(), cart -> cart
+                .removeItem(UUID.randomUUID())
+                .orElseThrow(() -> new NotFoundException("Item not found in cart."))));
+        assertEquals(1, store.size());
+
+        store.flushDirty();
+
+        assertEquals(0, store.size());
+        assertEquals(0, countCarts());
+    }
+
+    private User createUser() {
+        return userRepository.save(User.builder()
+                                       .firstname("Ada")
+                                       .lastname("Lovelace")
+                                       .username("ada")
+                                       .email("ada@example.com")
+                                       .build());
+    }
+
+    private Product createProduct(String sku) {
+        return productRepository.save(Product.builder()
+                                              .name("Product " + sku)
+                                              .description("Description")
+                                              .price(new BigDecimal("2.50"))
+                                              .stockQuantity(100)
+                                              .category(ProductCategory.BOOKS_MEDIA)
+                                              .sku(sku)
+                                              .build());
+    }
+
+    private int countCarts() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM carts", Integer.class);
+    }
+}
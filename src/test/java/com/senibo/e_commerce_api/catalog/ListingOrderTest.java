@@ -0,0 +1,149 @@
+package com.senibo.e_commerce_api.catalog;
+
+import com.senibo.e_commerce_api.dto.product.ProductResponse;
+import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.model.product.ProductCategory;
+import com.senibo.e_commerce_api.repository.ProductRepository;
+import com.senibo.e_commerce_api.util.PaginationValidator;
+import com.senibo.e_commerce_api.util.ProductSpecification;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the same listing through the {@link InMemoryCatalog} and through the SQL offset path,
+ * {@link ProductRepository#findResponseSlice} with the pageable {@code ProductServiceImpl} builds,
+ * and checks that both return the same products in the same order.
+ * <p>
+ * The catalog is full of ties: names that differ only in case, shared prices, stock levels and
+ * creation times, and creation times a microsecond apart. About half of the IDs have their top bit
+ * set, where signed and unsigned ID order disagree. The database is H2 in MySQL mode with
+ * case-insensitive strings, standing in for MySQL's default collation.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:listing-order;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        // The migrations use MySQL column types, which Hibernate would not validate against H2
+        "spring.jpa.hibernate.ddl-auto=none"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ListingOrderTest {
+
+    private static final int PRODUCTS = 60;
+    private static final String[] NAMES = {"apple", "Apple", "banana", "Cherry", "cherry", "date pie"};
+    private static final BigDecimal[] PRICES = {
+            new BigDecimal("5.00"), new BigDecimal("10.00"), new BigDecimal("10.00"), new BigDecimal("20.00")
+    };
+    private static final int[] STOCKS = {0, 5, 5, 10};
+    private static final LocalDateTime CREATED = LocalDateTime.of(2025, 3, 1, 12, 0);
+    private static final LocalDateTime[] CREATED_ATS = {
+            CREATED, CREATED.plusNanos(1_000), CREATED.plusNanos(1_000_000), CREATED
+    };
+
+    private final PaginationValidator paginationValidator = new PaginationValidator();
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private InMemoryCatalog catalog;
+
+    @BeforeEach
+    void loadCatalog() {
+        Random random = new Random(7);
+        for (int i = 0; i < PRODUCTS; i++) {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            jdbcTemplate.update("""
+                                        INSERT INTO products (id, created_at, updated_at, name, description, price,
+                                                              stock_quantity, category, sku)
+                                        VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+                                        """,
+                                toBytes(id),
+                                Timestamp.valueOf(CREATED_ATS[i % CREATED_ATS.length]),
+                                Timestamp.valueOf(CREATED),
+                                NAMES[i % NAMES.length],
+                                "Description " + i,
+                                PRICES[i % PRICES.length],
+                                STOCKS[(i / 2) % STOCKS.length],
+                                (i % 3 == 0 ? ProductCategory.BOOKS_MEDIA : ProductCategory.ELECTRONICS).name(),
+                                "SKU-" + i);
+        }
+
+        catalog = new InMemoryCatalog(new PriceScanner("bitmap", Integer.MAX_VALUE, 1));
+        catalog.load(productRepository.findAll(), Map.of());
+    }
+
+    @Test
+    void unfilteredListingsAgree() {
+        assertSameOrder(ProductFilter.of(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty()),
+                        null);
+    }
+
+    @Test
+    void filteredListingsAgree() {
+        Optional<ProductCategory> category = Optional.of(ProductCategory.ELECTRONICS);
+        Optional<BigDecimal> minPrice = Optional.of(new BigDecimal("5.00"));
+        Optional<BigDecimal> maxPrice = Optional.of(new BigDecimal("10.00"));
+        assertSameOrder(ProductFilter.of(Optional.empty(), category, minPrice, maxPrice),
+                        ProductSpecification.build(Optional.empty(), category, minPrice, maxPrice));
+    }
+
+    private void assertSameOrder(ProductFilter filter, Specification<Product> spec) {
+        for (String sortBy : InMemoryCatalog.SORTABLE_FIELDS) {
+            for (String direction : List.of("asc", "desc")) {
+                // The whole listing, then a page from its middle
+                assertSamePage(filter, spec, sortBy, direction, 0, PRODUCTS);
+                assertSamePage(filter, spec, sortBy, direction, 1, 7);
+            }
+        }
+    }
+
+    private void assertSamePage(ProductFilter filter, Specification<Product> spec,
+                                String sortBy, String direction, int page, int pageSize) {
+        Pageable pageable = paginationValidator.createPageable(page, pageSize, sortBy, direction, "id");
+
+        List<UUID> inMemory = catalog.query(filter,
+                                            null,
+                                            sortBy,
+                                            direction.equals("desc"),
+                                            pageable.getOffset(),
+                                            pageable.getPageSize())
+                                     .ids();
+        List<UUID> sql = productRepository.findResponseSlice(spec, pageable, pageable.getPageSize())
+                                          .stream()
+                                          .map(ProductResponse::id)
+                                          .toList();
+
+        assertEquals(sql, inMemory, () -> "Listings differ when sorted by " + sortBy + " " + direction
+                + ", page " + page + " of " + pageSize);
+    }
+
+    // The same layout as the entities' BINARY(16) IDs: most significant bits first
+    private static byte[] toBytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                         .putLong(id.getMostSignificantBits())
+                         .putLong(id.getLeastSignificantBits())
+                         .array();
+    }
+}
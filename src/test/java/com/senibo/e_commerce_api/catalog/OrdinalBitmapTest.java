@@ -0,0 +1,156 @@
+package com.senibo.e_commerce_api.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks {@link OrdinalBitmap} where its representation changes: a chunk switching between the
+ * sorted array and the bitset at 4096 values, and values on either side of a 65536 chunk boundary.
+ */
+class OrdinalBitmapTest {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int CHUNK = 65536;
+
+    @Test
+    void chunkKeepsItsValuesWhenItGrowsPastTheArrayLimit() {
+        OrdinalBitmap bitmap = bitmapOf(IntStream.range(0, ARRAY_MAX).map(i -> i * 2).toArray());
+        assertEquals(ARRAY_MAX, bitmap.cardinality());
+
+        // The 4097th value turns the chunk into a bitset
+        assertTrue(bitmap.add(1));
+        assertFalse(bitmap.add(1));
+
+        assertEquals(ARRAY_MAX + 1, bitmap.cardinality());
+        List<Integer> expected = new ArrayList<>(List.of(0, 1));
+        IntStream.range(1, ARRAY_MAX).forEach(i -> expected.add(i * 2));
+        assertEquals(expected, valuesOf(bitmap));
+    }
+
+    @Test
+    void chunkKeepsItsValuesWhenItShrinksBackToTheArrayLimit() {
+        OrdinalBitmap bitmap = bitmapOf(IntStream.rangeClosed(0, ARRAY_MAX).toArray());
+
+        // Back to 4096 values, which turns the chunk into an array again
+        assertTrue(bitmap.remove(ARRAY_MAX));
+        assertFalse(bitmap.remove(ARRAY_MAX));
+        assertTrue(bitmap.add(CHUNK - 1));
+        assertTrue(bitmap.remove(0));
+
+        assertEquals(ARRAY_MAX, bitmap.cardinality());
+        assertFalse(bitmap.contains(0));
+        assertTrue(bitmap.contains(CHUNK - 1));
+        List<Integer> expected = new ArrayList<>(IntStream.range(1, ARRAY_MAX).boxed().toList());
+        expected.add(CHUNK - 1);
+        assertEquals(expected, valuesOf(bitmap));
+    }
+
+    @Test
+    void fromWordsKeepsEveryValueOfDenseAndSparseChunks() {
+        long[] words = new long[3 * CHUNK / 64];
+        // Chunk 0 holds exactly 4096 values and stays an array, chunk 1 holds one more and is a bitset
+        for (int i = 0; i < ARRAY_MAX; i++) {
+            words[i / 64] |= 1L << i;
+        }
+        for (int i = CHUNK; i <= CHUNK + ARRAY_MAX; i++) {
+            words[i / 64] |= 1L << i;
+        }
+        // Chunk 2 has a single value in its last bit
+        words[words.length - 1] |= 1L << 63;
+
+        OrdinalBitmap bitmap = OrdinalBitmap.fromWords(words);
+
+        assertEquals(2 * ARRAY_MAX + 2, bitmap.cardinality());
+        assertTrue(bitmap.contains(ARRAY_MAX - 1));
+        assertFalse(bitmap.contains(ARRAY_MAX));
+        assertTrue(bitmap.contains(CHUNK + ARRAY_MAX));
+        assertTrue(bitmap.contains(3 * CHUNK - 1));
+    }
+
+    @Test
+    void andOnlyMatchesValuesInTheSameChunk() {
+        OrdinalBitmap a = bitmapOf(0, CHUNK - 1, CHUNK, 2 * CHUNK);
+        OrdinalBitmap b = bitmapOf(CHUNK - 1, CHUNK + 1, 2 * CHUNK, 2 * CHUNK + 1);
+
+        assertEquals(List.of(CHUNK - 1, 2 * CHUNK), valuesOf(OrdinalBitmap.and(a, b)));
+    }
+
+    @Test
+    void andOfAnArrayAndABitsetChunk() {
+        OrdinalBitmap dense = bitmapOf(IntStream.range(CHUNK, CHUNK + 2 * ARRAY_MAX).toArray());
+        OrdinalBitmap sparse = bitmapOf(CHUNK - 1, CHUNK, CHUNK + 2 * ARRAY_MAX - 1, CHUNK + 2 * ARRAY_MAX);
+
+        OrdinalBitmap intersection = OrdinalBitmap.and(dense, sparse);
+
+        assertEquals(List.of(CHUNK, CHUNK + 2 * ARRAY_MAX - 1), valuesOf(intersection));
+        assertEquals(intersection.cardinality(), valuesOf(intersection).size());
+    }
+
+    @Test
+    void orOfTwoArraysPastTheArrayLimitKeepsEveryValue() {
+        OrdinalBitmap evens = bitmapOf(IntStream.range(0, ARRAY_MAX).map(i -> i * 2).toArray());
+        OrdinalBitmap odds = bitmapOf(IntStream.range(0, 2).map(i -> i * 2 + 1).toArray());
+
+        OrdinalBitmap union = OrdinalBitmap.or(evens, odds);
+
+        assertEquals(ARRAY_MAX + 2, union.cardinality());
+        assertTrue(union.contains(1));
+        assertTrue(union.contains(3));
+        assertTrue(union.contains(2 * ARRAY_MAX - 2));
+    }
+
+    @Test
+    void orInPlaceMatchesOrAcrossChunksAndLeavesItsArgumentAlone() {
+        OrdinalBitmap dense = bitmapOf(IntStream.range(CHUNK - ARRAY_MAX, CHUNK + ARRAY_MAX).toArray());
+        OrdinalBitmap sparse = bitmapOf(0, 1, CHUNK - 1, CHUNK, 3 * CHUNK);
+
+        OrdinalBitmap accumulator = bitmapOf(2, CHUNK + ARRAY_MAX);
+        accumulator.orInPlace(sparse);
+        accumulator.orInPlace(dense);
+        // Adding the same set again must not count its values twice
+        accumulator.orInPlace(sparse);
+
+        OrdinalBitmap expected = OrdinalBitmap.or(OrdinalBitmap.or(bitmapOf(2, CHUNK + ARRAY_MAX), sparse), dense);
+        assertEquals(valuesOf(expected), valuesOf(accumulator));
+        assertEquals(expected.cardinality(), accumulator.cardinality());
+        assertEquals(List.of(0, 1, CHUNK - 1, CHUNK, 3 * CHUNK), valuesOf(sparse));
+        assertEquals(2 * ARRAY_MAX, dense.cardinality());
+
+        // The accumulator owns its containers, so changing it does not change the sets added to it
+        accumulator.remove(CHUNK);
+        assertTrue(sparse.contains(CHUNK));
+        assertTrue(dense.contains(CHUNK));
+    }
+
+    @Test
+    void removingTheLastValueOfAChunkDropsTheChunk() {
+        OrdinalBitmap bitmap = bitmapOf(CHUNK - 1, CHUNK);
+
+        assertTrue(bitmap.remove(CHUNK));
+        assertEquals(List.of(CHUNK - 1), valuesOf(bitmap));
+        assertTrue(bitmap.remove(CHUNK - 1));
+        assertTrue(bitmap.isEmpty());
+        assertEquals(0, bitmap.cardinality());
+    }
+
+    private static OrdinalBitmap bitmapOf(int... values) {
+        OrdinalBitmap bitmap = new OrdinalBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    private static List<Integer> valuesOf(OrdinalBitmap bitmap) {
+        List<Integer> values = new ArrayList<>();
+        bitmap.forEach(values::add);
+        return values;
+    }
+}
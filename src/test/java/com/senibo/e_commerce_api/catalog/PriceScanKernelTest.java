@@ -0,0 +1,94 @@
+package com.senibo.e_commerce_api.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that the vector {@link PriceScanKernel} sets exactly the same mask bits as the scalar one.
+ * <p>
+ * The vector kernel is only compiled by the {@code vector} Maven profile, which also starts the test
+ * JVM with the incubator module, so these tests are skipped by a default build.
+ */
+class PriceScanKernelTest {
+
+    private static final int PRODUCTS = 5000;
+    private static final int CATEGORIES = 12;
+
+    private PriceScanKernel vector;
+    private long[] prices;
+    private byte[] categories;
+
+    @BeforeEach
+    void loadVectorKernel() throws ReflectiveOperationException {
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(),
+                   "jdk.incubator.vector is not available");
+        Class<?> kernel;
+        try {
+            kernel = Class.forName(PriceScanKernel.class.getPackageName() + ".VectorPriceScanKernel");
+        } catch (ClassNotFoundException e) {
+            assumeTrue(false, "The vector kernel is only built with -Pvector");
+            return;
+        }
+        vector = (PriceScanKernel) kernel.getDeclaredConstructor().newInstance();
+
+        Random random = new Random(7);
+        prices = new long[PRODUCTS];
+        categories = new byte[PRODUCTS];
+        for (int i = 0; i < PRODUCTS; i++) {
+            // Few distinct prices, so that many land exactly on the bounds
+            prices[i] = random.nextInt(100);
+            categories[i] = (byte) random.nextInt(CATEGORIES);
+        }
+        prices[0] = Long.MIN_VALUE;
+        prices[1] = Long.MAX_VALUE;
+    }
+
+    @Test
+    void masksMatchForEveryCategoryAndAnyCategory() {
+        for (int category = -1; category < CATEGORIES; category++) {
+            assertSameMask(0, PRODUCTS, 20, 40, category);
+        }
+    }
+
+    @Test
+    void masksMatchForOpenAndEmptyBounds() {
+        assertSameMask(0, PRODUCTS, Long.MIN_VALUE, Long.MAX_VALUE, -1);
+        assertSameMask(0, PRODUCTS, 0, 0, 3);
+        assertSameMask(0, PRODUCTS, 99, 99, -1);
+        assertSameMask(0, PRODUCTS, 50, 49, -1);
+    }
+
+    @Test
+    void masksMatchForRangesThatDoNotFillAWholeGroup() {
+        // Ranges start on a mask word, as PriceScanner's chunks do, and end anywhere
+        for (int from = 0; from <= 256; from += 64) {
+            for (int to = from; to <= from + 70; to++) {
+                assertSameMask(from, to, 10, 60, 5);
+            }
+        }
+        assertSameMask(PRODUCTS - 64, PRODUCTS, 10, 60, -1);
+    }
+
+    private void assertSameMask(int from, int to, long minPrice, long maxPrice, int category) {
+        long[] expected = new long[(PRODUCTS + 63) >>> 6];
+        long[] actual = new long[expected.length];
+        // Bits outside the range must be left alone, so start from a mask that is not all zeros
+        Arrays.fill(expected, 0x5555_5555_5555_5555L);
+        Arrays.fill(actual, 0x5555_5555_5555_5555L);
+
+        int expectedCount = ScalarPriceScanKernel.INSTANCE.scan(
+                prices, categories, from, to, minPrice, maxPrice, category, expected);
+        int actualCount = vector.scan(prices, categories, from, to, minPrice, maxPrice, category, actual);
+
+        String range = "[" + from + ", " + to + ") prices " + minPrice + ".." + maxPrice + " category " + category;
+        assertArrayEquals(expected, actual, range);
+        assertEquals(expectedCount, actualCount, range);
+    }
+}
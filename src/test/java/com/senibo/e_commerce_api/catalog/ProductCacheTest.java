@@ -0,0 +1,92 @@
+package com.senibo.e_commerce_api.catalog;
+
+import com.senibo.e_commerce_api.dto.product.ProductResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Checks that a load which raced with a write to the {@link ProductCache} is returned to its
+ * caller but never cached over the write, and that a clean load is cached.
+ */
+class ProductCacheTest {
+
+    private final ProductCache cache = new ProductCache(1_000, 600);
+    private final UUID id = UUID.randomUUID();
+
+    @Test
+    void loadIsCachedWhenNothingRacedWithIt() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(id, productId -> {
+            loads.incrementAndGet();
+            return product(productId, 5);
+        });
+        ProductResponse second = cache.get(id, productId -> {
+            loads.incrementAndGet();
+            return product(productId, 6);
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals(5, second.stockQuantity());
+    }
+
+    @Test
+    void loadThatRacedWithAPutDoesNotOverwriteIt() {
+        ProductResponse loaded = cache.get(id, productId -> {
+            // A write path stores the new stock while this load is still reading the old one
+            cache.put(product(productId, 4));
+            return product(productId, 5);
+        });
+
+        assertEquals(5, loaded.stockQuantity());
+        assertEquals(4, cache.getIfPresent(id).stockQuantity());
+    }
+
+    @Test
+    void loadThatRacedWithAnInvalidationIsNotCached() {
+        cache.get(id, productId -> {
+            cache.invalidate(productId);
+            return product(productId, 5);
+        });
+
+        assertNull(cache.getIfPresent(id));
+    }
+
+    @Test
+    void batchLoadThatRacedWithAPutDoesNotOverwriteIt() {
+        UUID other = UUID.randomUUID();
+
+        Map<UUID, ProductResponse> loaded = cache.getAll(List.of(id, other, id), ids -> {
+            cache.put(product(id, 4));
+            return ids.stream().map(productId -> product(productId, 5)).toList();
+        });
+
+        assertEquals(2, loaded.size());
+        assertEquals(5, loaded.get(id).stockQuantity());
+        assertEquals(4, cache.getIfPresent(id).stockQuantity());
+    }
+
+    @Test
+    void invalidateAllDropsLoadsStillInFlight() {
+        cache.get(id, productId -> {
+            cache.invalidateAll();
+            return product(productId, 5);
+        });
+
+        assertNull(cache.getIfPresent(id));
+        assertEquals(0, cache.stats().size());
+    }
+
+    private static ProductResponse product(UUID id, int stock) {
+        return new ProductResponse(id, "Lamp", "A lamp", new BigDecimal("10.00"), stock,
+                                   "HOME_GARDEN", null, "SKU-LAMP");
+    }
+}
@@ -0,0 +1,145 @@
+package com.senibo.e_commerce_api.catalog;
+
+import com.senibo.e_commerce_api.dto.CountMode;
+import com.senibo.e_commerce_api.dto.PagedResult;
+import com.senibo.e_commerce_api.dto.product.ProductResponse;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks when the {@link ProductListingCache} serves a page again and when it computes it afresh:
+ * across catalog generations, after the time to live, and at the edge of the byte budget.
+ * <p>
+ * With the budget used here, each of the 16 segments has room for one single-product page
+ * (about 630 bytes by the cache's estimate) but not for two, nor for a ten-product page.
+ */
+class ProductListingCacheTest {
+
+    private static final long MAX_BYTES = 16 * 1_000;
+
+    private final CatalogGeneration catalogGeneration = new CatalogGeneration();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final ProductListingCache cache = new ProductListingCache(catalogGeneration, true, MAX_BYTES, 600);
+
+    @Test
+    void pageIsServedAgainUntilTheCatalogChanges() {
+        ProductListingCache.Key key = key(0);
+
+        PagedResult<ProductResponse> first = cache.get(key, page(1, true));
+        assertEquals(first, cache.get(key, page(1, true)));
+        assertEquals(1, loads.get());
+
+        catalogGeneration.onProductsChanged(new ProductsChangedEvent(List.of()));
+
+        cache.get(key, page(1, true));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void pageComputedWhileTheCatalogChangedIsNotCached() {
+        ProductListingCache.Key key = key(0);
+        Supplier<PagedResult<ProductResponse>> racingLoad = () -> {
+            catalogGeneration.onProductsChanged(new ProductsChangedEvent(List.of()));
+            return page(1, true).get();
+        };
+
+        cache.get(key, racingLoad);
+        cache.get(key, page(1, true));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void pageWithAnEstimatedTotalIsNotCached() {
+        ProductListingCache.Key key = key(0);
+
+        cache.get(key, page(1, false));
+        cache.get(key, page(1, false));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void pageExpiresAfterItsTimeToLive() throws InterruptedException {
+        ProductListingCache shortLived = new ProductListingCache(catalogGeneration, true, MAX_BYTES, 1);
+        ProductListingCache.Key key = key(0);
+
+        shortLived.get(key, page(1, true));
+        shortLived.get(key, page(1, true));
+        assertEquals(1, loads.get());
+
+        Thread.sleep(1_100);
+
+        shortLived.get(key, page(1, true));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void pageLargerThanItsSegmentsBudgetIsNotCached() {
+        ProductListingCache.Key key = key(0);
+
+        cache.get(key, page(10, true));
+        cache.get(key, page(10, true));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void budgetBoundsHowManyPagesAreKept() {
+        int pages = 100;
+        for (int i = 0; i < pages; i++) {
+            cache.get(key(i), page(1, true));
+        }
+        assertEquals(pages, loads.get());
+
+        // Each segment kept at most its most recent page
+        for (int i = 0; i < pages; i++) {
+            cache.get(key(i), page(1, true));
+        }
+        int reloads = loads.get() - pages;
+        assertTrue(reloads >= pages - 16, () -> "Only " + reloads + " pages had been evicted");
+    }
+
+    @Test
+    void disabledCacheAlwaysComputesThePage() {
+        ProductListingCache disabled = new ProductListingCache(catalogGeneration, false, MAX_BYTES, 600);
+        ProductListingCache.Key key = key(0);
+
+        disabled.get(key, page(1, true));
+        disabled.get(key, page(1, true));
+
+        assertEquals(2, loads.get());
+    }
+
+    private static ProductListingCache.Key key(int page) {
+        ProductFilter filter = ProductFilter.of(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+        return new ProductListingCache.Key(filter, page, 10, "name", false, CountMode.EXACT);
+    }
+
+    /**
+     * A loader of a page holding the given number of products, counting its calls.
+     */
+    private Supplier<PagedResult<ProductResponse>> page(int products, boolean exactTotal) {
+        return () -> {
+            loads.incrementAndGet();
+            List<ProductResponse> items = new ArrayList<>(products);
+            for (int i = 0; i < products; i++) {
+                items.add(new ProductResponse(UUID.randomUUID(), "Lamp", "A lamp", new BigDecimal("10.00"), 5,
+                                              "HOME_GARDEN", null, "SKU-LAMP"));
+            }
+            return PagedResult.of(Collections.unmodifiableList(items), 0, 10, 100L, exactTotal, true);
+        };
+    }
+}
@@ -0,0 +1,100 @@
+package com.senibo.e_commerce_api.catalog;
+
+import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.model.product.ProductCategory;
+import com.senibo.e_commerce_api.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rebuilds the {@link ProductSearchIndex} while products are written, and checks that searches
+ * keep being answered from the previous index until the swap, and that no write made during the
+ * rebuild is lost from the new one.
+ */
+class ProductSearchIndexTest {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductSearchIndex index = new ProductSearchIndex(productRepository);
+
+    @Test
+    void onlySupportsTermsWithTrigramsOnceBuilt() {
+        assertFalse(index.supports("lamp"));
+
+        index.load(List.of(product("Desk Lamp", "HOM-DES-10000")));
+
+        assertTrue(index.supports("lamp"));
+        assertFalse(index.supports(" la "));
+    }
+
+    @Test
+    void writesDuringARebuildAreReplayedOntoTheNewIndex() {
+        Product lamp = product("Desk Lamp", "HOM-DES-10000");
+        Product chair = product("Office Chair", "HOM-OFF-10000");
+        index.load(List.of(lamp, chair));
+
+        Product kettle = product("Electric Kettle", "HOM-ELE-10000");
+        Product renamedChair = product("Gaming Chair", "HOM-OFF-10000");
+        renamedChair.setId(chair.getId());
+        when(productRepository.findAll()).thenAnswer(invocation -> {
+            // The database was read before these writes committed
+            index.onProductsChanged(new ProductsChangedEvent(List.of(kettle, renamedChair)));
+            // Searches are still served by the previous index, which took the writes too
+            assertEquals(List.of(kettle.getId()), index.search("kettle"));
+            return List.of(lamp, chair);
+        });
+
+        assertEquals(3, index.rebuild());
+
+        assertEquals(List.of(kettle.getId()), index.search("kettle"));
+        assertEquals(List.of(chair.getId()), index.search("gaming"));
+        assertEquals(List.of(), index.search("office"));
+        assertEquals(List.of(lamp.getId()), index.search("lamp"));
+    }
+
+    @Test
+    void failedRebuildKeepsTheLiveIndex() {
+        Product lamp = product("Desk Lamp", "HOM-DES-10000");
+        index.load(List.of(lamp));
+        when(productRepository.findAll()).thenThrow(new IllegalStateException("Database unavailable"));
+
+        assertThrows(IllegalStateException.class, index::rebuild);
+
+        Product kettle = product("Electric Kettle", "HOM-ELE-10000");
+        index.onProductsChanged(new ProductsChangedEvent(List.of(kettle)));
+        assertEquals(List.of(lamp.getId()), index.search("lamp"));
+        assertEquals(List.of(kettle.getId()), index.search("kettle"));
+    }
+
+    @Test
+    void exactNameRanksBeforePrefixesAndSubstrings() {
+        Product inside = product("Reading Lamp", "HOM-REA-10000");
+        Product prefix = product("Lamp Shade", "HOM-LAM-10000");
+        Product exact = product("Lamp", "HOM-LAM-10001");
+        index.load(List.of(inside, prefix, exact));
+
+        assertEquals(List.of(exact.getId(), prefix.getId(), inside.getId()), index.search("LAMP"));
+    }
+
+    private static Product product(String name, String sku) {
+        Product product = Product.builder()
+                                 .name(name)
+                                 .description("Description")
+                                 .price(new BigDecimal("10.00"))
+                                 .stockQuantity(1)
+                                 .category(ProductCategory.HOME_GARDEN)
+                                 .sku(sku)
+                                 .build();
+        product.setId(UUID.randomUUID());
+        return product;
+    }
+}
@@ -0,0 +1,144 @@
+package com.senibo.e_commerce_api.controller;
+
+import com.senibo.e_commerce_api.catalog.CatalogStamp;
+import com.senibo.e_commerce_api.catalog.ProductETags;
+import com.senibo.e_commerce_api.catalog.ProductsChangedEvent;
+import com.senibo.e_commerce_api.dto.ApiSuccessResponse;
+import com.senibo.e_commerce_api.repository.ProductRepository;
+import com.senibo.e_commerce_api.service.ProductService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Revalidates each tagged product endpoint through the {@link ProductController} with the tag it
+ * handed out, and checks that the answer is {@code 304 Not Modified} without the service being
+ * called again, until the product table changes.
+ */
+class ProductETagTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2025, 3, 1, 12, 0, 0, 123_456_000);
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final ProductService productService = mock(ProductService.class);
+
+    private ProductETags productETags;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.findCatalogStamp()).thenReturn(new CatalogStamp(UPDATED_AT, 3));
+        ApiSuccessResponse<?> ok = new ApiSuccessResponse<>(true, "OK", null);
+        when(productService.findAllProducts(anyInt(), anyInt(), anyString(), anyString(),
+                                            any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> ok);
+        when(productService.getFacets(any(), any(), any(), any(), anyList())).thenAnswer(invocation -> ok);
+        when(productService.findProductById(any())).thenAnswer(invocation -> ok);
+
+        // Every write on this node drops the catalog tag, so the time-to-live never expires here
+        productETags = new ProductETags(productRepository, true, 60_000);
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProductController(productService, productETags))
+                                 .build();
+    }
+
+    @Test
+    void listingIsNotModifiedUntilTheCatalogChanges() throws Exception {
+        String eTag = revalidate("/api/v1/products");
+        verify(productService).findAllProducts(anyInt(), anyInt(), anyString(), anyString(),
+                                               any(), any(), any(), any(), any());
+
+        // A product deleted on this node
+        when(productRepository.findCatalogStamp()).thenReturn(new CatalogStamp(UPDATED_AT, 2));
+        productETags.onProductsChanged(new ProductsChangedEvent(List.of()));
+
+        mockMvc.perform(get("/api/v1/products").header("If-None-Match", eTag))
+               .andExpect(status().isOk());
+    }
+
+    @Test
+    void facetsAreNotModifiedUntilTheCatalogChanges() throws Exception {
+        String eTag = revalidate("/api/v1/products/facets");
+        verify(productService).getFacets(any(), any(), any(), any(), anyList());
+
+        // A product updated on this node
+        when(productRepository.findCatalogStamp()).thenReturn(new CatalogStamp(UPDATED_AT.plusNanos(1_000), 3));
+        productETags.onProductsChanged(new ProductsChangedEvent(List.of()));
+
+        mockMvc.perform(get("/api/v1/products/facets").header("If-None-Match", eTag))
+               .andExpect(status().isOk());
+    }
+
+    @Test
+    void productIsNotModifiedUntilItChanges() throws Exception {
+        UUID productId = UUID.randomUUID();
+        when(productRepository.findUpdatedAtById(productId)).thenReturn(Optional.of(UPDATED_AT));
+
+        String eTag = revalidate("/api/v1/products/" + productId);
+        verify(productService).findProductById(productId);
+
+        when(productRepository.findUpdatedAtById(productId)).thenReturn(Optional.of(UPDATED_AT.plusSeconds(1)));
+
+        mockMvc.perform(get("/api/v1/products/" + productId).header("If-None-Match", eTag))
+               .andExpect(status().isOk());
+        verify(productService, times(2)).findProductById(productId);
+    }
+
+    @Test
+    void unknownProductIsServedWithoutTag() throws Exception {
+        UUID productId = UUID.randomUUID();
+        when(productRepository.findUpdatedAtById(productId)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v1/products/" + productId))
+               .andExpect(status().isOk())
+               .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    void nodesHandOutTheSameTagsForTheSameData() {
+        UUID productId = UUID.randomUUID();
+        when(productRepository.findUpdatedAtById(productId)).thenReturn(Optional.of(UPDATED_AT));
+        ProductETags otherNode = new ProductETags(productRepository, true, 60_000);
+
+        assertEquals(productETags.forCatalog(), otherNode.forCatalog());
+        assertEquals(productETags.forProduct(productId), otherNode.forProduct(productId));
+        assertNotEquals(productETags.forCatalog(), productETags.forProduct(productId));
+    }
+
+    /**
+     * Fetches the URL, then revalidates it with the ETag it returned.
+     *
+     * @return The ETag.
+     */
+    private String revalidate(String url) throws Exception {
+        String eTag = mockMvc.perform(get(url))
+                             .andExpect(status().isOk())
+                             .andExpect(header().exists("ETag"))
+                             .andReturn()
+                             .getResponse()
+                             .getHeader("ETag");
+
+        mockMvc.perform(get(url).header("If-None-Match", eTag))
+               .andExpect(status().isNotModified());
+        return eTag;
+    }
+}
@@ -0,0 +1,214 @@
+package com.senibo.e_commerce_api.inventory;
+
+import com.senibo.e_commerce_api.catalog.ProductCache;
+import com.senibo.e_commerce_api.exception.general.InsufficientStockException;
+import com.senibo.e_commerce_api.model.auth.User;
+import com.senibo.e_commerce_api.model.order.Order;
+import com.senibo.e_commerce_api.model.order.OrderStatus;
+import com.senibo.e_commerce_api.model.orderItem.OrderItem;
+import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.model.product.ProductCategory;
+import com.senibo.e_commerce_api.repository.OrderRepository;
+import com.senibo.e_commerce_api.repository.ProductRepository;
+import com.senibo.e_commerce_api.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Reserves, commits and expires stock holds through the {@link StockReservations} ledger, against
+ * the Flyway schema on an embedded H2 database in MySQL mode.
+ * <p>
+ * Checkout, payment and the hold sweep commit their own transactions, so the tests run outside
+ * one. The hold lifetime is zero, so every hold counts until the sweep is run by hand and has
+ * expired by then.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stock-reservations;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        // The migrations use MySQL column types, which Hibernate would not validate against H2
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.app.reservations.ttl-seconds=0",
+        // The sweep is run by hand
+        "spring.app.reservations.sweep-interval-ms=3600000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StockReservations.class, ProductCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationsTest {
+
+    @Autowired
+    private StockReservations stockReservations;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private User user;
+    private Product product;
+
+    @BeforeEach
+    void createProductWithThreeUnits() {
+        transaction = new TransactionTemplate(transactionManager);
+        user = userRepository.save(User.builder()
+                                       .firstname("Ada")
+                                       .lastname("Lovelace")
+                                       .username("ada")
+                                       .email("ada@example.com")
+                                       .build());
+        product = productRepository.save(Product.builder()
+                                                .name("Lamp")
+                                                .description("Three left")
+                                                .price(new BigDecimal("10.00"))
+                                                .stockQuantity(3)
+                                                .category(ProductCategory.HOME_GARDEN)
+                                                .sku("SKU-LAMP")
+                                                .build());
+    }
+
+    @AfterEach
+    void deleteEverything() {
+        jdbcTemplate.execute("DELETE FROM stock_reservations");
+        jdbcTemplate.execute("DELETE FROM order_items");
+        jdbcTemplate.execute("DELETE FROM orders");
+        jdbcTemplate.execute("DELETE FROM products");
+        jdbcTemplate.execute("DELETE FROM users");
+    }
+
+    @Test
+    void orderForMoreThanIsLeftIsRefusedAndWritesNothing() {
+        placeOrder("ref_first", 2);
+
+        assertThrows(InsufficientStockException.class, () -> placeOrder("ref_second", 2));
+
+        assertEquals(1, countOrders());
+        assertEquals(1, countReservations());
+        // The one unit that is not held can still be sold
+        placeOrder("ref_third", 1);
+    }
+
+    @Test
+    void reservationRolledBackWithItsOrderReleasesTheUnits() {
+        assertThrows(IllegalStateException.class, () -> transaction.executeWithoutResult(status -> {
+            stockReservations.reserve(newOrder("ref_failed", 3));
+            throw new IllegalStateException("Checkout failed after reserving");
+        }));
+
+        assertEquals(0, countReservations());
+        placeOrder("ref_retry", 3);
+    }
+
+    @Test
+    void commitTakesTheUnitsOutOfStockAndDropsTheHolds() {
+        UUID orderId = placeOrder("ref_paid", 2);
+
+        transaction.executeWithoutResult(status -> stockReservations.commit(
+                orderRepository.findById(orderId).orElseThrow()));
+
+        assertEquals(1, stockOf(product.getId()));
+        assertEquals(0, countReservations());
+        // The cached stock was reloaded, so only the unit that is left can be sold
+        assertThrows(InsufficientStockException.class, () -> placeOrder("ref_too_many", 2));
+        placeOrder("ref_last", 1);
+    }
+
+    @Test
+    void expiredHoldCancelsTheUnpaidOrderAndReleasesTheUnits() throws InterruptedException {
+        UUID orderId = placeOrder("ref_unpaid", 3);
+
+        expireHolds();
+
+        assertEquals(OrderStatus.CANCELLED, orderRepository.findById(orderId).orElseThrow().getOrderStatus());
+        assertEquals(0, countReservations());
+        assertEquals(3, stockOf(product.getId()));
+        placeOrder("ref_next", 3);
+    }
+
+    @Test
+    void expiredHoldOfAPaidOrderLeavesTheOrderAlone() throws InterruptedException {
+        UUID orderId = placeOrder("ref_paid", 1);
+        // Paid, but the sweep runs before the payment has committed the holds
+        transaction.executeWithoutResult(status -> {
+            Order order = orderRepository.findById(orderId).orElseThrow();
+            order.setOrderStatus(OrderStatus.PAID);
+        });
+
+        expireHolds();
+
+        assertEquals(OrderStatus.PAID, orderRepository.findById(orderId).orElseThrow().getOrderStatus());
+        assertEquals(0, countReservations());
+    }
+
+    private UUID placeOrder(String paymentReference, int quantity) {
+        return transaction.execute(status -> {
+            Order order = newOrder(paymentReference, quantity);
+            stockReservations.reserve(order);
+            return order.getId();
+        });
+    }
+
+    // Must be called inside a transaction
+    private Order newOrder(String paymentReference, int quantity) {
+        Order order = Order.builder()
+                           .user(user)
+                           .totalAmount(product.getPrice().multiply(BigDecimal.valueOf(quantity)))
+                           .paymentReference(paymentReference)
+                           .orderItems(new ArrayList<>())
+                           .build();
+        order.getOrderItems().add(OrderItem.builder()
+                                           .order(order)
+                                           .product(product)
+                                           .quantity(quantity)
+                                           .pricePerUnit(product.getPrice())
+                                           .build());
+        return orderRepository.save(order);
+    }
+
+    private void expireHolds() throws InterruptedException {
+        // Holds expire strictly before the sweep's clock reading
+        Thread.sleep(5);
+        stockReservations.expire();
+    }
+
+    private int stockOf(UUID productId) {
+        return productRepository.findById(productId).orElseThrow().getStockQuantity();
+    }
+
+    private int countOrders() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM orders", Integer.class);
+    }
+
+    private int countReservations() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_reservations", Integer.class);
+    }
+}
@@ -0,0 +1,318 @@
+package com.senibo.e_commerce_api.repository;
+
+import com.senibo.e_commerce_api.model.auth.User;
+import com.senibo.e_commerce_api.model.order.OrderStatus;
+import com.senibo.e_commerce_api.model.product.ProductCategory;
+import com.senibo.e_commerce_api.util.OrderSpecification;
+import com.senibo.e_commerce_api.util.PaginationValidator;
+import com.senibo.e_commerce_api.util.ProductCursor;
+import com.senibo.e_commerce_api.util.ProductSpecification;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the Flyway migrations against an embedded H2 database in MySQL mode and checks, with
+ * {@code EXPLAIN}, that each hot repository query is answered from an index rather than a table scan.
+ * <p>
+ * Each test calls the repository method or specification named on it and records the statement
+ * Hibernate sends to the JDBC driver, together with its bound parameters. That exact statement is
+ * then explained with the same parameters. A plan passes when the index it reads starts with the
+ * columns the query filters or sorts on.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:access-paths;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        // The migrations use MySQL column types, which Hibernate would not validate against H2
+        "spring.jpa.hibernate.ddl-auto=none"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AccessPathIndexTest.StatementRecorder.class)
+class AccessPathIndexTest {
+
+    private static final Pattern PLAN_INDEX = Pattern.compile("/\\*\\s*\\w+\\.(\\w+)[:\\s]");
+
+    private static final int PAGE_SIZE = 10;
+
+    // Offset listings are sorted as ProductServiceImpl builds the pageable: newest first, then by ID
+    private static final Pageable NEWEST_FIRST = new PaginationValidator().createPageable(0, PAGE_SIZE,
+                                                                                          "createdAt", "desc",
+                                                                                          "id");
+
+    @Autowired
+    private StatementRecorder recorder;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Test
+    void productsFilteredByCategoryAndPriceUseCategoryPriceIndex() throws Exception {
+        // ProductServiceImpl.findPage: ProductSpecification.build(..., category, minPrice, maxPrice),
+        // projected one row past the page
+        RecordedStatement statement = recorder.capture(() -> productRepository.findResponseSlice(
+                ProductSpecification.build(Optional.empty(),
+                                           Optional.of(ProductCategory.BOOKS_MEDIA),
+                                           Optional.of(new BigDecimal("10")),
+                                           Optional.of(new BigDecimal("50"))),
+                NEWEST_FIRST,
+                PAGE_SIZE + 1));
+
+        assertIndexLeadsWith(statement, "category", "price");
+    }
+
+    @Test
+    void newestProductsUseCreatedAtIndex() throws Exception {
+        // ProductServiceImpl.findPage for a listing without filters
+        RecordedStatement statement = recorder.capture(
+                () -> productRepository.findResponseSlice(null, NEWEST_FIRST, PAGE_SIZE + 1));
+
+        assertIndexLeadsWith(statement, "created_at", "id");
+    }
+
+    @Test
+    void newestProductsAfterCursorUseCreatedAtIndex() throws Exception {
+        // ProductServiceImpl.findAllProductsByCursor: seek past the previous page's last row,
+        // ordered by createdAt and then ID
+        ProductCursor position = new ProductCursor("createdAt",
+                                                   Sort.Direction.DESC,
+                                                   LocalDateTime.of(2025, 1, 1, 0, 0).toString(),
+                                                   UUID.randomUUID());
+        Sort sort = Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "id"));
+        RecordedStatement statement = recorder.capture(() -> productRepository.findBy(
+                ProductSpecification.seekAfter(null, position),
+                query -> query.sortBy(sort).limit(PAGE_SIZE + 1).all()));
+
+        assertIndexLeadsWith(statement, "created_at", "id");
+    }
+
+    @Test
+    void recentlyUpdatedProductsUseUpdatedAtIndex() throws Exception {
+        // ProductRepository.findAllByUpdatedAtAfter
+        RecordedStatement statement = recorder.capture(
+                () -> productRepository.findAllByUpdatedAtAfter(LocalDateTime.of(2025, 1, 1, 0, 0)));
+
+        assertIndexLeadsWith(statement, "updated_at");
+    }
+
+    @Test
+    void orderHistoryUsesUserIndex() throws Exception {
+        User user = User.builder()
+                        .firstname("Ada")
+                        .lastname("Lovelace")
+                        .username("ada")
+                        .email("ada@example.com")
+                        .build();
+        entityManager.persist(user);
+        entityManager.flush();
+
+        // OrderSpecification.build(user, status), sorted by the default createdAt DESC
+        RecordedStatement statement = recorder.capture(() -> orderRepository.findAll(
+                OrderSpecification.build(user, Optional.of(OrderStatus.PAID)),
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt"))));
+
+        assertIndexLeadsWith(statement, "user_id");
+    }
+
+    @Test
+    void paymentWebhookLookupUsesPaymentReferenceIndex() throws Exception {
+        // OrderRepository.findWithLockByPaymentReference
+        RecordedStatement statement = recorder.capture(
+                () -> orderRepository.findWithLockByPaymentReference("ref_123"));
+
+        assertIndexLeadsWith(statement, "payment_reference");
+    }
+
+    @Test
+    void cartLookupUsesUserIndex() throws Exception {
+        // CartRepository.findIdByUserId, which every cart change starts with
+        RecordedStatement statement = recorder.capture(() -> cartRepository.findIdByUserId(UUID.randomUUID()));
+
+        assertIndexLeadsWith(statement, "user_id");
+    }
+
+    @Test
+    void releasingStockHoldsUsesOrderIndex() throws Exception {
+        // StockReservationRepository.deleteByOrderId
+        RecordedStatement statement = recorder.capture(
+                () -> stockReservationRepository.deleteByOrderId(UUID.randomUUID()));
+
+        assertIndexLeadsWith(statement, "order_id");
+    }
+
+    private void assertIndexLeadsWith(RecordedStatement statement, String... columns) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            String plan = explain(connection, statement);
+            assertFalse(plan.contains("tableScan"),
+                        () -> "Expected an index, but the plan scans the table:\n" + plan);
+
+            Matcher matcher = PLAN_INDEX.matcher(plan);
+            assertTrue(matcher.find(), () -> "No index found in the plan:\n" + plan);
+            String index = matcher.group(1);
+
+            List<String> indexColumns = columnsOf(connection, index);
+            assertTrue(indexColumns.size() >= columns.length,
+                       () -> "Index " + index + " on " + indexColumns + " is too short for the plan:\n" + plan);
+            assertEquals(List.of(columns), indexColumns.subList(0, columns.length),
+                         () -> "Index " + index + " does not lead with the expected columns:\n" + plan);
+        }
+    }
+
+    private static String explain(Connection connection, RecordedStatement statement) throws Exception {
+        try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+            for (Binding binding : statement.bindings()) {
+                binding.method().invoke(explain, binding.args());
+            }
+            try (ResultSet resultSet = explain.executeQuery()) {
+                assertTrue(resultSet.next());
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    private static List<String> columnsOf(Connection connection, String index) throws SQLException {
+        List<String> columns = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement("""
+                SELECT column_name FROM information_schema.index_columns
+                 WHERE index_name = ? ORDER BY ordinal_position
+                """)) {
+            statement.setString(1, index);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    columns.add(resultSet.getString(1).toLowerCase());
+                }
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * A statement as Hibernate prepared it, with the calls that bound its parameters.
+     */
+    record RecordedStatement(String sql, List<Binding> bindings) {
+    }
+
+    /**
+     * One {@code PreparedStatement.setXxx} call, which can be replayed on another statement.
+     */
+    record Binding(Method method, Object[] args) {
+    }
+
+    /**
+     * Wraps the data source so that every prepared statement and its parameter bindings are recorded.
+     */
+    @TestConfiguration
+    static class StatementRecorder implements BeanPostProcessor {
+
+        private final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+        private volatile boolean recording;
+
+        /**
+         * Runs a repository call and returns the one statement it sent to the database.
+         */
+        RecordedStatement capture(Runnable call) {
+            statements.clear();
+            recording = true;
+            try {
+                call.run();
+            } finally {
+                recording = false;
+            }
+            assertEquals(1, statements.size(), () -> "Expected one statement, but recorded " + statements);
+            return statements.get(0);
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            return bean instanceof DataSource dataSource ? proxy(DataSource.class, dataSource, this::wrap) : bean;
+        }
+
+        // Wraps the connections a data source hands out, and records the statements they prepare
+        private Object wrap(Method method, Object[] args, Object result) {
+            if (result instanceof Connection connection) {
+                return proxy(Connection.class, connection, this::wrap);
+            }
+            if (result instanceof PreparedStatement prepared && recording) {
+                List<Binding> bindings = new CopyOnWriteArrayList<>();
+                statements.add(new RecordedStatement((String) args[0], bindings));
+                return proxy(PreparedStatement.class, prepared, (setter, setterArgs, setterResult) -> {
+                    if (isParameterSetter(setter)) {
+                        bindings.add(new Binding(setter, setterArgs.clone()));
+                    }
+                    return setterResult;
+                });
+            }
+            return result;
+        }
+
+        // setString(int, String), setObject(int, Object, int) and so on, but not setFetchSize(int)
+        private static boolean isParameterSetter(Method method) {
+            return method.getName().startsWith("set")
+                    && method.getParameterCount() >= 2
+                    && method.getParameterTypes()[0] == int.class;
+        }
+
+        private static <T> T proxy(Class<T> type, T target, ResultWrapper wrapper) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                try {
+                    return wrapper.wrap(method, args, method.invoke(target, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            };
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+        }
+
+        @FunctionalInterface
+        private interface ResultWrapper {
+            Object wrap(Method method, Object[] args, Object result) throws Throwable;
+        }
+    }
+}
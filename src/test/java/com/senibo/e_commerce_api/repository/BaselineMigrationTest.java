@@ -0,0 +1,87 @@
+package com.senibo.e_commerce_api.repository;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Migrates a database that Hibernate created before Flyway was introduced, the way production is
+ * upgraded: the pre-migration schema exists without a history table, is baselined at V1, and only
+ * the later versions run. Every table and column the entities gained since must then exist.
+ */
+class BaselineMigrationTest {
+
+    private static final String URL = "jdbc:h2:mem:baseline;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private Connection connection;
+
+    @BeforeEach
+    void createPreMigrationSchema() throws SQLException {
+        connection = DriverManager.getConnection(URL, "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            // V1 is the schema as ddl-auto created it; running it by hand leaves no Flyway history
+            statement.execute("RUNSCRIPT FROM 'classpath:db/migration/V1__baseline.sql'");
+        }
+    }
+
+    @AfterEach
+    void dropDatabase() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Test
+    void baselinedDatabaseGainsEverythingAddedAfterTheBaseline() throws SQLException {
+        MigrateResult result = Flyway.configure()
+                                     .dataSource(URL, "sa", "")
+                                     .locations("classpath:db/migration")
+                                     .baselineOnMigrate(true)
+                                     .baselineVersion("1")
+                                     .load()
+                                     .migrate();
+
+        assertTrue(result.success);
+        assertTrue(result.migrations.stream().noneMatch(migration -> migration.version.equals("1")),
+                   "V1 must not run against a database that already has the baseline schema");
+
+        assertHasColumns("orders", "paid_at", "refund_due_at");
+        assertHasColumns("sku_sequences", "prefix", "next_value");
+        assertHasColumns("carts", "version");
+        assertHasColumns("cart_items", "version");
+        assertHasColumns("stock_reservations", "id", "created_at", "updated_at", "quantity",
+                         "expires_at", "order_id", "product_id");
+    }
+
+    private void assertHasColumns(String table, String... columns) throws SQLException {
+        Set<String> actual = new HashSet<>();
+        try (PreparedStatement statement = connection.prepareStatement("""
+                SELECT column_name FROM information_schema.columns WHERE table_name = ?
+                """)) {
+            statement.setString(1, table);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    actual.add(resultSet.getString(1).toLowerCase());
+                }
+            }
+        }
+        for (String column : List.of(columns)) {
+            assertTrue(actual.contains(column), () -> table + "." + column + " is missing; found " + actual);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.senibo.e_commerce_api.repository;
+
+import com.senibo.e_commerce_api.dto.cart.CartResponse;
+import com.senibo.e_commerce_api.dto.cart.CartRow;
+import com.senibo.e_commerce_api.model.auth.User;
+import com.senibo.e_commerce_api.model.cart.Cart;
+import com.senibo.e_commerce_api.model.cartItem.CartItem;
+import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.model.product.ProductCategory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a cart response is built from a single SQL statement, however many items the cart
+ * holds, against the Flyway schema on an embedded H2 database in MySQL mode.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cart-rows;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        // The migrations use MySQL column types, which Hibernate would not validate against H2
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CartRepositoryTest {
+
+    private static final int ITEMS = 50;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    @BeforeEach
+    void createCart() {
+        user = User.builder()
+                   .firstname("Ada")
+                   .lastname("Lovelace")
+                   .username("ada")
+                   .email("ada@example.com")
+                   .build();
+        entityManager.persist(user);
+
+        Cart cart = new Cart();
+        cart.setUser(user);
+        for (int i = 0; i < ITEMS; i++) {
+            Product product = Product.builder()
+                                     .name("Product " + i)
+                                     .description("Description " + i)
+                                     .price(new BigDecimal("2.50"))
+                                     .stockQuantity(100)
+                                     .category(ProductCategory.BOOKS_MEDIA)
+                                     .sku("SKU-" + i)
+                                     .build();
+            entityManager.persist(product);
+
+            CartItem item = new CartItem();
+            item.setCart(cart);
+            item.setProduct(product);
+            item.setQuantity(2);
+            cart.getCartItems().add(item);
+        }
+        entityManager.persist(cart);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void cartWithFiftyItemsIsLoadedWithOneStatement() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        CartResponse cart = CartResponse.fromRows(cartRepository.findRowsByUserId(user.getId()));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(ITEMS, cart.items().size());
+        assertEquals(ITEMS * 2, cart.totalItems());
+        assertEquals(0, new BigDecimal("250.00").compareTo(cart.subtotal()));
+        assertEquals(0L, cart.version());
+    }
+
+    @Test
+    void cartIsLoadedByIdWithOneStatement() {
+        UUID cartId = cartRepository.findIdByUserId(user.getId()).orElseThrow();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<CartRow> rows = cartRepository.findRowsById(cartId);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(ITEMS, rows.size());
+    }
+
+    @Test
+    void userWithoutCartHasNoRows() {
+        assertTrue(cartRepository.findRowsByUserId(UUID.randomUUID()).isEmpty());
+    }
+}
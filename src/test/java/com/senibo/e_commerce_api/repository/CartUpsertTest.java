@@ -0,0 +1,127 @@
+package com.senibo.e_commerce_api.repository;
+
+import com.senibo.e_commerce_api.dto.cart.CartRow;
+import com.senibo.e_commerce_api.model.auth.User;
+import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.model.product.ProductCategory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the statements the database-backed cart is changed with, which add to quantities and
+ * versions in the database instead of reading and writing them, against the Flyway schema on an
+ * embedded H2 database in MySQL mode.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cart-upsert;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        // The migrations use MySQL column types, which Hibernate would not validate against H2
+        "spring.jpa.hibernate.ddl-auto=none"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class CartUpsertTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User user;
+    private Product product;
+
+    @BeforeEach
+    void createUserAndProduct() {
+        user = User.builder()
+                   .firstname("Ada")
+                   .lastname("Lovelace")
+                   .username("ada")
+                   .email("ada@example.com")
+                   .build();
+        entityManager.persist(user);
+
+        product = Product.builder()
+                         .name("Notebook")
+                         .description("Ruled")
+                         .price(new BigDecimal("2.50"))
+                         .stockQuantity(100)
+                         .category(ProductCategory.BOOKS_MEDIA)
+                         .sku("SKU-NOTEBOOK")
+                         .build();
+        entityManager.persist(product);
+        entityManager.flush();
+    }
+
+    @Test
+    void secondCartForTheSameUserIsIgnored() {
+        UUID first = UUID.randomUUID();
+        cartRepository.insertIfAbsent(first, user.getId(), NOW);
+        cartRepository.insertIfAbsent(UUID.randomUUID(), user.getId(), NOW);
+
+        assertEquals(first, cartRepository.findIdByUserId(user.getId()).orElseThrow());
+        assertEquals(1, cartRepository.count());
+    }
+
+    @Test
+    void secondInsertOfAProductAddsToItsLine() {
+        UUID cartId = createCart();
+        UUID itemId = UUID.randomUUID();
+        cartItemRepository.insertOrIncrement(itemId, cartId, product.getId(), 2, NOW);
+        // A concurrent first add of the same product, which lost the race to insert the line
+        cartItemRepository.insertOrIncrement(UUID.randomUUID(), cartId, product.getId(), 3, NOW);
+
+        List<CartRow> rows = cartRepository.findRowsById(cartId);
+        assertEquals(1, rows.size());
+        assertEquals(itemId, rows.get(0).itemId());
+        assertEquals(5, rows.get(0).quantity());
+    }
+
+    @Test
+    void incrementOnlyChangesAnExistingLine() {
+        UUID cartId = createCart();
+        assertEquals(0, cartItemRepository.incrementQuantity(cartId, product.getId(), 1, NOW));
+        assertEquals(0, cartItemRepository.count());
+
+        cartItemRepository.insertOrIncrement(UUID.randomUUID(), cartId, product.getId(), 1, NOW);
+        assertEquals(1, cartItemRepository.incrementQuantity(cartId, product.getId(), 4, NOW));
+
+        assertEquals(5, cartRepository.findRowsById(cartId).get(0).quantity());
+    }
+
+    @Test
+    void versionOnlyMovesOnFromTheExpectedOne() {
+        UUID cartId = createCart();
+        assertEquals(1, cartRepository.incrementVersion(cartId, NOW));
+        assertEquals(1, cartRepository.incrementVersionIfMatches(cartId, 1, NOW));
+
+        // A client still holding version 1
+        assertEquals(0, cartRepository.incrementVersionIfMatches(cartId, 1, NOW));
+
+        entityManager.clear();
+        assertEquals(2L, cartRepository.findRowsById(cartId).get(0).cartVersion());
+    }
+
+    private UUID createCart() {
+        UUID cartId = UUID.randomUUID();
+        cartRepository.insertIfAbsent(cartId, user.getId(), NOW);
+        return cartId;
+    }
+}
@@ -0,0 +1,151 @@
+package com.senibo.e_commerce_api.service.impl;
+
+import com.senibo.e_commerce_api.cart.CartStore;
+import com.senibo.e_commerce_api.catalog.ProductCache;
+import com.senibo.e_commerce_api.dto.cart.AddItemToCartRequest;
+import com.senibo.e_commerce_api.dto.cart.CartResponse;
+import com.senibo.e_commerce_api.exception.general.PreconditionFailedException;
+import com.senibo.e_commerce_api.model.auth.User;
+import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.model.product.ProductCategory;
+import com.senibo.e_commerce_api.repository.ProductRepository;
+import com.senibo.e_commerce_api.repository.UserRepository;
+import com.senibo.e_commerce_api.service.CartService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Changes one database-backed cart from several threads at once, against the Flyway schema on an
+ * embedded H2 database in MySQL mode, with the write-behind {@link CartStore} disabled.
+ * <p>
+ * Every change commits its own transaction, so the tests run outside one.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cart-concurrency;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        // The migrations use MySQL column types, which Hibernate would not validate against H2
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.app.cart-store.enabled=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CartServiceImpl.class, CartStore.class, ProductCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int ADDS_PER_THREAD = 5;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Product product;
+
+    @BeforeEach
+    void createUserAndProduct() {
+        user = userRepository.save(User.builder()
+                                       .firstname("Ada")
+                                       .lastname("Lovelace")
+                                       .username("ada")
+                                       .email("ada@example.com")
+                                       .build());
+        product = productRepository.save(Product.builder()
+                                                .name("Notebook")
+                                                .description("Ruled")
+                                                .price(new BigDecimal("2.50"))
+                                                .stockQuantity(1000)
+                                                .category(ProductCategory.BOOKS_MEDIA)
+                                                .sku("SKU-NOTEBOOK")
+                                                .build());
+    }
+
+    @AfterEach
+    void deleteEverything() {
+        jdbcTemplate.execute("DELETE FROM cart_items");
+        jdbcTemplate.execute("DELETE FROM carts");
+        jdbcTemplate.execute("DELETE FROM products");
+        jdbcTemplate.execute("DELETE FROM users");
+    }
+
+    @Test
+    void parallelAddsToOneLineAreSummed() throws Exception {
+        // The first add creates the cart and its line; the rest all increment that line
+        addOne(Optional.empty());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> adds = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                adds.add(executor.submit((Callable<Void>) () -> {
+                    for (int j = 0; j < ADDS_PER_THREAD; j++) {
+                        addOne(Optional.empty());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> add : adds) {
+                add.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        int adds = 1 + THREADS * ADDS_PER_THREAD;
+        CartResponse cart = cartService.getCartForUser(user.getId());
+        assertEquals(1, cart.items().size());
+        assertEquals(adds, cart.items().get(0).quantity());
+        // Each add moved the cart on by exactly one version
+        assertEquals(adds, cart.version());
+    }
+
+    @Test
+    void addAtAStaleVersionFailsAndLeavesTheCartAsItWas() {
+        CartResponse first = addOne(Optional.empty());
+        CartResponse second = addOne(Optional.of(first.version()));
+        assertEquals(first.version() + 1, second.version());
+
+        // A client still holding the first version is refused (412), and its line change undone
+        assertThrows(PreconditionFailedException.class, () -> addOne(Optional.of(first.version())));
+
+        CartResponse cart = cartService.getCartForUser(user.getId());
+        assertEquals(2, cart.items().get(0).quantity());
+        assertEquals(second.version(), cart.version());
+    }
+
+    private CartResponse addOne(Optional<Long> expectedVersion) {
+        return cartService.addItemToCart(user.getId(),
+                                         new AddItemToCartRequest(product.getId(), 1),
+                                         expectedVersion);
+    }
+}
@@ -0,0 +1,233 @@
+package com.senibo.e_commerce_api.service.impl;
+
+import com.senibo.e_commerce_api.catalog.OrderPaidEvent;
+import com.senibo.e_commerce_api.catalog.ProductCache;
+import com.senibo.e_commerce_api.client.PaystackClient;
+import com.senibo.e_commerce_api.inventory.StockReservations;
+import com.senibo.e_commerce_api.model.auth.User;
+import com.senibo.e_commerce_api.model.order.Order;
+import com.senibo.e_commerce_api.model.order.OrderStatus;
+import com.senibo.e_commerce_api.model.orderItem.OrderItem;
+import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.model.product.ProductCategory;
+import com.senibo.e_commerce_api.repository.OrderRepository;
+import com.senibo.e_commerce_api.repository.ProductRepository;
+import com.senibo.e_commerce_api.repository.UserRepository;
+import com.senibo.e_commerce_api.service.CartService;
+import com.senibo.e_commerce_api.service.OrderService;
+import com.senibo.e_commerce_api.service.PaymentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Delivers a Paystack {@code charge.success} webhook for an order whose stock hold has already
+ * expired and cancelled it, against the Flyway schema on an embedded H2 database in MySQL mode.
+ * <p>
+ * The tests commit their own transactions, as the webhook and the hold sweep do, and the hold
+ * lifetime is zero so that every hold has expired by the time the sweep runs.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:late-payment;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        // The migrations use MySQL column types, which Hibernate would not validate against H2
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.app.paystack-test-secret-key=" + LatePaymentTest.SECRET,
+        "spring.app.reservations.ttl-seconds=0",
+        // The sweep is run by hand
+        "spring.app.reservations.sweep-interval-ms=3600000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PaymentServiceImpl.class, StockReservations.class, ProductCache.class, JacksonAutoConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RecordApplicationEvents
+class LatePaymentTest {
+
+    static final String SECRET = "sk_test_late_payment";
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private StockReservations stockReservations;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @MockitoBean
+    private OrderService orderService;
+
+    @MockitoBean
+    private PaystackClient paystackClient;
+
+    @MockitoBean
+    private CartService cartService;
+
+    private TransactionTemplate transaction;
+    private User user;
+    private Product product;
+
+    @BeforeEach
+    void createLastUnit() {
+        transaction = new TransactionTemplate(transactionManager);
+        user = userRepository.save(User.builder()
+                                       .firstname("Ada")
+                                       .lastname("Lovelace")
+                                       .username("ada")
+                                       .email("ada@example.com")
+                                       .build());
+        product = productRepository.save(Product.builder()
+                                                .name("Last unit")
+                                                .description("Only one left")
+                                                .price(new BigDecimal("10.00"))
+                                                .stockQuantity(1)
+                                                .category(ProductCategory.BOOKS_MEDIA)
+                                                .sku("SKU-LAST")
+                                                .build());
+    }
+
+    @AfterEach
+    void deleteEverything() {
+        jdbcTemplate.execute("DELETE FROM stock_reservations");
+        jdbcTemplate.execute("DELETE FROM order_items");
+        jdbcTemplate.execute("DELETE FROM orders");
+        jdbcTemplate.execute("DELETE FROM products");
+        jdbcTemplate.execute("DELETE FROM users");
+    }
+
+    @Test
+    void paymentAfterTheHoldExpiredIsHonouredWhileTheStockIsStillThere() throws Exception {
+        UUID orderId = placeOrder("ref_late");
+        expireHolds();
+        assertEquals(OrderStatus.CANCELLED, statusOf(orderId));
+
+        paymentService.handlePaystackWebhook(sign(chargeSuccess("ref_late")), chargeSuccess("ref_late"));
+
+        Order order = orderRepository.findById(orderId).orElseThrow();
+        assertEquals(OrderStatus.PAID, order.getOrderStatus());
+        assertNull(order.getRefundDueAt());
+        assertEquals(0, stockOf(product.getId()));
+        assertEquals(1, events.stream(OrderPaidEvent.class).count());
+        verify(cartService).clearCart(user.getId());
+    }
+
+    @Test
+    void paymentAfterTheHoldExpiredAndTheStockWasSoldIsFlaggedForRefund() throws Exception {
+        UUID lateOrderId = placeOrder("ref_late");
+        expireHolds();
+        // Another buyer takes the unit the cancelled order had held
+        UUID otherOrderId = placeOrder("ref_other");
+
+        paymentService.handlePaystackWebhook(sign(chargeSuccess("ref_late")), chargeSuccess("ref_late"));
+
+        Order late = orderRepository.findById(lateOrderId).orElseThrow();
+        assertEquals(OrderStatus.CANCELLED, late.getOrderStatus());
+        assertNotNull(late.getRefundDueAt());
+        assertNull(late.getPaidAt());
+        assertEquals(1, stockOf(product.getId()));
+        assertEquals(0, events.stream(OrderPaidEvent.class).count());
+        verify(cartService, never()).clearCart(any());
+
+        // A retried webhook leaves the flag as it was
+        LocalDateTime flaggedAt = late.getRefundDueAt();
+        paymentService.handlePaystackWebhook(sign(chargeSuccess("ref_late")), chargeSuccess("ref_late"));
+        assertEquals(flaggedAt, orderRepository.findById(lateOrderId).orElseThrow().getRefundDueAt());
+
+        // The buyer who holds the unit can still pay for it
+        paymentService.handlePaystackWebhook(sign(chargeSuccess("ref_other")), chargeSuccess("ref_other"));
+        assertEquals(OrderStatus.PAID, statusOf(otherOrderId));
+        assertEquals(0, stockOf(product.getId()));
+    }
+
+    private UUID placeOrder(String paymentReference) {
+        return transaction.execute(status -> {
+            Order order = Order.builder()
+                               .user(user)
+                               .totalAmount(product.getPrice())
+                               .paymentReference(paymentReference)
+                               .orderItems(new ArrayList<>())
+                               .build();
+            order.getOrderItems().add(OrderItem.builder()
+                                               .order(order)
+                                               .product(product)
+                                               .quantity(1)
+                                               .pricePerUnit(product.getPrice())
+                                               .build());
+            orderRepository.save(order);
+            stockReservations.reserve(order);
+            return order.getId();
+        });
+    }
+
+    private void expireHolds() throws InterruptedException {
+        // Holds expire strictly before the sweep's clock reading
+        Thread.sleep(5);
+        stockReservations.expire();
+    }
+
+    private OrderStatus statusOf(UUID orderId) {
+        return orderRepository.findById(orderId).orElseThrow().getOrderStatus();
+    }
+
+    private int stockOf(UUID productId) {
+        return productRepository.findById(productId).orElseThrow().getStockQuantity();
+    }
+
+    private static String chargeSuccess(String reference) {
+        return """
+                {"event":"charge.success","data":{"status":"success","reference":"%s","amount":1000}}
+                """.formatted(reference);
+    }
+
+    private static String sign(String body) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+        return HexFormat.of().formatHex(mac.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
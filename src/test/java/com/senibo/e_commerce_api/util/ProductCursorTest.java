@@ -0,0 +1,100 @@
+package com.senibo.e_commerce_api.util;
+
+import com.senibo.e_commerce_api.exception.general.InvalidOperationException;
+import com.senibo.e_commerce_api.model.product.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that a {@link ProductCursor} survives the trip through its token for every sortable
+ * field, and that a token which was altered into something it could not have been issued as is
+ * refused as a bad request rather than reaching the listing query.
+ */
+class ProductCursorTest {
+
+    private static final UUID ID = UUID.fromString("f47ac10b-58cc-4372-a567-0e02b2c3d479");
+
+    @Test
+    void cursorsSurviveTheirTokens() {
+        Product product = new Product();
+        product.setId(ID);
+        product.setCreatedAt(LocalDateTime.of(2025, 3, 1, 12, 0, 0, 123_456_000));
+        product.setPrice(new BigDecimal("1E+2"));
+        // The separator inside the value, which goes last so that it needs no escaping
+        product.setName("Lamp | Shade ünïcode");
+
+        for (String sortBy : ProductCursor.SORTABLE_FIELDS) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                ProductCursor cursor = ProductCursor.after(product, sortBy, direction);
+                String token = cursor.encode();
+
+                assertFalse(token.contains("=") || token.contains("+") || token.contains("/"),
+                            () -> token + " is not URL-safe");
+                assertEquals(cursor, ProductCursor.decode(token));
+            }
+        }
+    }
+
+    @Test
+    void sortValuesDecodeToTheirFieldsTypes() {
+        LocalDateTime createdAt = LocalDateTime.of(2025, 3, 1, 12, 0, 0, 1_000);
+
+        assertEquals(createdAt,
+                     decodeRaw("v1|createdAt|ASC|" + ID + "|" + createdAt).typedSortValue());
+        assertEquals(new BigDecimal("100"),
+                     decodeRaw("v1|price|DESC|" + ID + "|100").typedSortValue());
+        assertEquals("Lamp", decodeRaw("v1|name|ASC|" + ID + "|Lamp").typedSortValue());
+    }
+
+    @Test
+    void alteredTokensAreRefused() {
+        String valid = "v1|price|ASC|" + ID + "|10.00";
+        decodeRaw(valid);
+
+        assertRefused("v2|price|ASC|" + ID + "|10.00");
+        // A field without an index behind its seek predicate
+        assertRefused("v1|stockQuantity|ASC|" + ID + "|10");
+        assertRefused("v1|price|SIDEWAYS|" + ID + "|10.00");
+        assertRefused("v1|price|ASC|not-a-uuid|10.00");
+        assertRefused("v1|price|ASC|" + ID + "|ten");
+        assertRefused("v1|createdAt|ASC|" + ID + "|yesterday");
+        assertRefused("v1|price|ASC|" + ID);
+        assertRefused("");
+
+        String token = encodeRaw(valid);
+        assertThrows(InvalidOperationException.class,
+                     () -> ProductCursor.decode(token.substring(0, token.length() / 2)));
+        assertThrows(InvalidOperationException.class, () -> ProductCursor.decode(token + "!"));
+    }
+
+    @Test
+    void unsortableFieldCannotBeIssued() {
+        Product product = new Product();
+        product.setId(ID);
+
+        assertThrows(InvalidOperationException.class,
+                     () -> ProductCursor.after(product, "stockQuantity", Sort.Direction.ASC));
+    }
+
+    private static ProductCursor decodeRaw(String raw) {
+        return ProductCursor.decode(encodeRaw(raw));
+    }
+
+    private static void assertRefused(String raw) {
+        assertThrows(InvalidOperationException.class, () -> decodeRaw(raw), () -> raw + " was accepted");
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
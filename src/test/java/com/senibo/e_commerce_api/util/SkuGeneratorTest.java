@@ -0,0 +1,149 @@
+package com.senibo.e_commerce_api.util;
+
+import com.senibo.e_commerce_api.model.product.Product;
+import com.senibo.e_commerce_api.model.product.ProductCategory;
+import com.senibo.e_commerce_api.repository.ProductRepository;
+import com.senibo.e_commerce_api.repository.SkuSequenceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Generates SKUs for one prefix from several threads and two generators at once, standing in for
+ * two nodes, against the Flyway schema on an embedded H2 database in MySQL mode.
+ * <p>
+ * Block reservations commit their own transactions, so the tests run outside one. Blocks are 10
+ * suffixes long, so that the threads keep competing for the counter's row lock.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sku-generator;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        // The migrations use MySQL column types, which Hibernate would not validate against H2
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.app.sku.block-size=" + SkuGeneratorTest.BLOCK_SIZE
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SkuGenerator.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SkuGeneratorTest {
+
+    static final int BLOCK_SIZE = 10;
+
+    private static final int THREADS = 8;
+    private static final int SKUS_PER_THREAD = 50;
+
+    @Autowired
+    private SkuGenerator skuGenerator;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SkuSequenceRepository skuSequenceRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void deleteEverything() {
+        jdbcTemplate.execute("DELETE FROM sku_sequences");
+        jdbcTemplate.execute("DELETE FROM products");
+    }
+
+    @Test
+    void concurrentGeneratorsNeverHandOutTheSameSku() throws Exception {
+        SkuGenerator otherNode = new SkuGenerator(productRepository, skuSequenceRepository,
+                                                  transactionManager, BLOCK_SIZE);
+
+        List<String> skus = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<List<String>>> batches = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                SkuGenerator generator = i % 2 == 0 ? skuGenerator : otherNode;
+                batches.add(executor.submit((Callable<List<String>>) () -> {
+                    List<String> batch = new ArrayList<>();
+                    for (int j = 0; j < SKUS_PER_THREAD; j++) {
+                        batch.add(generator.generateUniqueSku("Desk Lamp", "HOME_GARDEN"));
+                    }
+                    return batch;
+                }));
+            }
+            for (Future<List<String>> batch : batches) {
+                skus.addAll(batch.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Set<String> distinct = new HashSet<>(skus);
+        assertEquals(THREADS * SKUS_PER_THREAD, distinct.size());
+        // Each generator reserved whole blocks, at most one of which it has not used up
+        long reserved = nextValueOf("HOM-DES") - 10000;
+        long unused = reserved - THREADS * SKUS_PER_THREAD;
+        assertEquals(0, reserved % BLOCK_SIZE);
+        assertTrue(unused >= 0 && unused < 2 * BLOCK_SIZE, () -> unused + " suffixes were reserved but not used");
+    }
+
+    @Test
+    void newPrefixStartsAfterTheSkusAlreadyInUse() {
+        saveProduct("ELE-LAM-10041");
+        saveProduct("ELE-LAM-10042");
+        // Neither has a numeric suffix of this prefix
+        saveProduct("ELE-LAM-OLD");
+        saveProduct("ELE-LAMP-99999");
+
+        assertEquals("ELE-LAM-10043", skuGenerator.generateUniqueSku("Lamp", "ELECTRONICS"));
+        assertEquals("ELE-LAM-10044", skuGenerator.generateUniqueSku("Lamp", "ELECTRONICS"));
+    }
+
+    @Test
+    void counterOnlyMovesOncePerBlock() {
+        for (int i = 0; i < BLOCK_SIZE + 1; i++) {
+            skuGenerator.generateUniqueSku("Notebook", "BOOKS_MEDIA");
+        }
+
+        assertEquals(10000 + 2 * BLOCK_SIZE, nextValueOf("BOO-NOT"));
+    }
+
+    private long nextValueOf(String prefix) {
+        return jdbcTemplate.queryForObject("SELECT next_value FROM sku_sequences WHERE prefix = ?",
+                                           Long.class, prefix);
+    }
+
+    private void saveProduct(String sku) {
+        productRepository.save(Product.builder()
+                                      .name("Lamp")
+                                      .description("A lamp")
+                                      .price(new BigDecimal("10.00"))
+                                      .stockQuantity(1)
+                                      .category(ProductCategory.ELECTRONICS)
+                                      .sku(sku)
+                                      .build());
+    }
+}
@@ -0,0 +1,65 @@
+package com.senibo.e_commerce_api.catalog;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A {@link PriceScanKernel} built on the incubating Vector API, which compiles to SIMD
+ * instructions (AVX2, AVX-512, NEON) where the CPU has them.
+ * <p>
+ * Products are processed in groups of eight, one byte of the mask at a time: the eight categories
+ * are compared in a single 64-bit byte vector, and the eight prices in as many long vectors as the
+ * preferred shape needs (four 2-lane vectors on NEON, two on AVX2, one on AVX-512). The lane masks
+ * are turned into bits and combined without any per-product branch.
+ * <p>
+ * Only compiled by the {@code vector} Maven profile, and only loaded reflectively by
+ * {@link PriceScanner} when the {@code jdk.incubator.vector} module is present, since the JVM must be
+ * started with {@code --add-modules jdk.incubator.vector}.
+ */
+final class VectorPriceScanKernel implements PriceScanKernel {
+
+    private static final int GROUP = 8;
+
+    // The preferred shape, capped so that whole vectors fit in a group
+    private static final VectorSpecies<Long> PRICE_SPECIES = VectorSpecies.of(long.class,
+            VectorShape.forBitSize(Math.min(LongVector.SPECIES_PREFERRED.vectorBitSize(), GROUP * Long.SIZE)));
+    private static final VectorSpecies<Byte> CATEGORY_SPECIES = ByteVector.SPECIES_64;
+
+    @Override
+    public int scan(long[] prices, byte[] categories, int from, int to,
+                    long minPrice, long maxPrice, int category, long[] mask) {
+        int lanes = PRICE_SPECIES.length();
+        int groupsEnd = from + ((to - from) & -GROUP);
+        int count = 0;
+
+        for (int i = from; i < groupsEnd; i += GROUP) {
+            long bits = 0;
+            for (int lane = 0; lane < GROUP; lane += lanes) {
+                LongVector group = LongVector.fromArray(PRICE_SPECIES, prices, i + lane);
+                long inRange = group.compare(VectorOperators.GE, minPrice)
+                                    .and(group.compare(VectorOperators.LE, maxPrice))
+                                    .toLong();
+                bits |= inRange << lane;
+            }
+            if (category >= 0) {
+                bits &= ByteVector.fromArray(CATEGORY_SPECIES, categories, i)
+                                  .compare(VectorOperators.EQ, (byte) category)
+                                  .toLong();
+            }
+            // Groups start on a multiple of 8 when the range does, so they never straddle two words
+            mask[i >>> 6] |= bits << i;
+            count += Long.bitCount(bits);
+        }
+
+        return count + ScalarPriceScanKernel.INSTANCE.scan(
+                prices, categories, groupsEnd, to, minPrice, maxPrice, category, mask);
+    }
+
+    @Override
+    public String name() {
+        return "vector (" + PRICE_SPECIES + ")";
+    }
+}